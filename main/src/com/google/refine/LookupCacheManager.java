@@ -4,21 +4,49 @@ import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.HasFieldsListImpl;
 import com.google.refine.expr.WrappedRow;
 import com.google.refine.expr.functions.Cross;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.io.FileProjectManager;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
 import com.google.refine.util.LookupException;
+import com.google.refine.util.StringRowIndex;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.*;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * Manage the cache of project's lookups.
  *
+ * Lookups are kept up to date with the cells modified in their target
+ * project, and are evicted in least recently used order when they take more
+ * memory than the "expressions.cross.maxLookupMemory" preference allows, in
+ * megabytes. When the "expressions.cross.persistLookups" preference is set,
+ * lookups are saved in the directory of their target project when it is
+ * unloaded, and read back instead of being computed again.
+ *
  * @author Lu Liu
  */
 public class LookupCacheManager {
+    public static final String MAX_MEMORY_PREFERENCE = "expressions.cross.maxLookupMemory";
+    public static final String PERSIST_PREFERENCE = "expressions.cross.persistLookups";
+    public static final long DEFAULT_MAX_MEMORY = 256L * 1024 * 1024;
+
+    static final private Logger logger = LoggerFactory.getLogger("lookup-cache-manager");
 
-    protected final Map<String, ProjectLookup> _lookups = new HashMap<>();
+    protected final Map<String, ProjectLookup> _lookups = new LinkedHashMap<>(16, 0.75f, true);
 
     /**
      * Computes the ProjectLookup based on combination key,
@@ -30,16 +58,23 @@ public class LookupCacheManager {
      */
     public ProjectLookup getLookup(long targetProject, String targetColumn) throws LookupException {
         String key = targetProject + ";" + targetColumn;
-        if (!_lookups.containsKey(key)) {
-            ProjectLookup lookup = new ProjectLookup(targetProject, targetColumn);
-            computeLookup(lookup);
-
-            synchronized (_lookups) {
-                _lookups.put(key, lookup);
+        synchronized (_lookups) {
+            ProjectLookup lookup = _lookups.get(key);
+            if (lookup != null) {
+                return lookup;
             }
         }
 
-        return _lookups.get(key);
+        ProjectLookup lookup = new ProjectLookup(targetProject, targetColumn);
+        if (!loadLookup(lookup)) {
+            computeLookup(lookup);
+        }
+
+        synchronized (_lookups) {
+            _lookups.put(key, lookup);
+            evictLookups(lookup);
+        }
+        return lookup;
     }
 
     public void flushLookupsInvolvingProject(long projectID) {
@@ -66,6 +101,99 @@ public class LookupCacheManager {
         }
     }
 
+    /**
+     * Updates the lookups of a project with modified cells.
+     *
+     * @param projectID the project whose cells were modified
+     * @param cellChanges the modified cells
+     * @param reverted true if the cells were set back to their old content
+     */
+    public void updateLookups(long projectID, List<CellChange> cellChanges, boolean reverted) {
+        synchronized (_lookups) {
+            for (ProjectLookup lookup : _lookups.values()) {
+                if (lookup.targetProjectID == projectID) {
+                    lookup.update(cellChanges, reverted);
+                }
+            }
+        }
+    }
+
+    /**
+     * Saves the lookups of a project which changed since they were computed or loaded,
+     * if lookups are persisted.
+     *
+     * @param project the project about to be unloaded
+     */
+    public void saveLookups(Project project) {
+        if (!isPersistenceEnabled()) {
+            return;
+        }
+        List<ProjectLookup> lookups = new ArrayList<>();
+        synchronized (_lookups) {
+            for (ProjectLookup lookup : _lookups.values()) {
+                if (lookup.targetProjectID == project.id && lookup._index != null && lookup._dirty) {
+                    lookups.add(lookup);
+                }
+            }
+        }
+        for (ProjectLookup lookup : lookups) {
+            File file = getLookupFile(lookup);
+            if (file == null) {
+                continue;
+            }
+            try {
+                file.getParentFile().mkdirs();
+                synchronized (lookup) {
+                    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                        out.writeUTF(lookup.targetColumnName);
+                        out.writeLong(getLastEntryID(project));
+                        out.writeInt(project.rows.size());
+                        out.writeInt(lookup._cellIndex);
+                        lookup._index.write(out);
+                    }
+                    lookup._dirty = false;
+                }
+            } catch (IOException e) {
+                logger.warn("Failed to save lookup on column " + lookup.targetColumnName, e);
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * @return the estimated memory taken by all lookups, in bytes
+     */
+    public long getMemoryUsage() {
+        synchronized (_lookups) {
+            long total = 0;
+            for (ProjectLookup lookup : _lookups.values()) {
+                total += lookup.getMemoryUsage();
+            }
+            return total;
+        }
+    }
+
+    public int size() {
+        synchronized (_lookups) {
+            return _lookups.size();
+        }
+    }
+
+    protected void evictLookups(ProjectLookup keep) {
+        long maxMemory = getMaxMemory();
+        long total = 0;
+        for (ProjectLookup lookup : _lookups.values()) {
+            total += lookup.getMemoryUsage();
+        }
+        for (Iterator<ProjectLookup> it = _lookups.values().iterator(); total > maxMemory && it.hasNext(); ) {
+            ProjectLookup lookup = it.next();
+            if (lookup != keep) {
+                total -= lookup.getMemoryUsage();
+                it.remove();
+            }
+        }
+    }
+
     protected void computeLookup(ProjectLookup lookup) throws LookupException {
         if (lookup.targetProjectID < 0) {
             return;
@@ -77,11 +205,8 @@ public class LookupCacheManager {
             return;
         }
 
-        // if this is a lookup on the index column
+        // if this is a lookup on the index column, rows are found from their index
         if (lookup.targetColumnName.equals(Cross.INDEX_COLUMN_NAME)) {
-            for (int r = 0; r < targetProject.rows.size(); r++) {
-                lookup.valueToRowIndices.put(String.valueOf(r) , Collections.singletonList(r));
-            }
             return; // return directly
         }
 
@@ -92,15 +217,74 @@ public class LookupCacheManager {
 
         // We can't use for-each here, because we'll need the row index when creating WrappedRow
         int count = targetProject.rows.size();
+        StringRowIndex index = new StringRowIndex(count);
+        int cellIndex = targetColumn.getCellIndex();
         for (int r = 0; r < count; r++) {
             Row targetRow = targetProject.rows.get(r);
-            Object value = targetRow.getCellValue(targetColumn.getCellIndex());
-            if (ExpressionUtils.isNonBlankData(value)) {
-                String valueStr = value.toString();
-                lookup.valueToRowIndices.putIfAbsent(valueStr, new ArrayList<>());
-                lookup.valueToRowIndices.get(valueStr).add(r);
+            String key = ProjectLookup.getKey(targetRow.getCellValue(cellIndex));
+            if (key != null) {
+                index.add(r, key);
             }
         }
+        lookup._cellIndex = cellIndex;
+        lookup._index = index;
+        lookup._dirty = true;
+    }
+
+    /**
+     * Reads a saved lookup, if it was saved in the current state of its project.
+     *
+     * @return true if the lookup was read
+     */
+    protected boolean loadLookup(ProjectLookup lookup) {
+        if (!isPersistenceEnabled() || lookup.targetColumnName.equals(Cross.INDEX_COLUMN_NAME)) {
+            return false;
+        }
+        File file = getLookupFile(lookup);
+        Project targetProject = ProjectManager.singleton.getProject(lookup.targetProjectID);
+        if (file == null || !file.exists() || targetProject == null) {
+            return false;
+        }
+        Column targetColumn = targetProject.columnModel.getColumnByName(lookup.targetColumnName);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (targetColumn == null
+                    || !lookup.targetColumnName.equals(in.readUTF())
+                    || in.readLong() != getLastEntryID(targetProject)
+                    || in.readInt() != targetProject.rows.size()
+                    || in.readInt() != targetColumn.getCellIndex()) {
+                return false;
+            }
+            lookup._index = StringRowIndex.read(in);
+            lookup._cellIndex = targetColumn.getCellIndex();
+            return true;
+        } catch (IOException e) {
+            logger.warn("Failed to read lookup on column " + lookup.targetColumnName, e);
+            return false;
+        }
+    }
+
+    protected File getLookupFile(ProjectLookup lookup) {
+        if (!(ProjectManager.singleton instanceof FileProjectManager)) {
+            return null;
+        }
+        File dir = new File(((FileProjectManager) ProjectManager.singleton).getProjectDir(lookup.targetProjectID), "lookups");
+        return new File(dir, Integer.toHexString(lookup.targetColumnName.hashCode()) + ".idx");
+    }
+
+    static protected long getLastEntryID(Project project) {
+        List<HistoryEntry> entries = project.history.getLastPastEntries(1);
+        return entries.isEmpty() ? 0 : entries.get(entries.size() - 1).id;
+    }
+
+    static protected boolean isPersistenceEnabled() {
+        return ProjectManager.singleton != null &&
+            ProjectManager.singleton.getPreferenceStore().getBooleanPreference(PERSIST_PREFERENCE, false);
+    }
+
+    static protected long getMaxMemory() {
+        return ProjectManager.singleton == null ? DEFAULT_MAX_MEMORY :
+            ProjectManager.singleton.getPreferenceStore().getLongPreference(
+                    MAX_MEMORY_PREFERENCE, DEFAULT_MAX_MEMORY / (1024 * 1024)) * 1024 * 1024;
     }
 
     static public class ProjectLookup {
@@ -108,27 +292,78 @@ public class LookupCacheManager {
         final public long targetProjectID;
         final public String targetColumnName;
 
-        final public Map<Object, List<Integer>> valueToRowIndices = new HashMap<>();
+        /**
+         * The rows of each value of the target column, null for lookups on the index column
+         */
+        protected StringRowIndex _index;
+        protected int _cellIndex = -1;
+        protected boolean _dirty;
 
         ProjectLookup(long targetProjectID, String targetColumnName) {
             this.targetProjectID = targetProjectID;
             this.targetColumnName = targetColumnName;
         }
 
-        public HasFieldsListImpl getRows(Object value) {
-            if (!ExpressionUtils.isNonBlankData(value)) return null;
-            String valueStr = value.toString();
-            if (valueToRowIndices.containsKey(valueStr)) {
-                Project targetProject = ProjectManager.singleton.getProject(targetProjectID);
-                if (targetProject != null) {
-                    HasFieldsListImpl rows = new HasFieldsListImpl();
-                    for (Integer r : valueToRowIndices.get(valueStr)) {
-                        Row row = targetProject.rows.get(r);
-                        rows.add(new WrappedRow(targetProject, r, row));
-                    }
+        public synchronized HasFieldsListImpl getRows(Object value) {
+            String valueStr = getKey(value);
+            if (valueStr == null) return null;
+            Project targetProject = ProjectManager.singleton.getProject(targetProjectID);
+            if (targetProject == null) {
+                return null;
+            }
+
+            int[] rowIndices;
+            if (_index != null) {
+                rowIndices = _index.get(valueStr);
+            } else if (targetColumnName.equals(Cross.INDEX_COLUMN_NAME)) {
+                rowIndices = getIndexRow(valueStr, targetProject.rows.size());
+            } else {
+                rowIndices = null;
+            }
+            if (rowIndices == null) {
+                return null;
+            }
+
+            HasFieldsListImpl rows = new HasFieldsListImpl();
+            for (int r : rowIndices) {
+                Row row = targetProject.rows.get(r);
+                rows.add(new WrappedRow(targetProject, r, row));
+            }
+            return rows;
+        }
+
+        synchronized void update(List<CellChange> cellChanges, boolean reverted) {
+            if (_index == null) {
+                return;
+            }
+            for (CellChange cellChange : cellChanges) {
+                if (cellChange.cellIndex == _cellIndex) {
+                    Cell cell = reverted ? cellChange.oldCell : cellChange.newCell;
+                    _index.set(cellChange.row, getKey(cell == null ? null : cell.value));
+                    _dirty = true;
+                }
+            }
+        }
+
+        synchronized long getMemoryUsage() {
+            return _index == null ? 0 : _index.getMemoryUsage();
+        }
+
+        /**
+         * Two values match if and only if they have the same string representation.
+         */
+        static String getKey(Object value) {
+            return ExpressionUtils.isNonBlankData(value) ? value.toString() : null;
+        }
 
-                    return rows;
+        static int[] getIndexRow(String valueStr, int rowCount) {
+            try {
+                int r = Integer.parseInt(valueStr);
+                if (r >= 0 && r < rowCount && String.valueOf(r).equals(valueStr)) {
+                    return new int[] { r };
                 }
+            } catch (NumberFormatException e) {
+                // not a row index
             }
             return null;
         }
@@ -55,11 +55,18 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.refine.browsing.util.FacetStateCache;
+import com.google.refine.browsing.util.FilteredRowIndexCache;
+import com.google.refine.browsing.util.ValueCountIndexCache;
 import com.google.refine.history.HistoryEntryManager;
 import com.google.refine.model.Project;
+import com.google.refine.model.recon.ReconResponseCache;
 import com.google.refine.preference.PreferenceStore;
+import com.google.refine.process.ProcessCheckpoint;
 import com.google.refine.preference.TopList;
+import com.google.refine.sorting.SortedRowIndexCache;
 import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.UrlResponseCache;
 
 /**
  * ProjectManager is responsible for loading and saving the workspace and projects.
@@ -88,6 +95,36 @@ public abstract class ProjectManager {
      */
     transient protected LookupCacheManager _lookupCacheManager = new LookupCacheManager();
 
+    /**
+     *  What caches the rows matching the facets of engines.
+     */
+    transient protected FilteredRowIndexCache _filteredRowIndexCache = new FilteredRowIndexCache();
+
+    /**
+     *  What caches the order of sorted rows, for paging through them.
+     */
+    transient protected SortedRowIndexCache _sortedRowIndexCache = new SortedRowIndexCache();
+
+    /**
+     *  What keeps the states of facets, to update them after changes.
+     */
+    transient protected FacetStateCache _facetStateCache = new FacetStateCache();
+
+    /**
+     *  What caches the counts of expression values over all rows, shared by facets and functions.
+     */
+    transient protected ValueCountIndexCache _valueCountIndexCache = new ValueCountIndexCache();
+
+    /**
+     *  What caches the responses of reconciliation services, shared by all projects.
+     */
+    transient protected ReconResponseCache _reconResponseCache = new ReconResponseCache();
+
+    /**
+     *  What caches the responses of fetched URLs, shared by all projects.
+     */
+    transient protected UrlResponseCache _urlResponseCache = new UrlResponseCache();
+
     /**
      *  Flag for heavy operations like creating or importing projects.  Workspace saves are skipped while it's set.
      */
@@ -224,6 +261,24 @@ public abstract class ProjectManager {
      */
     protected abstract void saveProject(Project project) throws IOException;
 
+    /**
+     * @param project
+     * @return true if the project was saved incrementally since its last
+     *      full save, and should be compacted before being flushed from memory
+     */
+    protected boolean needsCompaction(Project project) {
+        return false;
+    }
+
+    /**
+     * Fully save a project which was saved incrementally, without marking it
+     * as saved
+     * @param project
+     * @throws IOException
+     */
+    protected void compactProject(Project project) throws IOException {
+    }
+
     /**
      * Save workspace and all projects to data store
      * @param allModified
@@ -232,6 +287,8 @@ public abstract class ProjectManager {
         if (allModified || _busy == 0) {
             saveProjects(allModified);
             saveWorkspace();
+            _reconResponseCache.save();
+            _urlResponseCache.save();
         }
     }
 
@@ -260,6 +317,7 @@ public abstract class ProjectManager {
      */
     protected void saveProjects(boolean allModified) {
         List<SaveRecord> records = new ArrayList<SaveRecord>();
+        List<Project> compactions = new ArrayList<Project>();
         LocalDateTime startTimeOfSave = LocalDateTime.now();
         
         synchronized (this) {
@@ -281,7 +339,14 @@ public abstract class ProjectManager {
 
                     } else if (!project.getProcessManager().hasPending()
                               && startTimeOfSave.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() - project.getLastSave().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() > PROJECT_FLUSH_DELAY) {
-                        
+
+                        if (needsCompaction(project)) {
+                            // keep it in memory until its next full save is written,
+                            // it gets flushed on the next pass
+                            compactions.add(project);
+                            continue;
+                        }
+
                         /*
                          *  It's been a while since the project was last saved and it hasn't been
                          *  modified. We can safely remove it from the cache to save some memory.
@@ -292,6 +357,14 @@ public abstract class ProjectManager {
             }
         }
         
+        for (Project project : compactions) {
+            try {
+                compactProject(project);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+
         if (records.size() > 0) {
             Collections.sort(records, new Comparator<SaveRecord>() {
                 @Override
@@ -352,6 +425,54 @@ public abstract class ProjectManager {
         return _lookupCacheManager;
     }
 
+    /**
+     * Gets the cache of filtered rows
+     */
+    @JsonIgnore
+    public FilteredRowIndexCache getFilteredRowIndexCache() {
+        return _filteredRowIndexCache;
+    }
+
+    /**
+     * Gets the cache of sorted row orders
+     */
+    @JsonIgnore
+    public SortedRowIndexCache getSortedRowIndexCache() {
+        return _sortedRowIndexCache;
+    }
+
+    /**
+     * Gets the cache of facet states
+     */
+    @JsonIgnore
+    public FacetStateCache getFacetStateCache() {
+        return _facetStateCache;
+    }
+
+    /**
+     * Gets the cache of value counts over all rows
+     */
+    @JsonIgnore
+    public ValueCountIndexCache getValueCountIndexCache() {
+        return _valueCountIndexCache;
+    }
+
+    /**
+     * Gets the cache of reconciliation responses
+     */
+    @JsonIgnore
+    public ReconResponseCache getReconResponseCache() {
+        return _reconResponseCache;
+    }
+
+    /**
+     * Gets the cache of fetched URL responses
+     */
+    @JsonIgnore
+    public UrlResponseCache getUrlResponseCache() {
+        return _urlResponseCache;
+    }
+
     /**
      * Gets the project metadata from memory
      * Requires that the metadata has already been loaded from the data store
@@ -516,6 +637,8 @@ public abstract class ProjectManager {
                 Project project = loadProject(id);
                 if (project != null) {
                     _projects.put(id, project);                    
+                    // processes interrupted by a restart go on where they stopped
+                    ProcessCheckpoint.resumeProcesses(project);
                 }
                 return project;
             }
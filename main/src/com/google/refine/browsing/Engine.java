@@ -33,19 +33,35 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.facets.Facet;
+import com.google.refine.browsing.facets.IncrementalFacet;
+import com.google.refine.browsing.facets.IncrementalFacet.RowDelta;
+import com.google.refine.browsing.facets.TextSearchFacet;
+import com.google.refine.browsing.util.ChangedRows;
 import com.google.refine.browsing.util.ConjunctiveFilteredRecords;
 import com.google.refine.browsing.util.ConjunctiveFilteredRows;
+import com.google.refine.browsing.util.FacetStateCache;
 import com.google.refine.browsing.util.FilteredRecordsAsFilteredRows;
+import com.google.refine.browsing.util.ParallelRowScanner;
+import com.google.refine.browsing.util.RowFilterMasks;
+import com.google.refine.history.HistoryEntry;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
+import com.google.refine.util.ParsingUtilities;
 
 /**
  * Faceted browsing engine.
@@ -95,11 +111,16 @@ public class Engine  {
         return new FilteredRows() {
             @Override
             public void accept(Project project, RowVisitor visitor) {
+                accept(project, visitor, 0, project.rows.size());
+            }
+
+            @Override
+            public void accept(Project project, RowVisitor visitor, int fromRowIndex, int toRowIndex) {
                 try {
                     visitor.start(project);
 
-                    int c = project.rows.size();
-                    for (int rowIndex = 0; rowIndex < c; rowIndex++) {
+                    int c = Math.min(toRowIndex, project.rows.size());
+                    for (int rowIndex = Math.max(fromRowIndex, 0); rowIndex < c; rowIndex++) {
                         Row row = project.rows.get(rowIndex);
                         if (visitor.visit(project, rowIndex, row)) {
                             break;
@@ -112,9 +133,79 @@ public class Engine  {
         };
     }
 
+    /**
+     * Returns the rows matching all facets. In row mode, the matching rows are
+     * cached as a bitmap until the project changes, so repeated requests with
+     * the same facets only visit the matching rows.
+     */
     @JsonIgnore
     public FilteredRows getAllFilteredRows() {
-        return getFilteredRows(null);
+        FilteredRows filteredRows = getFilteredRows(null);
+        if (_config.getMode().equals(Mode.RowBased)) {
+            String key = getFilteredRowsCacheKey();
+            if (key != null) {
+                return ProjectManager.singleton.getFilteredRowIndexCache()
+                        .getFilteredRows(_project, key, filteredRows);
+            }
+        }
+        return filteredRows;
+    }
+
+    /**
+     * @return a key identifying the current facets and the state of the project,
+     *         or null if the filtered rows should not be cached
+     */
+    protected String getFilteredRowsCacheKey() {
+        return hasRowFilters() ? getCacheKey() : null;
+    }
+
+    /**
+     * @return a key identifying the current facets and the state of the project,
+     *         or null if the rows matching the facets can change while the
+     *         project does not, so that nothing computed from them can be cached
+     */
+    @JsonIgnore
+    public String getCacheKey() {
+        if (ProjectManager.singleton == null || _project.history == null || _project.rows == null) {
+            return null;
+        }
+        // filters which can depend on other rows, other projects or the time
+        // of evaluation can change without a new history entry
+        for (Facet facet : _facets) {
+            if (facet.getRowFilter(_project) != null && getFilterDependencies(facet) == null) {
+                return null;
+            }
+        }
+        try {
+            return getLastEntryID() + ";" + ParsingUtilities.mapper.writeValueAsString(_config);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the names of the columns the row filter of a facet depends on,
+     *      or null if they are unknown
+     */
+    protected Set<String> getFilterDependencies(Facet facet) {
+        if (facet instanceof IncrementalFacet) {
+            return ((IncrementalFacet) facet).getColumnDependencies();
+        } else if (facet instanceof TextSearchFacet) {
+            return Collections.singleton(((TextSearchFacet) facet).getColumnName());
+        }
+        return null;
+    }
+
+    /**
+     * @return true if any facet filters out rows
+     */
+    public boolean hasRowFilters() {
+        for (Facet facet : _facets) {
+            if (facet.getRowFilter(_project) != null) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public FilteredRows getFilteredRows(Facet except) {
@@ -175,6 +266,24 @@ public class Engine  {
         throw new InternalError("This method should not be called when the engine is not in record mode.");
     }
     
+    /**
+     * @return the masks of rows rejected by each facet, or null if no facet filters rows
+     *         or if there are too many facets to combine them
+     */
+    protected RowFilterMasks computeRowFilterMasks() {
+        if (_facets.size() > RowFilterMasks.MAX_FILTERS) {
+            return null;
+        }
+        List<RowFilter> rowFilters = new ArrayList<>(_facets.size());
+        boolean hasFilter = false;
+        for (Facet facet : _facets) {
+            RowFilter rowFilter = facet.getRowFilter(_project);
+            hasFilter |= rowFilter != null;
+            rowFilters.add(rowFilter);
+        }
+        return hasFilter ? new RowFilterMasks(_project, rowFilters) : null;
+    }
+
     public void initializeFromConfig(EngineConfig config) {
         _config = config;
         _facets = config.getFacetConfigs().stream()
@@ -182,21 +291,180 @@ public class Engine  {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Computes the choices of all facets. Facets are independent from each other,
+     * so they are computed concurrently when facet parallelism is enabled
+     * (see {@link ParallelRowScanner}).
+     * 
+     * In row mode, the row filters of all facets are evaluated in a single pass
+     * (see {@link RowFilterMasks}) instead of once per other facet.
+     */
     public void computeFacets() {
+        List<Callable<Void>> tasks = new ArrayList<>(_facets.size());
         if (_config.getMode().equals(Mode.RowBased)) {
-            for (Facet facet : _facets) {
-                FilteredRows filteredRows = getFilteredRows(facet);
+            String stateKey = getFacetStateCacheKey();
+            long lastEntryID = stateKey == null ? 0 : getLastEntryID();
+            boolean[] updated = stateKey == null ? new boolean[_facets.size()] : updateFacets(stateKey);
+
+            RowFilterMasks masks = null;
+            boolean masksComputed = false;
+            for (int i = 0; i < _facets.size(); i++) {
+                if (updated[i]) {
+                    continue;
+                }
+                if (!masksComputed) {
+                    masks = computeRowFilterMasks();
+                    masksComputed = true;
+                }
+                Facet facet = _facets.get(i);
+                FilteredRows filteredRows = masks != null && masks.hasOtherFilters(i) ?
+                        masks.getFilteredRows(i) : getFilteredRows(facet);
+
+                tasks.add(() -> {
+                    facet.computeChoices(_project, filteredRows);
+                    return null;
+                });
+            }
+            ParallelRowScanner.invokeAll(tasks);
 
-                facet.computeChoices(_project, filteredRows);
+            // only keep the states if no change was applied in the meantime
+            if (stateKey != null && getLastEntryID() == lastEntryID) {
+                storeFacetStates(stateKey, lastEntryID);
             }
         } else if (_config.getMode().equals(Mode.RecordBased)) {
             for (Facet facet : _facets) {
                 FilteredRecords filteredRecords = getFilteredRecords(facet);
 
-                facet.computeChoices(_project, filteredRecords);
+                tasks.add(() -> {
+                    facet.computeChoices(_project, filteredRecords);
+                    return null;
+                });
             }
+            ParallelRowScanner.invokeAll(tasks);
         } else {
             throw new InternalError("Unknown mode.");
         }
     }
+
+    /**
+     * Updates the choices of the facets from the ones computed by an engine with
+     * the same configuration, when the project was only changed in a few cells since.
+     *
+     * @return for each facet, whether its choices were updated
+     */
+    protected boolean[] updateFacets(String stateKey) {
+        boolean[] updated = new boolean[_facets.size()];
+        FacetStateCache.Entry entry = ProjectManager.singleton.getFacetStateCache().take(_project, stateKey);
+        if (entry == null || entry.states.length != _facets.size() || _facets.size() > RowFilterMasks.MAX_FILTERS) {
+            return updated;
+        }
+        ChangedRows changedRows = ChangedRows.since(_project, entry.historyEntryID);
+        if (changedRows == null) {
+            return updated;
+        }
+
+        // the filters are evaluated on single rows, so they must not depend on other rows
+        List<RowFilter> rowFilters = new ArrayList<>(_facets.size());
+        Set<String> filterDependencies = new HashSet<>();
+        for (Facet facet : _facets) {
+            RowFilter rowFilter = facet.getRowFilter(_project);
+            if (rowFilter != null) {
+                Set<String> dependencies = facet instanceof IncrementalFacet ?
+                        ((IncrementalFacet) facet).getColumnDependencies() : null;
+                if (dependencies == null) {
+                    return updated;
+                }
+                filterDependencies.addAll(dependencies);
+            }
+            rowFilters.add(rowFilter);
+        }
+
+        // which filters reject each changed row, before and after the changes
+        int changedRowCount = changedRows.getOldRows().size();
+        int[] rowIndices = new int[changedRowCount];
+        Row[] oldRows = new Row[changedRowCount];
+        long[] oldRejections = new long[changedRowCount];
+        long[] newRejections = new long[changedRowCount];
+        int k = 0;
+        for (Map.Entry<Integer, Row> oldRow : changedRows.getOldRows().entrySet()) {
+            int rowIndex = oldRow.getKey();
+            Row newRow = _project.rows.get(rowIndex);
+            rowIndices[k] = rowIndex;
+            oldRows[k] = oldRow.getValue();
+            for (int i = 0; i < rowFilters.size(); i++) {
+                RowFilter rowFilter = rowFilters.get(i);
+                if (rowFilter != null) {
+                    if (!rowFilter.filterRow(_project, rowIndex, oldRow.getValue())) {
+                        oldRejections[k] |= 1L << i;
+                    }
+                    if (!rowFilter.filterRow(_project, rowIndex, newRow)) {
+                        newRejections[k] |= 1L << i;
+                    }
+                }
+            }
+            k++;
+        }
+
+        for (int i = 0; i < _facets.size(); i++) {
+            Facet facet = _facets.get(i);
+            if (!(facet instanceof IncrementalFacet) || entry.states[i] == null) {
+                continue;
+            }
+            IncrementalFacet incrementalFacet = (IncrementalFacet) facet;
+            Set<String> dependencies = incrementalFacet.getColumnDependencies();
+            if (dependencies == null) {
+                continue;
+            }
+
+            List<RowDelta> deltas = new ArrayList<>();
+            if (!Collections.disjoint(changedRows.getColumnNames(), dependencies)
+                    || !Collections.disjoint(changedRows.getColumnNames(), filterDependencies)) {
+                long mask = ~(1L << i);
+                for (k = 0; k < changedRowCount; k++) {
+                    Row oldRow = (oldRejections[k] & mask) == 0 ? oldRows[k] : null;
+                    Row newRow = (newRejections[k] & mask) == 0 ? _project.rows.get(rowIndices[k]) : null;
+                    if (oldRow != null || newRow != null) {
+                        deltas.add(new RowDelta(rowIndices[k], oldRow, newRow));
+                    }
+                }
+            }
+            updated[i] = incrementalFacet.updateChoices(_project, entry.states[i], deltas);
+        }
+        return updated;
+    }
+
+    protected void storeFacetStates(String stateKey, long lastEntryID) {
+        Object[] states = new Object[_facets.size()];
+        boolean hasState = false;
+        for (int i = 0; i < _facets.size(); i++) {
+            Facet facet = _facets.get(i);
+            if (facet instanceof IncrementalFacet) {
+                states[i] = ((IncrementalFacet) facet).getChoicesState();
+                hasState |= states[i] != null;
+            }
+        }
+        if (hasState) {
+            ProjectManager.singleton.getFacetStateCache().put(_project, stateKey, lastEntryID, states);
+        }
+    }
+
+    /**
+     * @return a key identifying the configuration of the facets, or null if their
+     *         states should not be kept
+     */
+    protected String getFacetStateCacheKey() {
+        if (ProjectManager.singleton == null || _project.history == null || _project.rows == null) {
+            return null;
+        }
+        try {
+            return ParsingUtilities.mapper.writeValueAsString(_config);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    protected long getLastEntryID() {
+        List<HistoryEntry> lastEntries = _project.history.getLastPastEntries(1);
+        return lastEntries.isEmpty() ? 0 : lastEntries.get(0).id;
+    }
 }
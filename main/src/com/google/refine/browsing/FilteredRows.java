@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.browsing;
 
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 
 /**
  * Interface for anything that can decide which rows match and which rows don't match
@@ -49,4 +50,38 @@ public interface FilteredRows {
      * @param visitor
      */
     public void accept(Project project, RowVisitor visitor);
+
+    /**
+     * Same as {@link #accept(Project, RowVisitor)} but only visits rows whose index
+     * lies in the given range. This lets callers split a scan into independent
+     * chunks. Implementations should override it to avoid looking at rows outside
+     * the range at all.
+     * 
+     * @param project
+     * @param visitor
+     * @param fromRowIndex first row index to visit (inclusive)
+     * @param toRowIndex last row index to visit (exclusive)
+     */
+    default public void accept(Project project, RowVisitor visitor, int fromRowIndex, int toRowIndex) {
+        accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+                visitor.start(project);
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                if (rowIndex < fromRowIndex || rowIndex >= toRowIndex) {
+                    return false;
+                }
+                return visitor.visit(project, rowIndex, row);
+            }
+
+            @Override
+            public void end(Project project) {
+                visitor.end(project);
+            }
+        });
+    }
 }
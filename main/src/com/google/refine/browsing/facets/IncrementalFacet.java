@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.facets;
+
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * A facet whose choices can be updated from the rows modified since they
+ * were computed, instead of computed again from all rows.
+ */
+public interface IncrementalFacet extends Facet {
+
+    /**
+     * A row modified since the choices were computed. The old or new version
+     * of the row is null when it is excluded by the filters of the other facets.
+     */
+    static public class RowDelta {
+        final public int rowIndex;
+        final public Row oldRow;
+        final public Row newRow;
+
+        public RowDelta(int rowIndex, Row oldRow, Row newRow) {
+            this.rowIndex = rowIndex;
+            this.oldRow = oldRow;
+            this.newRow = newRow;
+        }
+    }
+
+    /**
+     * @return the names of the columns the choices and the filter of this facet
+     *      depend on, or null if they can depend on other rows
+     */
+    @JsonIgnore
+    public Set<String> getColumnDependencies();
+
+    /**
+     * @return what the choices were computed from, by the last computation on rows,
+     *      to be passed to {@link #updateChoices} later. Null if there is none.
+     */
+    @JsonIgnore
+    public Object getChoicesState();
+
+    /**
+     * Computes the choices from the state of a previous computation and the rows
+     * modified since. The state can be modified and becomes the state of this facet.
+     * 
+     * @param project
+     * @param state
+     *      the state returned by {@link #getChoicesState()} on a facet with the same configuration
+     * @param deltas
+     *      the rows modified since that state was computed
+     * @return false if the choices could not be updated and must be computed again
+     */
+    public boolean updateChoices(Project project, Object state, List<RowDelta> deltas);
+}
@@ -35,6 +35,7 @@ package com.google.refine.browsing.facets;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -51,14 +52,17 @@ import com.google.refine.browsing.RowFilter;
 import com.google.refine.browsing.filters.AllRowsRecordFilter;
 import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionEqualRowFilter;
+import com.google.refine.browsing.util.ConjunctiveFilteredRows;
 import com.google.refine.browsing.util.ExpressionNominalValueGrouper;
+import com.google.refine.browsing.util.ParallelRowScanner;
+import com.google.refine.browsing.util.ValueCountIndexCache;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 
-public class ListFacet implements Facet {
+public class ListFacet implements IncrementalFacet {
     public static final String ERR_TOO_MANY_CHOICES = "Too many choices";
     
     /**
@@ -158,6 +162,7 @@ public class ListFacet implements Facet {
     protected List<NominalFacetChoice> _choices = new LinkedList<NominalFacetChoice>();
     protected int _blankCount;
     protected int _errorCount;
+    protected ExpressionNominalValueGrouper _grouper;
     
     public ListFacet() {
     }
@@ -228,20 +233,7 @@ public class ListFacet implements Facet {
     }
     
     protected int getLimit() {
-        Object v = ProjectManager.singleton.getPreferenceStore().get("ui.browsing.listFacet.limit");
-        if (v != null) {
-            if (v instanceof Number) {
-                return ((Number) v).intValue();
-            } else {
-                try {
-                    int n = Integer.parseInt(v.toString());
-                    return n;
-                } catch (NumberFormatException e) {
-                    // ignore
-                }
-            }
-        }
-        return 2000;
+        return ProjectManager.singleton.getPreferenceStore().getIntPreference("ui.browsing.listFacet.limit", 2000);
     }
         
     public void initializeFromConfig(ListFacetConfig config, Project project) {
@@ -293,11 +285,23 @@ public class ListFacet implements Facet {
     @Override
     public void computeChoices(Project project, FilteredRows filteredRows) {
         if (_eval != null && _errorMessage == null) {
-            ExpressionNominalValueGrouper grouper = 
-                new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
-            
-            filteredRows.accept(project, grouper);
+            ExpressionNominalValueGrouper grouper;
+            if (filteredRows instanceof ConjunctiveFilteredRows
+                    && !((ConjunctiveFilteredRows) filteredRows).hasRowFilters()
+                    && ProjectManager.singleton != null
+                    && ValueCountIndexCache.isCacheable(_config.columnName, _cellIndex, _eval)) {
+                // counts over all rows are shared with other facets, copy them before selecting choices
+                grouper = ProjectManager.singleton.getValueCountIndexCache().getValueCounts(
+                        project, _config.columnName, _cellIndex, _config.expression, _eval).copy();
+            } else {
+                grouper = ParallelRowScanner.scan(
+                    project,
+                    filteredRows,
+                    () -> new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex),
+                    ExpressionNominalValueGrouper::merge);
+            }
             
+            _grouper = grouper;
             postProcessGrouper(grouper);
         }
     }
@@ -314,6 +318,48 @@ public class ListFacet implements Facet {
         }
     }
     
+    @Override
+    @JsonIgnore
+    public Set<String> getColumnDependencies() {
+        if (_eval == null || _errorMessage != null) {
+            return null;
+        }
+        return _eval.getColumnDependencies(_cellIndex < 0 ? null : _config.columnName);
+    }
+    
+    @Override
+    @JsonIgnore
+    public Object getChoicesState() {
+        return _grouper;
+    }
+    
+    @Override
+    public boolean updateChoices(Project project, Object state, List<RowDelta> deltas) {
+        if (_eval == null || _errorMessage != null || !(state instanceof ExpressionNominalValueGrouper)) {
+            return false;
+        }
+        
+        ExpressionNominalValueGrouper grouper = (ExpressionNominalValueGrouper) state;
+        for (RowDelta delta : deltas) {
+            if (delta.oldRow != null) {
+                ExpressionNominalValueGrouper rowGrouper =
+                    new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+                rowGrouper.visit(project, delta.rowIndex, delta.oldRow);
+                grouper.subtract(rowGrouper);
+            }
+            if (delta.newRow != null) {
+                ExpressionNominalValueGrouper rowGrouper =
+                    new ExpressionNominalValueGrouper(_eval, _config.columnName, _cellIndex);
+                rowGrouper.visit(project, delta.rowIndex, delta.newRow);
+                grouper.merge(rowGrouper);
+            }
+        }
+        
+        _grouper = grouper;
+        postProcessGrouper(grouper);
+        return true;
+    }
+    
     protected void postProcessGrouper(ExpressionNominalValueGrouper grouper) {
         _choices.clear();
         _choices.addAll(grouper.choices.values());
@@ -33,6 +33,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.List;
+import java.util.Set;
+
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -49,6 +52,7 @@ import com.google.refine.browsing.util.ExpressionNumericValueBinner;
 import com.google.refine.browsing.util.NumericBinIndex;
 import com.google.refine.browsing.util.NumericBinRecordIndex;
 import com.google.refine.browsing.util.NumericBinRowIndex;
+import com.google.refine.browsing.util.ParallelRowScanner;
 import com.google.refine.browsing.util.RowEvaluable;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
@@ -56,7 +60,7 @@ import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 
-public class RangeFacet implements Facet {
+public class RangeFacet implements IncrementalFacet {
     
     public static final String ERR_NO_NUMERIC_VALUE_PRESENT = "No numeric value present.";
     
@@ -150,6 +154,7 @@ public class RangeFacet implements Facet {
     protected double    _step;
     protected int[]     _baseBins;
     protected int[]     _bins;
+    protected ExpressionNumericValueBinner _binner;
     
     @JsonProperty("baseNumericCount")
     protected int       _baseNumericCount;
@@ -318,21 +323,17 @@ public class RangeFacet implements Facet {
     public void computeChoices(Project project, FilteredRows filteredRows) {
         if (_eval != null && _errorMessage == null) {
             RowEvaluable rowEvaluable = getRowEvaluable(project);
-            
-            Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
-            String key = "numeric-bin:row-based:" + _config._expression;
-            NumericBinIndex index = (NumericBinIndex) column.getPrecompute(key);
-            if (index == null) {
-                index = new NumericBinRowIndex(project, rowEvaluable);
-                column.setPrecompute(key, index);
-            }
+            NumericBinIndex index = getRowBinIndex(project, rowEvaluable);
             
             retrieveDataFromBaseBinIndex(index);
             
-            ExpressionNumericValueBinner binner = 
-                new ExpressionNumericValueBinner(rowEvaluable, index);
-            
-            filteredRows.accept(project, binner);
+            final NumericBinIndex baseIndex = index;
+            ExpressionNumericValueBinner binner = ParallelRowScanner.scan(
+                    project,
+                    filteredRows,
+                    () -> new ExpressionNumericValueBinner(rowEvaluable, baseIndex),
+                    ExpressionNumericValueBinner::merge);
+            _binner = binner;
             retrieveDataFromBinner(binner);
         }
     }
@@ -361,6 +362,65 @@ public class RangeFacet implements Facet {
         }
     }
     
+    protected NumericBinIndex getRowBinIndex(Project project, RowEvaluable rowEvaluable) {
+        Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
+        String key = "numeric-bin:row-based:" + _config._expression;
+        NumericBinIndex index = (NumericBinIndex) column.getPrecompute(key);
+        if (index == null) {
+            index = new NumericBinRowIndex(project, rowEvaluable);
+            column.setPrecompute(key, index);
+        }
+        return index;
+    }
+    
+    @Override
+    @JsonIgnore
+    public Set<String> getColumnDependencies() {
+        if (_eval == null || _errorMessage != null) {
+            return null;
+        }
+        return _eval.getColumnDependencies(_cellIndex < 0 ? null : _config._columnName);
+    }
+    
+    @Override
+    @JsonIgnore
+    public Object getChoicesState() {
+        return _binner;
+    }
+    
+    @Override
+    public boolean updateChoices(Project project, Object state, List<RowDelta> deltas) {
+        if (_eval == null || _errorMessage != null || !(state instanceof ExpressionNumericValueBinner)) {
+            return false;
+        }
+        
+        RowEvaluable rowEvaluable = getRowEvaluable(project);
+        NumericBinIndex index = getRowBinIndex(project, rowEvaluable);
+        ExpressionNumericValueBinner previousBinner = (ExpressionNumericValueBinner) state;
+        if (!previousBinner.hasSameBins(index)) {
+            // the bins moved, so the previous counts cannot be reused
+            return false;
+        }
+        
+        ExpressionNumericValueBinner binner = new ExpressionNumericValueBinner(rowEvaluable, index);
+        binner.merge(previousBinner);
+        for (RowDelta delta : deltas) {
+            if (delta.oldRow != null) {
+                ExpressionNumericValueBinner rowBinner = new ExpressionNumericValueBinner(rowEvaluable, index);
+                rowBinner.visit(project, delta.rowIndex, delta.oldRow);
+                binner.subtract(rowBinner);
+            }
+            if (delta.newRow != null) {
+                binner.visit(project, delta.rowIndex, delta.newRow);
+            }
+        }
+        
+        retrieveDataFromBaseBinIndex(index);
+        _binner = binner;
+        retrieveDataFromBinner(binner);
+        return true;
+    }
+    
     protected RowEvaluable getRowEvaluable(Project project) {
         return new ExpressionBasedRowEvaluable(_config._columnName, _cellIndex, _eval);
     }
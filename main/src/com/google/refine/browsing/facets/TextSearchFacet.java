@@ -46,6 +46,7 @@ import com.google.refine.expr.Evaluable;
 import com.google.refine.grel.ast.VariableExpr;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
+import com.google.refine.util.PatternCache;
 import com.google.refine.util.PatternSyntaxExceptionParser;
 
 public class TextSearchFacet implements Facet {
@@ -131,7 +132,7 @@ public class TextSearchFacet implements Facet {
         if (_query != null) {
             if ("regex".equals(_config._mode)) {
                 try {
-                    _pattern = Pattern.compile(
+                    _pattern = PatternCache.compile(
                             _query, 
                             _config._caseSensitive ? 0 : Pattern.CASE_INSENSITIVE);
                 } catch (java.util.regex.PatternSyntaxException e) {
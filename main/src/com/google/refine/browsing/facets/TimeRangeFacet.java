@@ -33,6 +33,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.browsing.facets;
 
+import java.util.List;
+import java.util.Set;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -45,6 +48,7 @@ import com.google.refine.browsing.filters.AnyRowRecordFilter;
 import com.google.refine.browsing.filters.ExpressionTimeComparisonRowFilter;
 import com.google.refine.browsing.util.ExpressionBasedRowEvaluable;
 import com.google.refine.browsing.util.ExpressionTimeValueBinner;
+import com.google.refine.browsing.util.ParallelRowScanner;
 import com.google.refine.browsing.util.RowEvaluable;
 import com.google.refine.browsing.util.TimeBinIndex;
 import com.google.refine.browsing.util.TimeBinRecordIndex;
@@ -55,7 +59,7 @@ import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 
-public class TimeRangeFacet implements Facet {
+public class TimeRangeFacet implements IncrementalFacet {
     /*
      * Configuration, from the client side
      */
@@ -114,6 +118,7 @@ public class TimeRangeFacet implements Facet {
     protected double    _step;
     protected int[]     _baseBins;
     protected int[]     _bins;
+    protected ExpressionTimeValueBinner _binner;
     
     /*
      * Computed data
@@ -262,20 +267,17 @@ public class TimeRangeFacet implements Facet {
     public void computeChoices(Project project, FilteredRows filteredRows) {
         if (_eval != null && _errorMessage == null) {
             RowEvaluable rowEvaluable = getRowEvaluable(project);
-            
-            Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
-            String key = "time-bin:row-based:" + _config._expression;
-            TimeBinIndex index = (TimeBinIndex) column.getPrecompute(key);
-            if (index == null) {
-                index = new TimeBinRowIndex(project, rowEvaluable);
-                column.setPrecompute(key, index);
-            }
+            TimeBinIndex index = getRowBinIndex(project, rowEvaluable);
             
             retrieveDataFromBaseBinIndex(index);
                         
-            ExpressionTimeValueBinner binner = new ExpressionTimeValueBinner(rowEvaluable, index);
-            
-            filteredRows.accept(project, binner);
+            final TimeBinIndex baseIndex = index;
+            ExpressionTimeValueBinner binner = ParallelRowScanner.scan(
+                    project,
+                    filteredRows,
+                    () -> new ExpressionTimeValueBinner(rowEvaluable, baseIndex),
+                    ExpressionTimeValueBinner::merge);
+            _binner = binner;
             retrieveDataFromBinner(binner);
         }
     }
@@ -337,6 +339,65 @@ public class TimeRangeFacet implements Facet {
         return rowFilter == null ? null : new AnyRowRecordFilter(rowFilter);
     }
     
+    protected TimeBinIndex getRowBinIndex(Project project, RowEvaluable rowEvaluable) {
+        Column column = project.columnModel.getColumnByCellIndex(_cellIndex);
+        String key = "time-bin:row-based:" + _config._expression;
+        TimeBinIndex index = (TimeBinIndex) column.getPrecompute(key);
+        if (index == null) {
+            index = new TimeBinRowIndex(project, rowEvaluable);
+            column.setPrecompute(key, index);
+        }
+        return index;
+    }
+    
+    @Override
+    @JsonIgnore
+    public Set<String> getColumnDependencies() {
+        if (_eval == null || _errorMessage != null) {
+            return null;
+        }
+        return _eval.getColumnDependencies(_cellIndex < 0 ? null : _config._columnName);
+    }
+    
+    @Override
+    @JsonIgnore
+    public Object getChoicesState() {
+        return _binner;
+    }
+    
+    @Override
+    public boolean updateChoices(Project project, Object state, List<RowDelta> deltas) {
+        if (_eval == null || _errorMessage != null || !(state instanceof ExpressionTimeValueBinner)) {
+            return false;
+        }
+        
+        RowEvaluable rowEvaluable = getRowEvaluable(project);
+        TimeBinIndex index = getRowBinIndex(project, rowEvaluable);
+        ExpressionTimeValueBinner previousBinner = (ExpressionTimeValueBinner) state;
+        if (!previousBinner.hasSameBins(index)) {
+            // the bins moved, so the previous counts cannot be reused
+            return false;
+        }
+        
+        ExpressionTimeValueBinner binner = new ExpressionTimeValueBinner(rowEvaluable, index);
+        binner.merge(previousBinner);
+        for (RowDelta delta : deltas) {
+            if (delta.oldRow != null) {
+                ExpressionTimeValueBinner rowBinner = new ExpressionTimeValueBinner(rowEvaluable, index);
+                rowBinner.visit(project, delta.rowIndex, delta.oldRow);
+                binner.subtract(rowBinner);
+            }
+            if (delta.newRow != null) {
+                binner.visit(project, delta.rowIndex, delta.newRow);
+            }
+        }
+        
+        retrieveDataFromBaseBinIndex(index);
+        _binner = binner;
+        retrieveDataFromBinner(binner);
+        return true;
+    }
+    
     protected RowEvaluable getRowEvaluable(Project project) {
         return new ExpressionBasedRowEvaluable(_config._columnName, _cellIndex, _eval);
     }
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.google.refine.history.Change;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.CellLevelChange;
+
+/**
+ * The rows of a project modified since a given history entry, as they were
+ * before the modifications.
+ */
+public class ChangedRows {
+    /**
+     * Beyond this fraction of the rows, computing from all rows is about as fast.
+     */
+    public static final int MAX_CHANGED_ROWS_RATIO = 8;
+
+    final protected SortedMap<Integer, Row> _oldRows;
+    final protected Set<String> _columnNames;
+
+    protected ChangedRows(SortedMap<Integer, Row> oldRows, Set<String> columnNames) {
+        _oldRows = oldRows;
+        _columnNames = columnNames;
+    }
+
+    /**
+     * @param project
+     * @param historyEntryID
+     *      the id of an applied history entry, or 0 for the start of the project
+     * @return the rows modified by the entries applied after the given one, or null
+     *      if some of these entries do not only modify cells, or modify too many rows
+     */
+    static public ChangedRows since(Project project, long historyEntryID) {
+        List<HistoryEntry> entries = project.history.getPastEntriesSince(historyEntryID);
+        if (entries == null) {
+            return null;
+        }
+
+        int maxRowCount = project.rows.size() / MAX_CHANGED_ROWS_RATIO;
+        Map<Integer, Map<Integer, Cell>> oldCells = new HashMap<>();
+        Set<String> columnNames = new HashSet<>();
+        for (HistoryEntry entry : entries) {
+            Change change = entry.getChange();
+            if (!(change instanceof CellLevelChange)) {
+                // not loaded, or not a change of cells only
+                return null;
+            }
+            for (CellChange cellChange : ((CellLevelChange) change).getCellChanges()) {
+                Column column = project.columnModel.getColumnByCellIndex(cellChange.cellIndex);
+                if (column == null || cellChange.row >= project.rows.size()) {
+                    return null;
+                }
+                columnNames.add(column.getName());
+
+                Map<Integer, Cell> rowCells = oldCells.get(cellChange.row);
+                if (rowCells == null) {
+                    if (oldCells.size() >= maxRowCount) {
+                        return null;
+                    }
+                    rowCells = new HashMap<>();
+                    oldCells.put(cellChange.row, rowCells);
+                }
+                // the oldest change of a cell holds its original content
+                if (!rowCells.containsKey(cellChange.cellIndex)) {
+                    rowCells.put(cellChange.cellIndex, cellChange.oldCell);
+                }
+            }
+        }
+
+        SortedMap<Integer, Row> oldRows = new TreeMap<>();
+        for (Map.Entry<Integer, Map<Integer, Cell>> rowCells : oldCells.entrySet()) {
+            Row row = project.rows.get(rowCells.getKey()).dup();
+            for (Map.Entry<Integer, Cell> cell : rowCells.getValue().entrySet()) {
+                row.setCell(cell.getKey(), cell.getValue());
+            }
+            oldRows.put(rowCells.getKey(), row);
+        }
+        return new ChangedRows(oldRows, columnNames);
+    }
+
+    /**
+     * @return the modified rows as they were before, by row index
+     */
+    public SortedMap<Integer, Row> getOldRows() {
+        return _oldRows;
+    }
+
+    /**
+     * @return the names of the columns of the modified cells
+     */
+    public Set<String> getColumnNames() {
+        return _columnNames;
+    }
+}
@@ -53,13 +53,25 @@ public class ConjunctiveFilteredRows implements FilteredRows {
         _rowFilters.add(rowFilter);
     }
     
+    /**
+     * @return false if all rows are visited
+     */
+    public boolean hasRowFilters() {
+        return !_rowFilters.isEmpty();
+    }
+    
     @Override
     public void accept(Project project, RowVisitor visitor) {
+        accept(project, visitor, 0, project.rows.size());
+    }
+    
+    @Override
+    public void accept(Project project, RowVisitor visitor, int fromRowIndex, int toRowIndex) {
         try {
             visitor.start(project);
 
-            int c = project.rows.size();
-            for (int rowIndex = 0; rowIndex < c; rowIndex++) {
+            int c = Math.min(toRowIndex, project.rows.size());
+            for (int rowIndex = Math.max(fromRowIndex, 0); rowIndex < c; rowIndex++) {
                 Row row = project.rows.get(rowIndex);
                 if (matchRow(project, rowIndex, row)) {
                     if (visitRow(project, visitor, rowIndex, row)) {
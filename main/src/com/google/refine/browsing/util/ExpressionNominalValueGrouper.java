@@ -46,6 +46,7 @@ import com.google.refine.browsing.RowVisitor;
 import com.google.refine.browsing.facets.NominalFacetChoice;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.RowBatch;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
@@ -79,12 +80,23 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
     final public Map<Object, IndexedNominalFacetChoice> choices = new HashMap<Object, IndexedNominalFacetChoice>();
     public int blankCount = 0;
     public int errorCount = 0;
+    /**
+     * Rows with an empty string, which are also counted as blank
+     */
+    public int emptyStringCount = 0;
 
     /*
      * Scratch pad variables
      */
     protected boolean hasBlank;
     protected boolean hasError;
+    protected boolean hasEmptyString;
+
+    /*
+     * Rows visited between start() and end() are evaluated in batches
+     */
+    protected RowBatch batch;
+    protected Object[] batchResults;
 
     public ExpressionNominalValueGrouper(Evaluable evaluable, String columnName, int cellIndex) {
         _evaluable = evaluable;
@@ -94,18 +106,31 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
 
     @Override
     public void start(Project project) {
-        // nothing to do
+        batch = new RowBatch(ExpressionUtils.createBindings(project), _columnName, _cellIndex, RowBatch.DEFAULT_CAPACITY);
+        batchResults = new Object[batch.getCapacity()];
     }
 
     @Override
     public void end(Project project) {
-        // nothing to do
+        if (batch != null) {
+            flushBatch();
+            batch = null;
+            batchResults = null;
+        }
     }
 
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
+        if (batch != null) {
+            if (batch.add(rowIndex, row)) {
+                flushBatch();
+            }
+            return false;
+        }
+
         hasError = false;
         hasBlank = false;
+        hasEmptyString = false;
 
         Properties bindings = ExpressionUtils.createBindings(project);
 
@@ -117,6 +142,9 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
         if (hasBlank) {
             blankCount++;
         }
+        if (hasEmptyString) {
+            emptyStringCount++;
+        }
 
         return false;
     }
@@ -128,6 +156,7 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
         for (int r = record.fromRowIndex; r < record.toRowIndex; r++) {
             hasError = false;
             hasBlank = false;
+            hasEmptyString = false;
 
             Row row = project.rows.get(r);
             visitRow(project, r, row, bindings, record.recordIndex);
@@ -138,13 +167,42 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
             if (hasBlank) {
                 blankCount++;
             }
+            if (hasEmptyString) {
+                emptyStringCount++;
+            }
         }
 
         return false;
     }
 
+    protected void flushBatch() {
+        batch.evaluate(_evaluable, batchResults);
+        for (int i = 0; i < batch.size(); i++) {
+            hasError = false;
+            hasBlank = false;
+            hasEmptyString = false;
+
+            processValues(batchResults[i], batch.getRowIndex(i));
+            batchResults[i] = null;
+
+            if (hasError) {
+                errorCount++;
+            }
+            if (hasBlank) {
+                blankCount++;
+            }
+            if (hasEmptyString) {
+                emptyStringCount++;
+            }
+        }
+        batch.clear();
+    }
+
     protected void visitRow(Project project, int rowIndex, Row row, Properties bindings, int index) {
-        Object value = evalRow(project, rowIndex, row, bindings);
+        processValues(evalRow(project, rowIndex, row, bindings), rowIndex);
+    }
+
+    protected void processValues(Object value, int rowIndex) {
         if (value != null) {
             if (value.getClass().isArray()) {
                 Object[] a = (Object[]) value;
@@ -194,7 +252,71 @@ public class ExpressionNominalValueGrouper implements RowVisitor, RecordVisitor
             }
         } else {
             hasBlank = true;
+            if ("".equals(value)) {
+                hasEmptyString = true;
+            }
+        }
+    }
+
+    /**
+     * @return a grouper with the same configuration and counts, whose choices
+     *      can be modified independently from the ones of this grouper
+     */
+    public ExpressionNominalValueGrouper copy() {
+        ExpressionNominalValueGrouper copy = new ExpressionNominalValueGrouper(_evaluable, _columnName, _cellIndex);
+        for (Map.Entry<Object, IndexedNominalFacetChoice> entry : choices.entrySet()) {
+            IndexedNominalFacetChoice choice = entry.getValue();
+            IndexedNominalFacetChoice choiceCopy = new IndexedNominalFacetChoice(choice.decoratedValue, choice._latestIndex);
+            choiceCopy.count = choice.count;
+            copy.choices.put(entry.getKey(), choiceCopy);
+        }
+        copy.blankCount = blankCount;
+        copy.errorCount = errorCount;
+        copy.emptyStringCount = emptyStringCount;
+        return copy;
+    }
+
+    /**
+     * Adds the counts of another grouper, which visited a disjoint set of rows,
+     * to this one.
+     * 
+     * @param other
+     */
+    public void merge(ExpressionNominalValueGrouper other) {
+        for (Map.Entry<Object, IndexedNominalFacetChoice> entry : other.choices.entrySet()) {
+            IndexedNominalFacetChoice otherChoice = entry.getValue();
+            IndexedNominalFacetChoice choice = choices.get(entry.getKey());
+            if (choice == null) {
+                choices.put(entry.getKey(), otherChoice);
+            } else {
+                choice.count += otherChoice.count;
+                choice._latestIndex = Math.max(choice._latestIndex, otherChoice._latestIndex);
+            }
+        }
+        blankCount += other.blankCount;
+        errorCount += other.errorCount;
+        emptyStringCount += other.emptyStringCount;
+    }
+
+    /**
+     * Removes the counts of another grouper, which visited a subset of the rows
+     * visited by this one, from this one.
+     * 
+     * @param other
+     */
+    public void subtract(ExpressionNominalValueGrouper other) {
+        for (Map.Entry<Object, IndexedNominalFacetChoice> entry : other.choices.entrySet()) {
+            IndexedNominalFacetChoice choice = choices.get(entry.getKey());
+            if (choice != null) {
+                choice.count -= entry.getValue().count;
+                if (choice.count <= 0) {
+                    choices.remove(entry.getKey());
+                }
+            }
         }
+        blankCount -= other.blankCount;
+        errorCount -= other.errorCount;
+        emptyStringCount -= other.emptyStringCount;
     }
 
     public RowEvaluable getChoiceCountRowEvaluable() {
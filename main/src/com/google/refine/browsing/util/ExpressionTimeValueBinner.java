@@ -115,6 +115,46 @@ public class ExpressionTimeValueBinner implements RowVisitor, RecordVisitor {
         return false;
     }
     
+    /**
+     * Adds the counts of another binner, which visited a disjoint set of rows,
+     * to this one. Both binners must share the same base bin index.
+     * 
+     * @param other
+     */
+    public void merge(ExpressionTimeValueBinner other) {
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] += other.bins[i];
+        }
+        timeCount += other.timeCount;
+        nonTimeCount += other.nonTimeCount;
+        blankCount += other.blankCount;
+        errorCount += other.errorCount;
+    }
+    
+    /**
+     * Removes the counts of another binner, which visited a subset of the rows
+     * visited by this one, from this one. Both binners must have the same bins.
+     * 
+     * @param other
+     */
+    public void subtract(ExpressionTimeValueBinner other) {
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] -= other.bins[i];
+        }
+        timeCount -= other.timeCount;
+        nonTimeCount -= other.nonTimeCount;
+        blankCount -= other.blankCount;
+        errorCount -= other.errorCount;
+    }
+    
+    /**
+     * @return true if the given index has the same bins as the one of this binner
+     */
+    public boolean hasSameBins(TimeBinIndex index) {
+        return index.getMin() == _index.getMin() && index.getStep() == _index.getStep()
+                && index.getBins().length == bins.length;
+    }
+    
     protected void resetFlags() {
         hasError = false;
         hasBlank = false;
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.refine.model.Project;
+
+/**
+ * Keeps what the facets of engines computed their choices from, so that after
+ * changes which only modify some cells the facets can be updated from the
+ * modified rows instead of computed again from all rows.
+ *
+ * Entries are taken out of the cache when they are used, so that concurrent
+ * computations never update the same state.
+ */
+public class FacetStateCache {
+    public static final int DEFAULT_MAX_ENTRIES = 8;
+
+    protected final int _maxEntries;
+    protected final Map<String, Entry> _entries;
+
+    static public class Entry {
+        final public long projectID;
+        final public long historyEntryID;
+        final public int rowCount;
+        final public Object[] states;
+
+        Entry(long projectID, long historyEntryID, int rowCount, Object[] states) {
+            this.projectID = projectID;
+            this.historyEntryID = historyEntryID;
+            this.rowCount = rowCount;
+            this.states = states;
+        }
+    }
+
+    public FacetStateCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public FacetStateCache(int maxEntries) {
+        _maxEntries = maxEntries;
+        _entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > _maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Removes the states stored for this key and returns them.
+     *
+     * @return the stored states, or null if there are none or if the number of rows changed since
+     */
+    public Entry take(Project project, String key) {
+        synchronized (_entries) {
+            Entry entry = _entries.remove(project.id + ";" + key);
+            return entry != null && entry.rowCount == project.rows.size() ? entry : null;
+        }
+    }
+
+    /**
+     * @param project
+     * @param key
+     *      identifies the configuration of the facets
+     * @param historyEntryID
+     *      the id of the last history entry applied when the states were computed
+     * @param states
+     *      the state of each facet, null for facets which cannot be updated
+     */
+    public void put(Project project, String key, long historyEntryID, Object[] states) {
+        synchronized (_entries) {
+            _entries.put(project.id + ";" + key, new Entry(project.id, historyEntryID, project.rows.size(), states));
+        }
+    }
+
+    public void flushProject(long projectID) {
+        synchronized (_entries) {
+            for (Iterator<Entry> it = _entries.values().iterator(); it.hasNext(); ) {
+                if (it.next().projectID == projectID) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (_entries) {
+            return _entries.size();
+        }
+    }
+}
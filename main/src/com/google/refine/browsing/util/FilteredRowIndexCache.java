@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Caches the set of rows matching an engine configuration, as a bitmap.
+ *
+ * Entries are keyed by project, engine configuration and the id of the last
+ * history entry applied to the project, so any change to the project makes
+ * the previous entries unreachable. Paging through rows, exporting or applying
+ * operations with an unchanged set of facets then only visits the matching
+ * rows instead of evaluating all filters on all rows again. Filters whose
+ * column dependencies are unknown, such as expressions using cross() or now(),
+ * must not be cached, as their results can change without a new history entry.
+ */
+public class FilteredRowIndexCache {
+    public static final int DEFAULT_MAX_ENTRIES = 32;
+
+    protected final int _maxEntries;
+    protected final Map<String, Entry> _entries;
+
+    protected final AtomicLong _hits = new AtomicLong();
+    protected final AtomicLong _misses = new AtomicLong();
+
+    static protected class Entry {
+        final long projectID;
+        final BitSet rows;
+        final int rowCount;
+
+        Entry(long projectID, BitSet rows, int rowCount) {
+            this.projectID = projectID;
+            this.rows = rows;
+            this.rowCount = rowCount;
+        }
+    }
+
+    public FilteredRowIndexCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public FilteredRowIndexCache(int maxEntries) {
+        _maxEntries = maxEntries;
+        _entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > _maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the rows matching the given filters, computing and caching them if needed.
+     *
+     * @param project
+     *      the project whose rows are filtered
+     * @param key
+     *      identifies the filters and the state of the project they were evaluated on
+     * @param filteredRows
+     *      the filters to evaluate on a cache miss
+     * @return the matching rows
+     */
+    public FilteredRows getFilteredRows(Project project, String key, FilteredRows filteredRows) {
+        String fullKey = project.id + ";" + key;
+        Entry entry;
+        synchronized (_entries) {
+            entry = _entries.get(fullKey);
+            if (entry != null && entry.rowCount == project.rows.size()) {
+                _hits.incrementAndGet();
+                return new BitSetFilteredRows(entry.rows, entry.rowCount);
+            }
+            _misses.incrementAndGet();
+        }
+
+        BitSet rows = new BitSet(project.rows.size());
+        filteredRows.accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+                // nothing to do
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                rows.set(rowIndex);
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+                // nothing to do
+            }
+        });
+
+        entry = new Entry(project.id, rows, project.rows.size());
+        synchronized (_entries) {
+            _entries.put(fullKey, entry);
+        }
+        return new BitSetFilteredRows(entry.rows, entry.rowCount);
+    }
+
+    public void flushProject(long projectID) {
+        synchronized (_entries) {
+            for (Iterator<Entry> it = _entries.values().iterator(); it.hasNext(); ) {
+                if (it.next().projectID == projectID) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return _hits.get();
+    }
+
+    public long getMissCount() {
+        return _misses.get();
+    }
+
+    public int size() {
+        synchronized (_entries) {
+            return _entries.size();
+        }
+    }
+
+    /**
+     * Visits the rows whose indices are set in a bitmap.
+     */
+    static public class BitSetFilteredRows implements FilteredRows {
+        final protected BitSet _rows;
+        final protected int _rowCount;
+
+        public BitSetFilteredRows(BitSet rows, int rowCount) {
+            _rows = rows;
+            _rowCount = rowCount;
+        }
+
+        public int getMatchCount() {
+            return _rows.cardinality();
+        }
+
+        @Override
+        public void accept(Project project, RowVisitor visitor) {
+            accept(project, visitor, 0, _rowCount);
+        }
+
+        @Override
+        public void accept(Project project, RowVisitor visitor, int fromRowIndex, int toRowIndex) {
+            try {
+                visitor.start(project);
+
+                int c = Math.min(Math.min(toRowIndex, _rowCount), project.rows.size());
+                for (int rowIndex = _rows.nextSetBit(Math.max(fromRowIndex, 0));
+                        rowIndex >= 0 && rowIndex < c;
+                        rowIndex = _rows.nextSetBit(rowIndex + 1)) {
+                    if (visitor.visit(project, rowIndex, project.rows.get(rowIndex))) {
+                        break;
+                    }
+                }
+            } finally {
+                visitor.end(project);
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+
+/**
+ * Runs row visitors over a fork-join pool. A scan is split into contiguous
+ * chunks of rows, each chunk is visited by its own visitor and the partial
+ * visitors are merged back in row order.
+ *
+ * The level of parallelism is read from the "browsing.facets.parallelism"
+ * preference. It defaults to 1, which keeps all computations on the calling
+ * thread. A value of 0 or less uses all available processors. Expressions
+ * of languages which are not thread-safe are wrapped by
+ * {@link com.google.refine.expr.MetaParser} so that they are evaluated one
+ * row at a time.
+ */
+public class ParallelRowScanner {
+    public static final String PARALLELISM_PREFERENCE = "browsing.facets.parallelism";
+
+    /**
+     * Chunks smaller than this are not worth the scheduling overhead.
+     */
+    public static final int MIN_CHUNK_SIZE = 10000;
+
+    static private ForkJoinPool s_pool;
+
+    static public int getParallelism() {
+        int n = ProjectManager.singleton == null ? 1 :
+            ProjectManager.singleton.getPreferenceStore().getIntPreference(PARALLELISM_PREFERENCE, 1);
+        return n <= 0 ? Runtime.getRuntime().availableProcessors() : n;
+    }
+
+    /**
+     * @return the shared pool, resized if the preference changed since it was
+     *      created. A replaced pool runs the tasks it was given, but rejects
+     *      new ones.
+     */
+    static synchronized public ForkJoinPool getPool() {
+        int parallelism = getParallelism();
+        if (s_pool == null || s_pool.getParallelism() != parallelism) {
+            if (s_pool != null) {
+                s_pool.shutdown();
+            }
+            s_pool = new ForkJoinPool(parallelism);
+        }
+        return s_pool;
+    }
+
+    /**
+     * Runs the given tasks, in parallel if configured so, and returns their
+     * results in the same order.
+     */
+    static public <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.size() <= 1 || getParallelism() <= 1) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return results;
+        }
+
+        List<ForkJoinTask<T>> forkJoinTasks = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            forkJoinTasks.add(ForkJoinTask.adapt(task));
+        }
+        if (ForkJoinTask.inForkJoinPool()) {
+            ForkJoinTask.invokeAll(forkJoinTasks);
+        } else {
+            ForkJoinPool pool = getPool();
+            for (ForkJoinTask<T> task : forkJoinTasks) {
+                try {
+                    pool.execute(task);
+                } catch (RejectedExecutionException e) {
+                    // the pool was replaced since we got it, its tasks still run
+                    pool = getPool();
+                    pool.execute(task);
+                }
+            }
+        }
+        for (ForkJoinTask<T> task : forkJoinTasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /**
+     * Visits the filtered rows of a project, splitting the rows into chunks
+     * processed in parallel when the project is large enough.
+     *
+     * @param project
+     *      the project to scan
+     * @param filteredRows
+     *      the rows to visit
+     * @param visitorFactory
+     *      creates a fresh visitor for each chunk
+     * @param merger
+     *      merges the second visitor into the first one
+     * @return a visitor holding the results for all rows
+     */
+    static public <V extends RowVisitor> V scan(
+            Project project,
+            FilteredRows filteredRows,
+            Supplier<V> visitorFactory,
+            BiConsumer<V, V> merger) {
+        int rowCount = project.rows.size();
+        int parallelism = getParallelism();
+        if (parallelism <= 1 || rowCount < 2 * MIN_CHUNK_SIZE) {
+            V visitor = visitorFactory.get();
+            filteredRows.accept(project, visitor);
+            return visitor;
+        }
+
+        int chunkCount = Math.min(parallelism * 4, rowCount / MIN_CHUNK_SIZE);
+        int chunkSize = (rowCount + chunkCount - 1) / chunkCount;
+        List<Callable<V>> tasks = new ArrayList<>(chunkCount);
+        for (int from = 0; from < rowCount; from += chunkSize) {
+            final int fromRowIndex = from;
+            final int toRowIndex = Math.min(from + chunkSize, rowCount);
+            tasks.add(() -> {
+                V visitor = visitorFactory.get();
+                filteredRows.accept(project, visitor, fromRowIndex, toRowIndex);
+                return visitor;
+            });
+        }
+
+        List<V> partials = invokeAll(tasks);
+        V result = partials.get(0);
+        for (int i = 1; i < partials.size(); i++) {
+            merger.accept(result, partials.get(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Evaluates a list of row filters once per row and remembers, for each row,
+ * which filters rejected it as a bit mask.
+ *
+ * Computing facets needs, for each facet, the rows matching all the other
+ * facets. Doing so with one {@link ConjunctiveFilteredRows} per facet
+ * evaluates each filter once per facet, which is quadratic in the number of
+ * facets. With the masks, each filter is evaluated once per row, and a row
+ * counts for facet i if no filter other than i rejected it.
+ */
+public class RowFilterMasks {
+    /**
+     * Masks are stored as longs, so at most this many filters can be combined.
+     */
+    public static final int MAX_FILTERS = 64;
+
+    final protected Project _project;
+    final protected List<RowFilter> _rowFilters;
+    final protected long[] _rejections;
+
+    /**
+     * Evaluates the given filters on all rows of the project.
+     *
+     * @param project
+     * @param rowFilters
+     *      the filters to evaluate, null entries stand for facets without filter
+     */
+    public RowFilterMasks(Project project, List<RowFilter> rowFilters) {
+        if (rowFilters.size() > MAX_FILTERS) {
+            throw new IllegalArgumentException("Cannot combine more than " + MAX_FILTERS + " filters");
+        }
+        _project = project;
+        _rowFilters = rowFilters;
+        _rejections = new long[project.rows.size()];
+
+        computeMasks();
+    }
+
+    /**
+     * @param filterIndex
+     *      the index of the filter to ignore, or -1 to apply all filters
+     * @return the rows matching all filters except the given one
+     */
+    public FilteredRows getFilteredRows(int filterIndex) {
+        final long mask = filterIndex < 0 ? -1L : ~(1L << filterIndex);
+
+        return new FilteredRows() {
+
+            @Override
+            public void accept(Project project, RowVisitor visitor) {
+                accept(project, visitor, 0, _rejections.length);
+            }
+
+            @Override
+            public void accept(Project project, RowVisitor visitor, int fromRowIndex, int toRowIndex) {
+                try {
+                    visitor.start(project);
+
+                    int c = Math.min(toRowIndex, _rejections.length);
+                    for (int rowIndex = Math.max(fromRowIndex, 0); rowIndex < c; rowIndex++) {
+                        if ((_rejections[rowIndex] & mask) == 0) {
+                            if (visitor.visit(project, rowIndex, project.rows.get(rowIndex))) {
+                                break;
+                            }
+                        }
+                    }
+                } finally {
+                    visitor.end(project);
+                }
+            }
+        };
+    }
+
+    /**
+     * @param filterIndex
+     *      the index of the filter to ignore
+     * @return true if any filter other than the given one can reject rows
+     */
+    public boolean hasOtherFilters(int filterIndex) {
+        for (int i = 0; i < _rowFilters.size(); i++) {
+            if (i != filterIndex && _rowFilters.get(i) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected void computeMasks() {
+        int rowCount = _rejections.length;
+        int parallelism = ParallelRowScanner.getParallelism();
+        if (parallelism <= 1 || rowCount < 2 * ParallelRowScanner.MIN_CHUNK_SIZE) {
+            computeMasks(0, rowCount);
+            return;
+        }
+
+        int chunkCount = Math.min(parallelism * 4, rowCount / ParallelRowScanner.MIN_CHUNK_SIZE);
+        int chunkSize = (rowCount + chunkCount - 1) / chunkCount;
+        List<Callable<Void>> tasks = new ArrayList<>(chunkCount);
+        for (int from = 0; from < rowCount; from += chunkSize) {
+            final int fromRowIndex = from;
+            final int toRowIndex = Math.min(from + chunkSize, rowCount);
+            tasks.add(() -> {
+                computeMasks(fromRowIndex, toRowIndex);
+                return null;
+            });
+        }
+        ParallelRowScanner.invokeAll(tasks);
+    }
+
+    protected void computeMasks(int fromRowIndex, int toRowIndex) {
+        int filterCount = _rowFilters.size();
+        for (int rowIndex = fromRowIndex; rowIndex < toRowIndex; rowIndex++) {
+            Row row = _project.rows.get(rowIndex);
+            long rejections = 0;
+            for (int i = 0; i < filterCount; i++) {
+                RowFilter rowFilter = _rowFilters.get(i);
+                if (rowFilter != null && !rowFilter.filterRow(_project, rowIndex, row)) {
+                    rejections |= 1L << i;
+                }
+            }
+            _rejections[rowIndex] = rejections;
+        }
+    }
+}
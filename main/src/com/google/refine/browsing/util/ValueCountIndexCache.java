@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.util.ExpressionNominalValueGrouper.IndexedNominalFacetChoice;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Caches the number of rows of each value of an expression over all rows of
+ * a project, so that list facets without other filters, the facetCount()
+ * function and clustering share a single scan of the rows.
+ *
+ * Entries remember the history entry they were computed at. When only a few
+ * cells were changed since, they are updated from the modified rows, or kept
+ * as they are if the expression does not depend on the modified columns.
+ * Otherwise they are computed again. Expressions which may read other rows,
+ * other projects or the clock are not cached, as no change of the project
+ * tells when their counts become stale. Entries are evicted in least recently
+ * used order once they take more than the "browsing.facets.maxValueCountMemory"
+ * preference allows, in megabytes.
+ *
+ * The returned counts are shared and must not be modified, use
+ * {@link ExpressionNominalValueGrouper#copy()} to get a modifiable copy.
+ */
+public class ValueCountIndexCache {
+    public static final String MAX_MEMORY_PREFERENCE = "browsing.facets.maxValueCountMemory";
+    public static final long DEFAULT_MAX_MEMORY = 64L * 1024 * 1024;
+
+    protected final Map<String, Entry> _entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    protected long _hits;
+    protected long _misses;
+
+    static protected class Entry {
+        final long projectID;
+        final long historyEntryID;
+        final int rowCount;
+        final ExpressionNominalValueGrouper counts;
+        final long memoryUsage;
+
+        Entry(long projectID, long historyEntryID, int rowCount, ExpressionNominalValueGrouper counts) {
+            this.projectID = projectID;
+            this.historyEntryID = historyEntryID;
+            this.rowCount = rowCount;
+            this.counts = counts;
+            this.memoryUsage = getMemoryUsage(counts);
+        }
+    }
+
+    /**
+     * Returns the value counts of an expression over all rows of a project,
+     * computing or updating them if needed.
+     *
+     * @param project
+     * @param columnName
+     *      the column the expression is evaluated on
+     * @param cellIndex
+     *      the cell index of the column, or -1 if there is no such column
+     * @param expression
+     *      the source of the expression, which identifies it in the cache
+     * @param eval
+     *      the parsed expression
+     * @return the counts, which must not be modified
+     */
+    public ExpressionNominalValueGrouper getValueCounts(
+            Project project, String columnName, int cellIndex, String expression, Evaluable eval) {
+        if (project.history == null || !isCacheable(columnName, cellIndex, eval)) {
+            return compute(project, columnName, cellIndex, eval);
+        }
+        String key = project.id + ";" + cellIndex + ";" + columnName + ";" + expression;
+        long historyEntryID = getLastEntryID(project);
+        Entry entry;
+        synchronized (_entries) {
+            entry = _entries.get(key);
+            if (entry != null && entry.historyEntryID == historyEntryID && entry.rowCount == project.rows.size()) {
+                _hits++;
+                return entry.counts;
+            }
+            _misses++;
+        }
+
+        ExpressionNominalValueGrouper counts = null;
+        if (entry != null && entry.rowCount == project.rows.size()) {
+            counts = update(project, entry, columnName, cellIndex, eval);
+        }
+        if (counts == null) {
+            counts = compute(project, columnName, cellIndex, eval);
+        }
+
+        // only keep the counts if no change was applied in the meantime
+        if (getLastEntryID(project) == historyEntryID) {
+            synchronized (_entries) {
+                _entries.put(key, new Entry(project.id, historyEntryID, project.rows.size(), counts));
+                evictEntries();
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @return whether the counts of the expression only change with the columns
+     *      it reads, so that they can be cached
+     */
+    static public boolean isCacheable(String columnName, int cellIndex, Evaluable eval) {
+        return eval.getColumnDependencies(cellIndex < 0 ? null : columnName) != null;
+    }
+
+    protected ExpressionNominalValueGrouper compute(Project project, String columnName, int cellIndex, Evaluable eval) {
+        return ParallelRowScanner.scan(
+                project,
+                new Engine(project).getAllRows(),
+                () -> new ExpressionNominalValueGrouper(eval, columnName, cellIndex),
+                ExpressionNominalValueGrouper::merge);
+    }
+
+    /**
+     * @return the counts of the entry updated to the current state of the project,
+     *      or null if they must be computed again
+     */
+    protected ExpressionNominalValueGrouper update(
+            Project project, Entry entry, String columnName, int cellIndex, Evaluable eval) {
+        ChangedRows changedRows = ChangedRows.since(project, entry.historyEntryID);
+        if (changedRows == null) {
+            return null;
+        }
+        Set<String> dependencies = eval.getColumnDependencies(cellIndex < 0 ? null : columnName);
+        if (Collections.disjoint(dependencies, changedRows.getColumnNames())) {
+            return entry.counts;
+        }
+
+        ExpressionNominalValueGrouper counts = entry.counts.copy();
+        for (Map.Entry<Integer, Row> oldRow : changedRows.getOldRows().entrySet()) {
+            int rowIndex = oldRow.getKey();
+            ExpressionNominalValueGrouper rowCounts = new ExpressionNominalValueGrouper(eval, columnName, cellIndex);
+            rowCounts.visit(project, rowIndex, oldRow.getValue());
+            counts.subtract(rowCounts);
+
+            rowCounts = new ExpressionNominalValueGrouper(eval, columnName, cellIndex);
+            rowCounts.visit(project, rowIndex, project.rows.get(rowIndex));
+            counts.merge(rowCounts);
+        }
+        return counts;
+    }
+
+    protected void evictEntries() {
+        long maxMemory = getMaxMemory();
+        long total = 0;
+        for (Entry entry : _entries.values()) {
+            total += entry.memoryUsage;
+        }
+        // the most recently used entry is last, and always kept
+        Iterator<Entry> it = _entries.values().iterator();
+        for (int i = _entries.size(); total > maxMemory && i > 1; i--) {
+            total -= it.next().memoryUsage;
+            it.remove();
+        }
+    }
+
+    public void flushProject(long projectID) {
+        synchronized (_entries) {
+            for (Iterator<Entry> it = _entries.values().iterator(); it.hasNext(); ) {
+                if (it.next().projectID == projectID) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public long getHitCount() {
+        synchronized (_entries) {
+            return _hits;
+        }
+    }
+
+    public long getMissCount() {
+        synchronized (_entries) {
+            return _misses;
+        }
+    }
+
+    public int size() {
+        synchronized (_entries) {
+            return _entries.size();
+        }
+    }
+
+    static protected long getMemoryUsage(ExpressionNominalValueGrouper counts) {
+        long total = 0;
+        for (IndexedNominalFacetChoice choice : counts.choices.values()) {
+            total += 128 + 4L * choice.decoratedValue.label.length();
+        }
+        return total;
+    }
+
+    static protected long getLastEntryID(Project project) {
+        List<HistoryEntry> lastEntries = project.history.getLastPastEntries(1);
+        return lastEntries.isEmpty() ? 0 : lastEntries.get(0).id;
+    }
+
+    static protected long getMaxMemory() {
+        return ProjectManager.singleton == null ? DEFAULT_MAX_MEMORY :
+            ProjectManager.singleton.getPreferenceStore().getLongPreference(
+                    MAX_MEMORY_PREFERENCE, DEFAULT_MAX_MEMORY / (1024 * 1024)) * 1024 * 1024;
+    }
+}
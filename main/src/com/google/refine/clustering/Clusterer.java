@@ -33,13 +33,22 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.clustering;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.util.ExpressionNominalValueGrouper;
+import com.google.refine.browsing.util.ExpressionNominalValueGrouper.IndexedNominalFacetChoice;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.expr.ParsingException;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 
 public abstract class Clusterer  {
 
     protected Project _project;
+    protected String _colname;
     protected int _colindex;
 
     public abstract void computeClusters(Engine engine);
@@ -48,10 +57,39 @@ public abstract class Clusterer  {
         _project = project;
 
         String colname = c.getColumnName();
+        _colname = colname;
         for (Column column : project.columnModel.columns) {
             if (column.getName().equals(colname)) {
                 _colindex = column.getCellIndex();
             }
         }
     }
+
+    /**
+     * Returns the number of rows of each value of the column, from the value
+     * counts shared with list facets on the column. Empty strings are counted
+     * as values, as when clusterers visit the rows themselves.
+     *
+     * @return the counts by value, or null if the engine filters out some rows
+     */
+    protected Map<String, Integer> getValueCounts(Engine engine) {
+        if (ProjectManager.singleton == null || engine.hasRowFilters()) {
+            return null;
+        }
+        ExpressionNominalValueGrouper grouper;
+        try {
+            grouper = ProjectManager.singleton.getValueCountIndexCache().getValueCounts(
+                    _project, _colname, _colindex, "value", MetaParser.parse("value"));
+        } catch (ParsingException e) {
+            return null;
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        for (IndexedNominalFacetChoice choice : grouper.choices.values()) {
+            counts.merge(choice.decoratedValue.value.toString(), choice.count, Integer::sum);
+        }
+        if (grouper.emptyStringCount > 0) {
+            counts.merge("", grouper.emptyStringCount, Integer::sum);
+        }
+        return counts;
+    }
 }
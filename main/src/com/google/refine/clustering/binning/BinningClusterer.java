@@ -162,21 +162,25 @@ public class BinningClusterer extends Clusterer {
             if (cell != null && cell.value != null) {
                 Object v = cell.value;
                 String s = (v instanceof String) ? ((String) v) : v.toString();
-                String key = _keyer.key(s,_params);
-                if (_map.containsKey(key)) {
-                    Map<String,Integer> m = _map.get(key);
-                    if (m.containsKey(s)) {
-                        m.put(s, m.get(s) + 1);
-                    } else {
-                        m.put(s,1);
-                    }
+                add(s, 1);
+            }
+            return false;
+        }
+        
+        public void add(String s, int count) {
+            String key = _keyer.key(s,_params);
+            if (_map.containsKey(key)) {
+                Map<String,Integer> m = _map.get(key);
+                if (m.containsKey(s)) {
+                    m.put(s, m.get(s) + count);
                 } else {
-                    Map<String,Integer> m = new TreeMap<String,Integer>();
-                    m.put(s,1);
-                    _map.put(key, m);
+                    m.put(s,count);
                 }
+            } else {
+                Map<String,Integer> m = new TreeMap<String,Integer>();
+                m.put(s,count);
+                _map.put(key, m);
             }
-            return false;
         }
         
         public Map<String,Map<String,Integer>> getMap() {
@@ -223,8 +227,15 @@ public class BinningClusterer extends Clusterer {
     @Override
     public void computeClusters(Engine engine) {
         BinningRowVisitor visitor = new BinningRowVisitor(_keyer,_parameters);
-        FilteredRows filteredRows = engine.getAllFilteredRows();
-        filteredRows.accept(_project, visitor);
+        Map<String,Integer> counts = getValueCounts(engine);
+        if (counts != null) {
+            for (Entry<String,Integer> entry : counts.entrySet()) {
+                visitor.add(entry.getKey(), entry.getValue());
+            }
+        } else {
+            FilteredRows filteredRows = engine.getAllFilteredRows();
+            filteredRows.accept(_project, visitor);
+        }
      
         Map<String,Map<String,Integer>> map = visitor.getMap();
         _clusters = new ArrayList<Map<String,Integer>>(map.values());
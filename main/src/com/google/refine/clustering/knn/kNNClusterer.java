@@ -215,12 +215,16 @@ public class kNNClusterer extends Clusterer {
             if (cell != null && cell.value != null) {
                 Object v = cell.value;
                 String s = (v instanceof String) ? ((String) v) : v.toString().intern();
-                _clusterer.populate(s);
-                count(s);
+                add(s, 1);
             }
             return false;
         }
         
+        public void add(String s, int count) {
+            _clusterer.populate(s);
+            count(s, count);
+        }
+        
         public List<Set<Serializable>> getClusters() {
             return _clusterer.getClusters(_radius);
         }
@@ -236,8 +240,15 @@ public class kNNClusterer extends Clusterer {
     public void computeClusters(Engine engine) {
         //VPTreeClusteringRowVisitor visitor = new VPTreeClusteringRowVisitor(_distance,_config);
         BlockingClusteringRowVisitor visitor = new BlockingClusteringRowVisitor(_distance,_params);
-        FilteredRows filteredRows = engine.getAllFilteredRows();
-        filteredRows.accept(_project, visitor);
+        Map<String, Integer> counts = getValueCounts(engine);
+        if (counts != null) {
+            for (Entry<String, Integer> entry : counts.entrySet()) {
+                visitor.add(entry.getKey(), entry.getValue());
+            }
+        } else {
+            FilteredRows filteredRows = engine.getAllFilteredRows();
+            filteredRows.accept(_project, visitor);
+        }
      
         _clusters = visitor.getClusters();
     }
@@ -266,10 +277,14 @@ public class kNNClusterer extends Clusterer {
     }
     
     private void count(Serializable s) {
+        count(s, 1);
+    }
+
+    private void count(Serializable s, int n) {
         if (_counts.containsKey(s)) {
-            _counts.put(s, _counts.get(s) + 1);
+            _counts.put(s, _counts.get(s) + n);
         } else {
-            _counts.put(s, 1);
+            _counts.put(s, n);
         }
     }
 }
@@ -46,10 +46,10 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.Engine.Mode;
 import com.google.refine.browsing.FilteredRecords;
-import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RecordVisitor;
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.commands.Command;
@@ -59,6 +59,7 @@ import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Record;
 import com.google.refine.model.Row;
+import com.google.refine.sorting.SortedRowIndexCache;
 import com.google.refine.sorting.SortingConfig;
 import com.google.refine.sorting.SortingRecordVisitor;
 import com.google.refine.sorting.SortingRowVisitor;
@@ -169,8 +170,8 @@ public class GetRowsCommand extends Command {
             RowWritingVisitor rwv = new RowWritingVisitor(start, limit);
             
             SortingConfig sortingConfig = null;
+            String sortingJson = request.getParameter("sorting");
             try {
-                String sortingJson = request.getParameter("sorting");
                 if (sortingJson != null) {
                     sortingConfig = SortingConfig.reconstruct(sortingJson);
                 }
@@ -178,18 +179,27 @@ public class GetRowsCommand extends Command {
             }
             
             if (engine.getMode() == Mode.RowBased) {
-                FilteredRows filteredRows = engine.getAllFilteredRows();
-                RowVisitor visitor = rwv;
-                
+                SortingRowVisitor srv = null;
                 if (sortingConfig != null) {
-                    SortingRowVisitor srv = new SortingRowVisitor(visitor);
-                    
+                    srv = new SortingRowVisitor(rwv);
                     srv.initializeFromConfig(project, sortingConfig);
-                    if (srv.hasCriteria()) {
-                        visitor = srv;
+                    if (!srv.hasCriteria()) {
+                        srv = null;
                     }
                 }
-                filteredRows.accept(project, visitor);
+                
+                if (srv == null && !engine.hasRowFilters()) {
+                    // only the rows of the page are needed, which matters when rows are loaded on demand
+                    for (int r = start; r < start + limit; r++) {
+                        rwv.internalVisit(project, r, project.rows.get(r));
+                    }
+                    rwv.total = project.rows.size();
+                } else if (srv == null) {
+                    engine.getAllFilteredRows().accept(project, rwv);
+                } else {
+                    visitSortedRows(project, engine, srv, rwv,
+                            getSortedRowsCacheKey(engine, sortingJson));
+                }
             } else {
                 FilteredRecords filteredRecords = engine.getFilteredRecords();
                 RecordVisitor visitor = rwv;
@@ -233,6 +243,43 @@ public class GetRowsCommand extends Command {
         }
     }
     
+    /**
+     * Visits the filtered rows in sorted order. The first page is computed by
+     * only keeping the first rows in sorting order. Further pages sort all the
+     * filtered rows once and keep their order in a cache, so that paging
+     * through them does not sort them again.
+     */
+    protected void visitSortedRows(Project project, Engine engine, SortingRowVisitor srv,
+            RowWritingVisitor rwv, String cacheKey) {
+        SortedRowIndexCache cache = ProjectManager.singleton.getSortedRowIndexCache();
+        int[] sortedRowIndices = cacheKey == null ? null : cache.get(project, cacheKey);
+        
+        if (sortedRowIndices != null) {
+            int end = Math.min(sortedRowIndices.length, rwv.start + rwv.limit);
+            for (int i = rwv.start; i < end; i++) {
+                int rowIndex = sortedRowIndices[i];
+                rwv.internalVisit(project, rowIndex, project.rows.get(rowIndex));
+            }
+            rwv.total = sortedRowIndices.length;
+        } else if (rwv.start == 0 || cacheKey == null) {
+            srv.setLimit(rwv.start + rwv.limit);
+            engine.getAllFilteredRows().accept(project, srv);
+            rwv.total = srv.getRowCount();
+        } else {
+            engine.getAllFilteredRows().accept(project, srv);
+            cache.put(project, cacheKey, srv.getSortedRowIndices());
+        }
+    }
+    
+    /**
+     * @return a key identifying the facets, the sorting criteria and the state of the project,
+     *      or null if the sorted rows should not be cached
+     */
+    protected String getSortedRowsCacheKey(Engine engine, String sortingJson) {
+        String engineKey = engine.getCacheKey();
+        return engineKey == null ? null : engineKey + ";" + sortingJson;
+    }
+    
     static protected class RowWritingVisitor implements RowVisitor, RecordVisitor {
         final int           start;
         final int           limit;
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.expr;
+
+import java.util.Properties;
+
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+/**
+ * Bindings in which the variables set for each row are stored in fixed
+ * slots rather than in the underlying hash table.
+ *
+ * Binding a row only stores the row, its index and the cell, and the
+ * wrappers exposed as {@code row}, {@code cells} and {@code cell} are only
+ * created if an expression reads them. Variable expressions resolve their
+ * slot when they are parsed, so reading a variable does not hash its name.
+ * Other variables, such as those bound by controls or binders, go to the
+ * hash table as before.
+ */
+public class Bindings extends Properties {
+    private static final long serialVersionUID = 1L;
+
+    public static final int VALUE = 0;
+    public static final int CELL = 1;
+    public static final int CELLS = 2;
+    public static final int ROW = 3;
+    public static final int ROW_INDEX = 4;
+    public static final int COLUMN_NAME = 5;
+    public static final int PROJECT = 6;
+    public static final int SLOT_COUNT = 7;
+
+    static private final Object UNRESOLVED = new Object();
+
+    final protected Object[] _slots = new Object[SLOT_COUNT];
+
+    protected Row _row;
+    protected int _rowIndex;
+    protected String _cellColumnName;
+    protected Cell _cell;
+
+    /**
+     * @param name
+     * @return the slot of the variable, or -1 if it is stored in the hash table
+     */
+    static public int getSlot(String name) {
+        switch (name) {
+        case "value":
+            return VALUE;
+        case "cell":
+            return CELL;
+        case "cells":
+            return CELLS;
+        case "row":
+            return ROW;
+        case "rowIndex":
+            return ROW_INDEX;
+        case "columnName":
+            return COLUMN_NAME;
+        case "project":
+            return PROJECT;
+        default:
+            return -1;
+        }
+    }
+
+    /**
+     * Binds the variables describing a row, as {@link ExpressionUtils#bind} does.
+     */
+    public void bind(Row row, int rowIndex, String columnName, Cell cell) {
+        _row = row;
+        _rowIndex = rowIndex;
+        _cellColumnName = columnName;
+        _cell = cell;
+
+        _slots[ROW_INDEX] = UNRESOLVED;
+        _slots[ROW] = UNRESOLVED;
+        _slots[CELLS] = UNRESOLVED;
+        _slots[CELL] = UNRESOLVED;
+        _slots[VALUE] = UNRESOLVED;
+        if (columnName != null) {
+            _slots[COLUMN_NAME] = columnName;
+        }
+    }
+
+    /**
+     * @param slot
+     * @return the value of the variable in the given slot, or null if unbound
+     */
+    public Object get(int slot) {
+        Object value = _slots[slot];
+        if (value == UNRESOLVED) {
+            value = resolve(slot);
+            _slots[slot] = value;
+        }
+        return value;
+    }
+
+    protected Object resolve(int slot) {
+        Project project = (Project) get(PROJECT);
+        switch (slot) {
+        case VALUE:
+            return _cell == null ? null : _cell.value;
+        case CELL:
+            return _cell == null ? null : new WrappedCell(project, _cellColumnName, _cell);
+        case CELLS:
+            return new CellTuple(project, _row);
+        case ROW:
+            return new WrappedRow(project, _rowIndex, _row);
+        case ROW_INDEX:
+            return _rowIndex;
+        default:
+            return null;
+        }
+    }
+
+    @Override
+    public Object get(Object key) {
+        int slot = key instanceof String ? getSlot((String) key) : -1;
+        return slot >= 0 ? get(slot) : super.get(key);
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+        int slot = key instanceof String ? getSlot((String) key) : -1;
+        if (slot < 0) {
+            return super.put(key, value);
+        }
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        Object old = get(slot);
+        _slots[slot] = value;
+        return old;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int slot = key instanceof String ? getSlot((String) key) : -1;
+        if (slot < 0) {
+            return super.remove(key);
+        }
+        Object old = get(slot);
+        _slots[slot] = null;
+        return old;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        int slot = key instanceof String ? getSlot((String) key) : -1;
+        return slot >= 0 ? get(slot) != null : super.containsKey(key);
+    }
+}
@@ -34,6 +34,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.expr;
 
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * Interface for evaluable expressions in any arbitrary language.
@@ -46,4 +47,34 @@ public interface Evaluable {
      * @return
      */
     public Object evaluate(Properties bindings);
+    
+    /**
+     * Returns the names of the columns whose cells this expression reads when
+     * it is evaluated on a row. The result is null when it cannot be determined,
+     * for instance when the expression can read other rows than the one it is
+     * evaluated on.
+     * 
+     * @param baseColumn
+     *      the name of the column the expression is evaluated on, or null
+     * @return the column names, or null
+     */
+    default public Set<String> getColumnDependencies(String baseColumn) {
+        return null;
+    }
+    
+    /**
+     * Evaluate this expression on each row of a batch. Implementations can
+     * override this to process all rows at once; the default evaluates the
+     * expression row by row.
+     * 
+     * @param batch
+     *      the rows to evaluate this expression on
+     * @param results
+     *      receives the result for each row of the batch
+     */
+    default public void evaluate(RowBatch batch, Object[] results) {
+        for (int i = 0; i < batch.size(); i++) {
+            results[i] = evaluate(batch.bind(i));
+        }
+    }
 }
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.expr;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the most recently parsed expressions, so that evaluating the same
+ * expression for each facet, preview or filter does not parse it again.
+ *
+ * Entries are keyed by language and source text. Cached evaluables are
+ * shared between callers and threads, so they must not hold any evaluation
+ * state. The cache is cleared when a language, function or control is
+ * registered, as previously parsed expressions may no longer parse the same.
+ */
+public class EvaluableCache {
+    public static final int DEFAULT_MAX_ENTRIES = 512;
+
+    protected final int _maxEntries;
+    protected final Map<String, Evaluable> _entries;
+
+    protected long _hits;
+    protected long _misses;
+
+    public EvaluableCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public EvaluableCache(int maxEntries) {
+        _maxEntries = maxEntries;
+        _entries = new LinkedHashMap<String, Evaluable>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Evaluable> eldest) {
+                return size() > _maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the expression parsed from the given source, parsing it if needed.
+     *
+     * @param language
+     *      the language prefix of the expression
+     * @param source
+     *      the source text of the expression, without language prefix
+     * @param parser
+     *      the parser to use on a cache miss
+     * @return the parsed expression
+     * @throws ParsingException
+     *      if the expression cannot be parsed, in which case nothing is cached
+     */
+    public Evaluable get(String language, String source, LanguageSpecificParser parser) throws ParsingException {
+        String key = language + ":" + source;
+        synchronized (_entries) {
+            Evaluable evaluable = _entries.get(key);
+            if (evaluable != null) {
+                _hits++;
+                return evaluable;
+            }
+            _misses++;
+        }
+
+        Evaluable evaluable = parser.parse(source);
+        synchronized (_entries) {
+            _entries.put(key, evaluable);
+        }
+        return evaluable;
+    }
+
+    public void clear() {
+        synchronized (_entries) {
+            _entries.clear();
+        }
+    }
+
+    public long getHitCount() {
+        synchronized (_entries) {
+            return _hits;
+        }
+    }
+
+    public long getMissCount() {
+        synchronized (_entries) {
+            return _misses;
+        }
+    }
+
+    public int size() {
+        synchronized (_entries) {
+            return _entries.size();
+        }
+    }
+}
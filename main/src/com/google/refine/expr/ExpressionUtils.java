@@ -56,7 +56,7 @@ public class ExpressionUtils {
     }
 
     static public Properties createBindings(Project project) {
-        Properties bindings = new Properties();
+        Properties bindings = new Bindings();
 
         bindings.put("true", true);
         bindings.put("false", false);
@@ -72,6 +72,14 @@ public class ExpressionUtils {
     }
 
     static public void bind(Properties bindings, Row row, int rowIndex, String columnName, Cell cell) {
+        if (bindings instanceof Bindings) {
+            ((Bindings) bindings).bind(row, rowIndex, columnName, cell);
+            for (Binder binder : s_binders) {
+                binder.bind(bindings, row, rowIndex, columnName, cell);
+            }
+            return;
+        }
+
         Project project = (Project) bindings.get("project");
 
         bindings.put("rowIndex", rowIndex);
@@ -99,6 +107,23 @@ public class ExpressionUtils {
         }
     }
 
+    /**
+     * Combines the column dependencies of several expressions.
+     * 
+     * @return the union of their dependencies, or null if one of them is null
+     */
+    static public Set<String> getColumnDependencies(String baseColumn, Evaluable... evaluables) {
+        Set<String> dependencies = new HashSet<String>();
+        for (Evaluable evaluable : evaluables) {
+            Set<String> evaluableDependencies = evaluable.getColumnDependencies(baseColumn);
+            if (evaluableDependencies == null) {
+                return null;
+            }
+            dependencies.addAll(evaluableDependencies);
+        }
+        return dependencies;
+    }
+
     static public boolean isError(Object o) {
         return o instanceof EvalError;
     }
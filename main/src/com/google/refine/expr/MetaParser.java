@@ -41,6 +41,7 @@ import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.refine.grel.ExpressionCompiler;
 import com.google.refine.grel.Parser;
 
 import clojure.lang.IFn;
@@ -55,15 +56,20 @@ abstract public class MetaParser {
         final public LanguageSpecificParser parser;
         @JsonProperty("defaultExpression")
         final public String                 defaultExpression;
+        @JsonIgnore
+        final public boolean                threadSafe;
         
-        LanguageInfo(String name, LanguageSpecificParser parser, String defaultExpression) {
+        LanguageInfo(String name, LanguageSpecificParser parser, String defaultExpression, boolean threadSafe) {
             this.name = name;
             this.parser = parser;
             this.defaultExpression = defaultExpression;
+            this.threadSafe = threadSafe;
         }
     }
     
     static final protected Map<String, LanguageInfo> s_languages = new HashMap<String, LanguageInfo>();
+    
+    static final protected EvaluableCache s_cache = new EvaluableCache();
 
     // TODO: We should switch from using the internal compiler class 
 //    final static private Var CLOJURE_READ_STRING = RT.var("clojure.core", "read-string");
@@ -76,7 +82,7 @@ abstract public class MetaParser {
             public Evaluable parse(String s) throws ParsingException {
                 return parseGREL(s);
             }
-        }, "value");
+        }, "value", true);
         
         registerLanguageParser("clojure", "Clojure", new LanguageSpecificParser() {
             
@@ -85,7 +91,7 @@ abstract public class MetaParser {
                 try {
 //                    RT.load("clojure/core"); // Make sure RT is initialized
                     Object foo = RT.CURRENT_NS; // Make sure RT is initialized
-                    IFn fn = (IFn) clojure.lang.Compiler.load(new StringReader(
+                    final IFn fn = (IFn) clojure.lang.Compiler.load(new StringReader(
                             "(fn [value cell cells row rowIndex] " + s + ")"
                         ));
 
@@ -96,17 +102,10 @@ abstract public class MetaParser {
 //                            );
                     
                     return new Evaluable() {
-                        private IFn _fn;
-                        
-                        public Evaluable init(IFn fn) {
-                            _fn = fn;
-                            return this;
-                        }
-                        
                         @Override
                         public Object evaluate(Properties bindings) {
                             try {
-                                return _fn.invoke(
+                                return fn.invoke(
                                     bindings.get("value"),
                                     bindings.get("cell"),
                                     bindings.get("cells"),
@@ -117,12 +116,12 @@ abstract public class MetaParser {
                                 return new EvalError(e.getMessage());
                             }
                         }
-                    }.init(fn);
+                    };
                 } catch (Exception e) {
                     throw new ParsingException(e.getMessage());
                 }
             }
-        }, "value");
+        }, "value", true);
     }
     
     /**
@@ -132,9 +131,28 @@ abstract public class MetaParser {
      * @param name
      * @param parser
      * @param defaultExpression
+     * @see #registerLanguageParser(String, String, LanguageSpecificParser, String, boolean)
      */
     static public void registerLanguageParser(String languagePrefix, String name, LanguageSpecificParser parser, String defaultExpression) {
-        s_languages.put(languagePrefix, new LanguageInfo(name, parser, defaultExpression));
+        registerLanguageParser(languagePrefix, name, parser, defaultExpression, false);
+    }
+    
+    /**
+     * Parsed expressions are cached and the same evaluable is returned each
+     * time an expression is parsed, to any caller and thread. Evaluables
+     * returned by the parser must therefore not keep any state from one
+     * evaluation to the next: everything they depend on must come from the
+     * bindings they are passed.
+     * 
+     * @param threadSafe
+     *      whether the expressions of the language can be evaluated on several
+     *      threads at once. Expressions of other languages are evaluated one
+     *      at a time.
+     */
+    static public void registerLanguageParser(String languagePrefix, String name, LanguageSpecificParser parser,
+            String defaultExpression, boolean threadSafe) {
+        s_languages.put(languagePrefix, new LanguageInfo(name, parser, defaultExpression, threadSafe));
+        s_cache.clear();
     }
     
     static public LanguageInfo getLanguageInfo(String languagePrefix) {
@@ -156,6 +174,7 @@ abstract public class MetaParser {
      */
     static public Evaluable parse(String s) throws ParsingException {
         String language = "grel";
+        String source = s;
         
         int colon = s.indexOf(':');
         if (colon >= 0) {
@@ -165,17 +184,67 @@ abstract public class MetaParser {
             }
         }
         
+        LanguageSpecificParser parser;
         LanguageInfo info = s_languages.get(language.toLowerCase());
         if (info != null) {
-            return info.parser.parse(s.substring(colon + 1));
+            source = s.substring(colon + 1);
+            if (info.threadSafe) {
+                parser = info.parser;
+            } else {
+                parser = src -> new SynchronizedEvaluable(info.parser.parse(src));
+            }
         } else {
-            return parseGREL(s);
+            language = "grel";
+            parser = MetaParser::parseGREL;
+        }
+        
+        if ("grel".equals(language) && ExpressionCompiler.isEnabled()) {
+            // compiled and interpreted expressions are cached separately
+            language = "grel-compiled";
+        }
+        return s_cache.get(language, source, parser);
+    }
+    
+    /**
+     * @return whether the expression can be evaluated on several threads at once
+     */
+    static public boolean isThreadSafe(String s) {
+        LanguageInfo info = s_languages.get(getLanguagePrefix(s));
+        return info == null || info.threadSafe;
+    }
+    
+    /**
+     * Returns the language an expression is written in, from its prefix.
+     * Expressions without valid prefixes or without any prefix are GREL
+     * expressions.
+     * 
+     * @param s
+     * @return the language prefix, in lower case
+     */
+    static public String getLanguagePrefix(String s) {
+        int colon = s.indexOf(':');
+        if (colon >= 0) {
+            String language = s.substring(0, colon).toLowerCase();
+            if ("gel".equals(language)) {
+                return "grel";
+            } else if (s_languages.containsKey(language)) {
+                return language;
+            }
         }
+        return "grel";
+    }
+    
+    /**
+     * @return the cache of parsed expressions, shared by all projects
+     */
+    static public EvaluableCache getCache() {
+        return s_cache;
     }
     
     static protected Evaluable parseGREL(String s) throws ParsingException {
         Parser parser = new Parser(s);
         
-        return parser.getExpression();
+        Evaluable expression = parser.getExpression();
+        return ExpressionCompiler.isEnabled() ? ExpressionCompiler.compile(expression) : expression;
     }
 }
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.expr;
+
+import java.util.Properties;
+
+import com.google.refine.model.Cell;
+import com.google.refine.model.Row;
+
+/**
+ * A block of rows on which an expression is evaluated at once, relative to
+ * one of their columns.
+ *
+ * Expressions evaluate a batch with {@link Evaluable#evaluate(RowBatch, Object[])},
+ * which lets operators and functions process the values of all rows in tight
+ * loops instead of going through the whole expression for each row.
+ */
+public class RowBatch {
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    final protected Properties _bindings;
+    final protected String _columnName;
+    final protected int _cellIndex;
+    final protected int[] _rowIndices;
+    final protected Row[] _rows;
+    final protected Cell[] _cells;
+    protected int _size;
+
+    /**
+     * @param bindings
+     *      the bindings rows are bound to for evaluation
+     * @param columnName
+     *      the name of the column the expression is evaluated on
+     * @param cellIndex
+     *      the cell index of that column, or -1
+     * @param capacity
+     *      the maximum number of rows in the batch
+     */
+    public RowBatch(Properties bindings, String columnName, int cellIndex, int capacity) {
+        _bindings = bindings;
+        _columnName = columnName;
+        _cellIndex = cellIndex;
+        _rowIndices = new int[capacity];
+        _rows = new Row[capacity];
+        _cells = new Cell[capacity];
+    }
+
+    /**
+     * Adds a row to the batch.
+     *
+     * @return true if the batch is full
+     */
+    public boolean add(int rowIndex, Row row) {
+        _rowIndices[_size] = rowIndex;
+        _rows[_size] = row;
+        _cells[_size] = _cellIndex < 0 ? null : row.getCell(_cellIndex);
+        _size++;
+        return _size == _rows.length;
+    }
+
+    public void clear() {
+        for (int i = 0; i < _size; i++) {
+            _rows[i] = null;
+            _cells[i] = null;
+        }
+        _size = 0;
+    }
+
+    public int size() {
+        return _size;
+    }
+
+    public int getCapacity() {
+        return _rows.length;
+    }
+
+    public int getRowIndex(int i) {
+        return _rowIndices[i];
+    }
+
+    public Row getRow(int i) {
+        return _rows[i];
+    }
+
+    public Cell getCell(int i) {
+        return _cells[i];
+    }
+
+    /**
+     * @return the value the "value" variable has on the i-th row
+     */
+    public Object getValue(int i) {
+        Cell cell = _cells[i];
+        return cell == null ? null : cell.value;
+    }
+
+    /**
+     * @return the bindings, which are not bound to any particular row of the batch
+     */
+    public Properties getBindings() {
+        return _bindings;
+    }
+
+    /**
+     * Binds the bindings to the i-th row of the batch.
+     *
+     * @return the bindings
+     */
+    public Properties bind(int i) {
+        ExpressionUtils.bind(_bindings, _rows[i], _rowIndices[i], _columnName, _cells[i]);
+        return _bindings;
+    }
+
+    /**
+     * Evaluates an expression on all rows of the batch. If the batched
+     * evaluation fails, the expression is evaluated again row by row, so
+     * that failures surface on the rows they come from.
+     *
+     * @param evaluable
+     *      the expression to evaluate
+     * @param results
+     *      receives the result for each row, must be at least as long as the batch
+     */
+    public void evaluate(Evaluable evaluable, Object[] results) {
+        try {
+            evaluable.evaluate(this, results);
+        } catch (RuntimeException e) {
+            for (int i = 0; i < _size; i++) {
+                results[i] = evaluable.evaluate(bind(i));
+            }
+        }
+    }
+}
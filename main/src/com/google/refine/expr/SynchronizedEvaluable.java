@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.expr;
+
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Wraps an expression of a language whose evaluations are not known to be
+ * thread-safe, so that rows scanned in parallel evaluate it one at a time.
+ */
+public class SynchronizedEvaluable implements Evaluable {
+    final protected Evaluable _inner;
+
+    public SynchronizedEvaluable(Evaluable inner) {
+        _inner = inner;
+    }
+
+    @Override
+    public synchronized Object evaluate(Properties bindings) {
+        return _inner.evaluate(bindings);
+    }
+
+    @Override
+    public synchronized void evaluate(RowBatch batch, Object[] results) {
+        _inner.evaluate(batch, results);
+    }
+
+    @Override
+    public Set<String> getColumnDependencies(String baseColumn) {
+        return _inner.getColumnDependencies(baseColumn);
+    }
+
+    public Evaluable getInner() {
+        return _inner;
+    }
+
+    @Override
+    public String toString() {
+        return _inner.toString();
+    }
+}
@@ -35,8 +35,10 @@ package com.google.refine.expr.functions;
 
 import java.util.Properties;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.util.ExpressionNominalValueGrouper;
+import com.google.refine.browsing.util.ValueCountIndexCache;
 import com.google.refine.expr.EvalError;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.MetaParser;
@@ -61,20 +63,24 @@ public class FacetCount implements Function {
                 return new EvalError("No such column named " + columnName);
             }
 
-            String key = "nominal-bin:" + facetExpression;
-            ExpressionNominalValueGrouper grouper = (ExpressionNominalValueGrouper) column.getPrecompute(key);
-            if (grouper == null) {
-                try {
-                    Evaluable eval = MetaParser.parse(facetExpression);
-                    Engine engine = new Engine(project);
-
-                    grouper = new ExpressionNominalValueGrouper(eval, columnName, column.getCellIndex());
-                    engine.getAllRows().accept(project, grouper);
-
-                    column.setPrecompute(key, grouper);
-                } catch (ParsingException e) {
-                    return new EvalError("Error parsing facet expression " + facetExpression);
+            ExpressionNominalValueGrouper grouper;
+            try {
+                Evaluable eval = MetaParser.parse(facetExpression);
+                if (ValueCountIndexCache.isCacheable(columnName, column.getCellIndex(), eval)) {
+                    grouper = ProjectManager.singleton.getValueCountIndexCache().getValueCounts(
+                            project, columnName, column.getCellIndex(), facetExpression, eval);
+                } else {
+                    // the counts are not shared, but must not be computed again for each row
+                    String key = "nominal-bin:" + facetExpression;
+                    grouper = (ExpressionNominalValueGrouper) column.getPrecompute(key);
+                    if (grouper == null) {
+                        grouper = new ExpressionNominalValueGrouper(eval, columnName, column.getCellIndex());
+                        new Engine(project).getAllRows().accept(project, grouper);
+                        column.setPrecompute(key, grouper);
+                    }
                 }
+            } catch (ParsingException e) {
+                return new EvalError("Error parsing facet expression " + facetExpression);
             }
 
             return grouper.getChoiceValueCountMultiple(choiceValue);
@@ -36,10 +36,10 @@ package com.google.refine.expr.functions;
 import java.util.Properties;
 
 import com.google.refine.expr.EvalError;
+import com.google.refine.grel.BatchFunction;
 import com.google.refine.grel.ControlFunctionRegistry;
-import com.google.refine.grel.Function;
 
-public class ToNumber implements Function {
+public class ToNumber implements BatchFunction {
 
   @Override
     public Object call(Properties bindings, Object[] args) {
@@ -72,6 +72,24 @@ public class ToNumber implements Function {
         }
     }
 
+    @Override
+    public void call(Properties bindings, Object[][] args, int count, Object[] results) {
+        if (args.length != 1) {
+            callEach(bindings, args, count, results);
+            return;
+        }
+        Object[] rowArgs = new Object[1];
+        for (int i = 0; i < count; i++) {
+            Object o = args[0][i];
+            if (o instanceof Number) {
+                results[i] = o;
+            } else {
+                rowArgs[0] = o;
+                results[i] = call(bindings, rowArgs);
+            }
+        }
+    }
+
     @Override
     public String getDescription() {
         return "Returns a string converted to a number. Will attempt to convert other formats into a string, then into a number. If the value is already a number, it will return the number.";
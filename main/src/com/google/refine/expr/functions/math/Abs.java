@@ -36,10 +36,10 @@ package com.google.refine.expr.functions.math;
 import java.util.Properties;
 
 import com.google.refine.expr.EvalError;
+import com.google.refine.grel.BatchFunction;
 import com.google.refine.grel.ControlFunctionRegistry;
-import com.google.refine.grel.Function;
 
-public class Abs implements Function {
+public class Abs implements BatchFunction {
 
     @Override
     public Object call(Properties bindings, Object[] args) {
@@ -49,6 +49,22 @@ public class Abs implements Function {
         return new EvalError(ControlFunctionRegistry.getFunctionName(this) + " expects a number");
     }
 
+    @Override
+    public void call(Properties bindings, Object[][] args, int count, Object[] results) {
+        if (args.length != 1) {
+            callEach(bindings, args, count, results);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            Object o = args[0][i];
+            if (o instanceof Number) {
+                results[i] = Math.abs(((Number) o).doubleValue());
+            } else {
+                results[i] = new EvalError(ControlFunctionRegistry.getFunctionName(this) + " expects a number");
+            }
+        }
+    }
+
     @Override
     public String getDescription() {
         return "Returns the absolute value of a number.";
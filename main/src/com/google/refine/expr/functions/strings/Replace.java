@@ -34,13 +34,14 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.expr.functions.strings;
 
 import java.util.Properties;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.google.refine.expr.EvalError;
+import com.google.refine.grel.BatchFunction;
 import com.google.refine.grel.ControlFunctionRegistry;
-import com.google.refine.grel.Function;
 
-public class Replace implements Function {
+public class Replace implements BatchFunction {
 
     @Override
     public Object call(Properties bindings, Object[] args) {
@@ -62,6 +63,36 @@ public class Replace implements Function {
         return new EvalError(ControlFunctionRegistry.getFunctionName(this) + " expects 3 strings, or 1 string, 1 regex, and 1 string");
     }
 
+    @Override
+    public void call(Properties bindings, Object[][] args, int count, Object[] results) {
+        if (args.length != 3) {
+            callEach(bindings, args, count, results);
+            return;
+        }
+        // the pattern is usually the same for all rows, so is its matcher
+        Pattern pattern = null;
+        Matcher matcher = null;
+        Object[] rowArgs = new Object[3];
+        for (int i = 0; i < count; i++) {
+            Object o1 = args[0][i];
+            Object o2 = args[1][i];
+            Object o3 = args[2][i];
+            if (o1 != null && o2 instanceof Pattern && o3 instanceof String) {
+                if (o2 != pattern) {
+                    pattern = (Pattern) o2;
+                    matcher = pattern.matcher("");
+                }
+                String str = (o1 instanceof String) ? (String) o1 : o1.toString();
+                results[i] = matcher.reset(str).replaceAll((String) o3);
+            } else {
+                rowArgs[0] = o1;
+                rowArgs[1] = o2;
+                rowArgs[2] = o3;
+                results[i] = call(bindings, rowArgs);
+            }
+        }
+    }
+
     
     @Override
     public String getDescription() {
@@ -36,10 +36,10 @@ package com.google.refine.expr.functions.strings;
 import java.util.Properties;
 
 import com.google.refine.expr.EvalError;
+import com.google.refine.grel.BatchFunction;
 import com.google.refine.grel.ControlFunctionRegistry;
-import com.google.refine.grel.Function;
 
-public class ToUppercase implements Function {
+public class ToUppercase implements BatchFunction {
 
     @Override
     public Object call(Properties bindings, Object[] args) {
@@ -50,6 +50,24 @@ public class ToUppercase implements Function {
         return new EvalError(ControlFunctionRegistry.getFunctionName(this) + " expects a string");
     }
 
+    @Override
+    public void call(Properties bindings, Object[][] args, int count, Object[] results) {
+        if (args.length != 1) {
+            callEach(bindings, args, count, results);
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            Object o = args[0][i];
+            if (o instanceof String) {
+                results[i] = ((String) o).toUpperCase();
+            } else if (o != null) {
+                results[i] = o.toString().toUpperCase();
+            } else {
+                results[i] = new EvalError(ControlFunctionRegistry.getFunctionName(this) + " expects a string");
+            }
+        }
+    }
+
     @Override
     public String getDescription() {
         return "Returns string s converted to all uppercase characters.";
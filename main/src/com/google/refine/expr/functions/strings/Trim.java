@@ -37,9 +37,9 @@ import java.util.Properties;
 
 import com.google.common.base.CharMatcher;
 import com.google.refine.expr.EvalError;
-import com.google.refine.grel.Function;
+import com.google.refine.grel.BatchFunction;
 
-public class Trim implements Function {
+public class Trim implements BatchFunction {
 
     @Override
     public Object call(Properties bindings, Object[] args) {
@@ -51,6 +51,23 @@ public class Trim implements Function {
         }
         return new EvalError("Invalid parameters");
     }
+
+    @Override
+    public void call(Properties bindings, Object[][] args, int count, Object[] results) {
+        if (args.length != 1) {
+            callEach(bindings, args, count, results);
+            return;
+        }
+        CharMatcher whitespace = CharMatcher.whitespace();
+        for (int i = 0; i < count; i++) {
+            Object s1 = args[0][i];
+            if (s1 instanceof String) {
+                results[i] = whitespace.trimFrom((String) s1);
+            } else {
+                results[i] = new EvalError("Invalid parameters");
+            }
+        }
+    }
     @Override
     public String getDescription() {
         return "Returns a copy of string s with leading and trailing whitespace removed.";
@@ -531,6 +531,9 @@ public class CalendarParser {
     /** list of time zone names. */
     private static final String[] zoneNames = loadTimeZoneNames();
 
+    /** separators between the tokens of a date string. */
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("([\\s/,]+|(\\S)\\-)");
+
     /** Unknown place in time parsing. */
     private static final int PLACE_UNKNOWN = 0;
     /** Parsing hour value from time string. */
@@ -1552,8 +1555,7 @@ public class CalendarParser {
             boolean ignoreChanges) throws CalendarParserException {
         ParserState state = new ParserState(order);
 
-        Pattern pat = Pattern.compile("([\\s/,]+|(\\S)\\-)");
-        Matcher matcher = pat.matcher(dateStr);
+        Matcher matcher = TOKEN_SEPARATOR.matcher(dateStr);
 
         int prevEnd = 0;
         while (prevEnd < dateStr.length()) {
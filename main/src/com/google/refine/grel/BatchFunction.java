@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.grel;
+
+import java.util.Properties;
+
+/**
+ * A function which can be applied to the arguments of many rows at once.
+ *
+ * Batch functions must not depend on the row the bindings are bound to, as
+ * they are called with bindings not bound to any particular row.
+ */
+public interface BatchFunction extends Function {
+    /**
+     * Applies the function to a batch of argument lists. Arguments which are
+     * errors may be passed in: their results are ignored.
+     * 
+     * @param bindings
+     * @param args
+     *      args[j][i] is the j-th argument for the i-th row
+     * @param count
+     *      the number of rows in the batch
+     * @param results
+     *      receives the result for each row
+     */
+    public void call(Properties bindings, Object[][] args, int count, Object[] results);
+
+    /**
+     * Applies the function to each row of a batch separately.
+     */
+    default public void callEach(Properties bindings, Object[][] args, int count, Object[] results) {
+        Object[] rowArgs = new Object[args.length];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < args.length; j++) {
+                rowArgs[j] = args[j][i];
+            }
+            results[i] = call(bindings, rowArgs);
+        }
+    }
+}
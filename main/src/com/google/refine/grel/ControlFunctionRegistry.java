@@ -35,10 +35,12 @@ package com.google.refine.grel;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.functions.Coalesce;
 import com.google.refine.expr.functions.Cross;
 import com.google.refine.expr.functions.FacetCount;
@@ -160,6 +162,8 @@ public class ControlFunctionRegistry {
     static private Map<String, Function> s_nameToFunction = new HashMap<String, Function>();
     static private Map<Function, String> s_functionToName = new HashMap<Function, String>();
 
+    static private Set<Function> s_pureFunctions = new HashSet<Function>();
+
     static private Map<String, Control> s_nameToControl = new HashMap<String, Control>();
     static private Map<Control, String> s_controlToName = new HashMap<Control, String>();
 
@@ -176,6 +180,15 @@ public class ControlFunctionRegistry {
         return Collections.unmodifiableMap(s_nameToFunction);
     }
 
+    /**
+     * @return true if the function was registered as pure: its result only depends on its
+     *      arguments, which it does not modify, it does not read the bindings and it returns
+     *      strings, numbers, booleans or errors
+     */
+    static public boolean isPure(Function f) {
+        return s_pureFunctions.contains(f);
+    }
+
     static public Control getControl(String name) {
         return s_nameToControl.get(name);
     }
@@ -192,31 +205,39 @@ public class ControlFunctionRegistry {
     static public void registerFunction(String name, Function f) {
         s_nameToFunction.put(name, f);
         s_functionToName.put(f, name);
+        // expressions parsed before may refer to another function or control
+        MetaParser.getCache().clear();
+    }
+
+    static public void registerPureFunction(String name, Function f) {
+        registerFunction(name, f);
+        s_pureFunctions.add(f);
     }
 
     static public void registerControl(String name, Control c) {
         s_nameToControl.put(name, c);
         s_controlToName.put(c, name);
+        MetaParser.getCache().clear();
     }
 
     static {
         registerFunction("coalesce", new Coalesce());
-        registerFunction("type", new Type());
+        registerPureFunction("type", new Type());
 
-        registerFunction("toString", new ToString());
-        registerFunction("toNumber", new ToNumber());
+        registerPureFunction("toString", new ToString());
+        registerPureFunction("toNumber", new ToNumber());
         registerFunction("toDate", new ToDate());
 
-        registerFunction("toUppercase", new ToUppercase());
-        registerFunction("toLowercase", new ToLowercase());
-        registerFunction("toTitlecase", new ToTitlecase());
+        registerPureFunction("toUppercase", new ToUppercase());
+        registerPureFunction("toLowercase", new ToLowercase());
+        registerPureFunction("toTitlecase", new ToTitlecase());
 
         registerFunction("hasField", new HasField());
         registerFunction("get", new Get());
         registerFunction("slice", new Slice());
         registerFunction("substring", new Slice());
-        registerFunction("replace", new Replace());
-        registerFunction("replaceChars", new ReplaceChars());
+        registerPureFunction("replace", new Replace());
+        registerPureFunction("replaceChars", new ReplaceChars());
         registerFunction("range", new Range());
         registerFunction("split", new Split());
         registerFunction("smartSplit", new SmartSplit());
@@ -224,23 +245,23 @@ public class ControlFunctionRegistry {
         registerFunction("splitByLengths", new SplitByLengths());
         registerFunction("partition", new Partition());
         registerFunction("rpartition", new RPartition());
-        registerFunction("trim", new Trim());
-        registerFunction("strip", new Trim());
-        registerFunction("contains", new Contains());
-        registerFunction("escape", new Escape());
-        registerFunction("unescape", new Unescape());
-        registerFunction("length", new Length());
-        registerFunction("sha1", new SHA1());
-        registerFunction("md5", new MD5());
+        registerPureFunction("trim", new Trim());
+        registerPureFunction("strip", new Trim());
+        registerPureFunction("contains", new Contains());
+        registerPureFunction("escape", new Escape());
+        registerPureFunction("unescape", new Unescape());
+        registerPureFunction("length", new Length());
+        registerPureFunction("sha1", new SHA1());
+        registerPureFunction("md5", new MD5());
         registerFunction("unicode", new Unicode());
         registerFunction("unicodeType", new UnicodeType());
         registerFunction("diff", new Diff());
-        registerFunction("chomp", new Chomp());
-        registerFunction("fingerprint", new Fingerprint());
-        registerFunction("ngramFingerprint", new NGramFingerprint());
-        registerFunction("phonetic", new Phonetic());
-        registerFunction("reinterpret", new Reinterpret());
-        registerFunction("jsonize", new Jsonize());
+        registerPureFunction("chomp", new Chomp());
+        registerPureFunction("fingerprint", new Fingerprint());
+        registerPureFunction("ngramFingerprint", new NGramFingerprint());
+        registerPureFunction("phonetic", new Phonetic());
+        registerPureFunction("reinterpret", new Reinterpret());
+        registerPureFunction("jsonize", new Jsonize());
         registerFunction("parseJson", new ParseJson());
         registerFunction("ngram", new NGram());
         registerFunction("match", new Match());
@@ -259,10 +280,10 @@ public class ControlFunctionRegistry {
         registerFunction("ownText", new OwnText());
         registerFunction("wholeText", new WholeText());
 
-        registerFunction("indexOf", new IndexOf());
-        registerFunction("lastIndexOf", new LastIndexOf());
-        registerFunction("startsWith", new StartsWith());
-        registerFunction("endsWith", new EndsWith());
+        registerPureFunction("indexOf", new IndexOf());
+        registerPureFunction("lastIndexOf", new LastIndexOf());
+        registerPureFunction("startsWith", new StartsWith());
+        registerPureFunction("endsWith", new EndsWith());
         registerFunction("join", new Join());
         registerFunction("reverse", new Reverse());
         registerFunction("sort", new Sort());
@@ -273,45 +294,45 @@ public class ControlFunctionRegistry {
         registerFunction("inc", new Inc());
         registerFunction("datePart", new DatePart());
 
-        registerFunction("acos", new ACos());
-        registerFunction("asin", new ASin());
-        registerFunction("atan", new ATan());
-        registerFunction("atan2", new ATan2());
-        registerFunction("cos", new Cos());
-        registerFunction("cosh", new Cosh());
-        registerFunction("sin", new Sin());
-        registerFunction("sinh", new Sinh());
-        registerFunction("tan", new Tan());
-        registerFunction("tanh", new Tanh());
-        registerFunction("round", new Round());
-        registerFunction("floor", new Floor());
-        registerFunction("ceil", new Ceil());
-        registerFunction("even", new Even());
-        registerFunction("odd", new Odd());
-        registerFunction("abs", new Abs());
-        registerFunction("mod", new Mod());
-        registerFunction("max", new Max());
-        registerFunction("min", new Min());
-        registerFunction("log", new Log());
-        registerFunction("ln", new Ln());
-        registerFunction("pow", new Pow());
-        registerFunction("exp", new Exp());
-        registerFunction("sum", new Sum());
-        registerFunction("fact", new Fact());
-        registerFunction("factn", new FactN());
-        registerFunction("combin", new Combin());
-        registerFunction("degrees", new Degrees());
-        registerFunction("radians", new Radians());
+        registerPureFunction("acos", new ACos());
+        registerPureFunction("asin", new ASin());
+        registerPureFunction("atan", new ATan());
+        registerPureFunction("atan2", new ATan2());
+        registerPureFunction("cos", new Cos());
+        registerPureFunction("cosh", new Cosh());
+        registerPureFunction("sin", new Sin());
+        registerPureFunction("sinh", new Sinh());
+        registerPureFunction("tan", new Tan());
+        registerPureFunction("tanh", new Tanh());
+        registerPureFunction("round", new Round());
+        registerPureFunction("floor", new Floor());
+        registerPureFunction("ceil", new Ceil());
+        registerPureFunction("even", new Even());
+        registerPureFunction("odd", new Odd());
+        registerPureFunction("abs", new Abs());
+        registerPureFunction("mod", new Mod());
+        registerPureFunction("max", new Max());
+        registerPureFunction("min", new Min());
+        registerPureFunction("log", new Log());
+        registerPureFunction("ln", new Ln());
+        registerPureFunction("pow", new Pow());
+        registerPureFunction("exp", new Exp());
+        registerPureFunction("sum", new Sum());
+        registerPureFunction("fact", new Fact());
+        registerPureFunction("factn", new FactN());
+        registerPureFunction("combin", new Combin());
+        registerPureFunction("degrees", new Degrees());
+        registerPureFunction("radians", new Radians());
         registerFunction("randomNumber", new RandomNumber());
-        registerFunction("gcd", new GreatestCommonDenominator());
-        registerFunction("lcm", new LeastCommonMultiple());
-        registerFunction("multinomial", new Multinomial());
-        registerFunction("quotient", new Quotient());
+        registerPureFunction("gcd", new GreatestCommonDenominator());
+        registerPureFunction("lcm", new LeastCommonMultiple());
+        registerPureFunction("multinomial", new Multinomial());
+        registerPureFunction("quotient", new Quotient());
 
-        registerFunction("and", new And());
-        registerFunction("or", new Or());
-        registerFunction("not", new Not());
-        registerFunction("xor", new Xor());
+        registerPureFunction("and", new And());
+        registerPureFunction("or", new Or());
+        registerPureFunction("not", new Not());
+        registerPureFunction("xor", new Xor());
 
         registerFunction("cross", new Cross());
 
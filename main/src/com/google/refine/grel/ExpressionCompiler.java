@@ -0,0 +1,610 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.grel;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.google.common.base.CharMatcher;
+import com.google.refine.ProjectManager;
+import com.google.refine.expr.EvalError;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.functions.strings.ToLowercase;
+import com.google.refine.expr.functions.strings.ToUppercase;
+import com.google.refine.expr.functions.strings.Trim;
+import com.google.refine.grel.ast.ControlCallExpr;
+import com.google.refine.grel.ast.FieldAccessorExpr;
+import com.google.refine.grel.ast.FunctionCallExpr;
+import com.google.refine.grel.ast.LiteralExpr;
+import com.google.refine.grel.ast.OperatorCallExpr;
+import com.google.refine.grel.ast.VariableExpr;
+
+/**
+ * Turns a parsed GREL expression into a tree of specialized evaluators.
+ *
+ * The interpreter dispatches operators by comparing strings and allocates an
+ * argument array for every operator and function call. Compiled expressions
+ * resolve operators to opcodes once, evaluate operands without intermediate
+ * arrays, fold operations on constants, take fast paths for integral and
+ * string operands and call a few common string functions directly. Calls to
+ * functions registered as pure (see {@link ControlFunctionRegistry#isPure(Function)})
+ * are folded when their arguments are constant, and pure subexpressions which
+ * occur more than once are evaluated at most once per evaluation.
+ *
+ * Compiled nodes keep a reference to the node they were compiled from, to
+ * which they delegate {@link #toString()} and column dependencies. Nodes the
+ * compiler does not know are left as they are and interpreted.
+ *
+ * Compilation is enabled by default. Setting the "expressions.grel.compile"
+ * preference to false makes GREL expressions interpreted again.
+ */
+public class ExpressionCompiler {
+    public static final String COMPILE_PREFERENCE = "expressions.grel.compile";
+
+    static final int ADD = 0;
+    static final int SUBTRACT = 1;
+    static final int MULTIPLY = 2;
+    static final int DIVIDE = 3;
+    static final int MODULO = 4;
+    static final int GREATER = 5;
+    static final int GREATER_OR_EQUAL = 6;
+    static final int LESS = 7;
+    static final int LESS_OR_EQUAL = 8;
+    static final int EQUAL = 9;
+    static final int NOT_EQUAL = 10;
+
+    static final String[] OPERATORS = { "+", "-", "*", "/", "%", ">", ">=", "<", "<=", "==", "!=" };
+
+    /**
+     * Values of the shared subexpressions of the expression being evaluated on
+     * each thread. The first element identifies the expression they belong to.
+     */
+    static final protected ThreadLocal<Object[]> s_sharedValues = new ThreadLocal<>();
+
+    static public boolean isEnabled() {
+        return ProjectManager.singleton != null &&
+            ProjectManager.singleton.getPreferenceStore().getBooleanPreference(COMPILE_PREFERENCE, true);
+    }
+
+    /**
+     * @param expression
+     *      the root of a parsed GREL expression
+     * @return an expression evaluating to the same results
+     */
+    static public Evaluable compile(Evaluable expression) {
+        SharedSubexpressions shared = new SharedSubexpressions();
+        shared.visit(expression);
+        Evaluable compiled = compile(expression, shared);
+        return shared._slots.isEmpty() ? compiled : new SharedScopeExpr(expression, compiled, shared);
+    }
+
+    /**
+     * @param shared
+     *      the subexpressions to evaluate once, or null if the expression is
+     *      in the scope of variables bound by a control
+     */
+    static protected Evaluable compile(Evaluable expression, SharedSubexpressions shared) {
+        Evaluable compiled;
+        if (expression instanceof OperatorCallExpr) {
+            compiled = compileOperator((OperatorCallExpr) expression, shared);
+        } else if (expression instanceof FunctionCallExpr) {
+            compiled = compileFunction((FunctionCallExpr) expression, shared);
+        } else if (expression instanceof ControlCallExpr) {
+            ControlCallExpr control = (ControlCallExpr) expression;
+            Evaluable[] args = control.getArgs();
+            int outerArgCount = getOuterArgCount(control);
+            Evaluable[] compiledArgs = new Evaluable[args.length];
+            for (int i = 0; i < args.length; i++) {
+                compiledArgs[i] = compile(args[i], i < outerArgCount ? shared : null);
+            }
+            compiled = new ControlCallExpr(compiledArgs, control.getControl());
+        } else if (expression instanceof FieldAccessorExpr) {
+            FieldAccessorExpr accessor = (FieldAccessorExpr) expression;
+            compiled = new FieldAccessorExpr(compile(accessor.getInner(), shared), accessor.getFieldName());
+        } else {
+            return expression;
+        }
+
+        if (shared != null && !isConstant(compiled)) {
+            int slot = shared.getSlot(expression);
+            if (slot >= 0) {
+                compiled = new SharedExpr(expression, shared._scope, slot, compiled);
+            }
+        }
+        return compiled;
+    }
+
+    static protected Evaluable[] compile(Evaluable[] expressions, SharedSubexpressions shared) {
+        Evaluable[] compiled = new Evaluable[expressions.length];
+        for (int i = 0; i < expressions.length; i++) {
+            compiled[i] = compile(expressions[i], shared);
+        }
+        return compiled;
+    }
+
+    /**
+     * Controls which bind variables take the names of the variables as arguments.
+     * The arguments before the first variable name are evaluated in the scope of
+     * the control, the other ones in the scope of the variables.
+     */
+    static protected int getOuterArgCount(ControlCallExpr control) {
+        Evaluable[] args = control.getArgs();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof VariableExpr) {
+                return i;
+            }
+        }
+        return args.length;
+    }
+
+    static protected Evaluable compileOperator(OperatorCallExpr expression, SharedSubexpressions shared) {
+        Evaluable[] args = compile(expression.getArgs(), shared);
+        int opcode = getOpcode(expression.getOp());
+        if (args.length != 2 || opcode < 0) {
+            return new OperatorCallExpr(args, expression.getOp());
+        }
+
+        Evaluable compiled;
+        if (opcode == ADD && getConstant(args[0]) instanceof String) {
+            compiled = new ConcatExpr(expression, (String) getConstant(args[0]), args[1], true);
+        } else if (opcode == ADD && getConstant(args[1]) instanceof String) {
+            compiled = new ConcatExpr(expression, (String) getConstant(args[1]), args[0], false);
+        } else {
+            compiled = new BinaryOperatorExpr(expression, opcode, args[0], args[1]);
+        }
+        return fold(expression, compiled, args);
+    }
+
+    static protected Evaluable compileFunction(FunctionCallExpr expression, SharedSubexpressions shared) {
+        Evaluable[] args = compile(expression.getArgs(), shared);
+        Function function = expression.getFunction();
+
+        int intrinsic = -1;
+        if (args.length == 1) {
+            if (function instanceof Trim) {
+                intrinsic = StringFunctionExpr.TRIM;
+            } else if (function instanceof ToLowercase) {
+                intrinsic = StringFunctionExpr.LOWERCASE;
+            } else if (function instanceof ToUppercase) {
+                intrinsic = StringFunctionExpr.UPPERCASE;
+            }
+        }
+        if (intrinsic >= 0) {
+            return fold(expression, new StringFunctionExpr(expression, intrinsic, function, args[0]), args);
+        }
+        CallExpr call = new CallExpr(expression, function, args);
+        return ControlFunctionRegistry.isPure(function) ? fold(expression, call, args) : call;
+    }
+
+    static protected int getOpcode(String op) {
+        for (int i = 0; i < OPERATORS.length; i++) {
+            if (OPERATORS[i].equals(op)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static protected boolean isConstant(Evaluable e) {
+        return e instanceof LiteralExpr || e instanceof ConstantExpr;
+    }
+
+    /**
+     * @return the value of a literal or folded expression, null otherwise
+     */
+    static protected Object getConstant(Evaluable e) {
+        if (e instanceof LiteralExpr) {
+            return ((LiteralExpr) e).getValue();
+        } else if (e instanceof ConstantExpr) {
+            return ((ConstantExpr) e)._value;
+        }
+        return null;
+    }
+
+    /**
+     * Replaces an operation whose operands are all constant by its result,
+     * unless evaluating it fails.
+     */
+    static protected Evaluable fold(Evaluable source, Evaluable compiled, Evaluable[] args) {
+        for (Evaluable arg : args) {
+            if (!isConstant(arg)) {
+                return compiled;
+            }
+        }
+        Object value;
+        try {
+            value = compiled.evaluate(new Properties());
+        } catch (RuntimeException e) {
+            return compiled;
+        }
+        if (!(value instanceof String || value instanceof Number || value instanceof Boolean)) {
+            // errors are reported on every evaluation, and other values may be modified
+            return compiled;
+        }
+        return new ConstantExpr(source, value);
+    }
+
+    /**
+     * Finds the pure subexpressions which occur more than once in an expression,
+     * outside of the scope of variables bound by controls.
+     */
+    static protected class SharedSubexpressions {
+        final protected Map<Evaluable, String> _keys = new IdentityHashMap<>();
+        final protected Map<String, Integer> _counts = new HashMap<>();
+        final protected Map<String, Integer> _slots = new HashMap<>();
+        final protected Object _scope = new Object();
+
+        /**
+         * Counts the pure subexpressions of an expression.
+         *
+         * @return a key identifying the expression if it is pure, null otherwise
+         */
+        protected String visit(Evaluable expression) {
+            String key = null;
+            if (expression instanceof LiteralExpr) {
+                Object value = ((LiteralExpr) expression).getValue();
+                return value == null ? "null" : value.getClass().getSimpleName() + ":" + expression.toString();
+            } else if (expression instanceof VariableExpr) {
+                return "$" + ((VariableExpr) expression).getName();
+            } else if (expression instanceof FieldAccessorExpr) {
+                FieldAccessorExpr accessor = (FieldAccessorExpr) expression;
+                String inner = visit(accessor.getInner());
+                if (inner != null) {
+                    key = inner + "." + new TextNode(accessor.getFieldName()).toString();
+                }
+            } else if (expression instanceof OperatorCallExpr) {
+                OperatorCallExpr operator = (OperatorCallExpr) expression;
+                key = visit(new TextNode(operator.getOp()).toString(), operator.getArgs());
+            } else if (expression instanceof FunctionCallExpr) {
+                FunctionCallExpr call = (FunctionCallExpr) expression;
+                String args = visit(call.getFunction().getClass().getName(), call.getArgs());
+                if (ControlFunctionRegistry.isPure(call.getFunction())) {
+                    key = args;
+                }
+            } else if (expression instanceof ControlCallExpr) {
+                ControlCallExpr control = (ControlCallExpr) expression;
+                Evaluable[] args = control.getArgs();
+                int outerArgCount = getOuterArgCount(control);
+                for (int i = 0; i < outerArgCount; i++) {
+                    visit(args[i]);
+                }
+            }
+
+            if (key != null) {
+                _keys.put(expression, key);
+                _counts.merge(key, 1, Integer::sum);
+            }
+            return key;
+        }
+
+        protected String visit(String name, Evaluable[] args) {
+            StringBuilder sb = new StringBuilder(name).append('(');
+            boolean pure = true;
+            for (Evaluable arg : args) {
+                String key = visit(arg);
+                pure &= key != null;
+                if (pure) {
+                    sb.append(key).append(',');
+                }
+            }
+            return pure ? sb.append(')').toString() : null;
+        }
+
+        /**
+         * @return the slot holding the value of a subexpression occurring more than
+         *      once, or -1 for other subexpressions
+         */
+        protected int getSlot(Evaluable expression) {
+            String key = _keys.get(expression);
+            if (key == null || _counts.get(key) < 2) {
+                return -1;
+            }
+            // the first element of the values holds the scope
+            return _slots.computeIfAbsent(key, k -> _slots.size() + 1);
+        }
+    }
+
+    /**
+     * Base class of compiled nodes, describing themselves as their source.
+     */
+    static abstract protected class CompiledExpr implements Evaluable {
+        final protected Evaluable _source;
+
+        protected CompiledExpr(Evaluable source) {
+            _source = source;
+        }
+
+        @Override
+        public Set<String> getColumnDependencies(String baseColumn) {
+            return _source.getColumnDependencies(baseColumn);
+        }
+
+        @Override
+        public String toString() {
+            return _source.toString();
+        }
+    }
+
+    /**
+     * Root of an expression with shared subexpressions, holding their values
+     * during each evaluation.
+     */
+    static protected class SharedScopeExpr extends CompiledExpr {
+        static final protected Object UNSET = new Object();
+
+        final protected Evaluable _root;
+        final protected Object _scope;
+        final protected int _slotCount;
+
+        protected SharedScopeExpr(Evaluable source, Evaluable root, SharedSubexpressions shared) {
+            super(source);
+            _root = root;
+            _scope = shared._scope;
+            _slotCount = shared._slots.size();
+        }
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            // functions of the expression may evaluate other expressions, or this one again
+            Object[] outerValues = s_sharedValues.get();
+            Object[] values = new Object[_slotCount + 1];
+            Arrays.fill(values, UNSET);
+            values[0] = _scope;
+            s_sharedValues.set(values);
+            try {
+                return _root.evaluate(bindings);
+            } finally {
+                s_sharedValues.set(outerValues);
+            }
+        }
+    }
+
+    /**
+     * Subexpression evaluated at most once per evaluation of its root.
+     */
+    static protected class SharedExpr extends CompiledExpr {
+        final protected Object _scope;
+        final protected int _slot;
+        final protected Evaluable _inner;
+
+        protected SharedExpr(Evaluable source, Object scope, int slot, Evaluable inner) {
+            super(source);
+            _scope = scope;
+            _slot = slot;
+            _inner = inner;
+        }
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            Object[] values = s_sharedValues.get();
+            if (values == null || values[0] != _scope) {
+                return _inner.evaluate(bindings);
+            }
+            Object value = values[_slot];
+            if (value == SharedScopeExpr.UNSET) {
+                value = _inner.evaluate(bindings);
+                values[_slot] = value;
+            }
+            return value;
+        }
+    }
+
+    static protected class ConstantExpr extends CompiledExpr {
+        final protected Object _value;
+
+        protected ConstantExpr(Evaluable source, Object value) {
+            super(source);
+            _value = value;
+        }
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            return _value;
+        }
+    }
+
+    /**
+     * Same semantics as {@link OperatorCallExpr} for binary operators.
+     */
+    static protected class BinaryOperatorExpr extends CompiledExpr {
+        final protected int _opcode;
+        final protected Evaluable _left;
+        final protected Evaluable _right;
+
+        protected BinaryOperatorExpr(Evaluable source, int opcode, Evaluable left, Evaluable right) {
+            super(source);
+            _opcode = opcode;
+            _left = left;
+            _right = right;
+        }
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            Object a = _left.evaluate(bindings);
+            if (ExpressionUtils.isError(a)) {
+                return a;
+            }
+            Object b = _right.evaluate(bindings);
+            if (ExpressionUtils.isError(b)) {
+                return b;
+            }
+
+            if (a != null && b != null) {
+                if ((a instanceof Long || a instanceof Integer) && (b instanceof Long || b instanceof Integer)) {
+                    return evaluate(((Number) a).longValue(), ((Number) b).longValue());
+                } else if (a instanceof Number && b instanceof Number) {
+                    return evaluate(((Number) a).doubleValue(), ((Number) b).doubleValue());
+                } else if (_opcode == ADD) {
+                    return a.toString() + b.toString();
+                }
+            }
+
+            if (_opcode == EQUAL) {
+                return a != null ? a.equals(b) : b == null;
+            } else if (_opcode == NOT_EQUAL) {
+                return a != null ? !a.equals(b) : b != null;
+            }
+            return null;
+        }
+
+        protected Object evaluate(long n1, long n2) {
+            switch (_opcode) {
+            case ADD: return n1 + n2;
+            case SUBTRACT: return n1 - n2;
+            case MULTIPLY: return n1 * n2;
+            case DIVIDE: return n1 / n2;
+            case MODULO: return n1 % n2;
+            case GREATER: return n1 > n2;
+            case GREATER_OR_EQUAL: return n1 >= n2;
+            case LESS: return n1 < n2;
+            case LESS_OR_EQUAL: return n1 <= n2;
+            case EQUAL: return n1 == n2;
+            default: return n1 != n2;
+            }
+        }
+
+        protected Object evaluate(double n1, double n2) {
+            switch (_opcode) {
+            case ADD: return n1 + n2;
+            case SUBTRACT: return n1 - n2;
+            case MULTIPLY: return n1 * n2;
+            case DIVIDE: return n1 / n2;
+            case MODULO: return n1 % n2;
+            case GREATER: return n1 > n2;
+            case GREATER_OR_EQUAL: return n1 >= n2;
+            case LESS: return n1 < n2;
+            case LESS_OR_EQUAL: return n1 <= n2;
+            case EQUAL: return n1 == n2;
+            default: return n1 != n2;
+            }
+        }
+    }
+
+    /**
+     * Concatenation of a string literal with another operand.
+     */
+    static protected class ConcatExpr extends CompiledExpr {
+        final protected String _constant;
+        final protected Evaluable _operand;
+        final protected boolean _constantFirst;
+
+        protected ConcatExpr(Evaluable source, String constant, Evaluable operand, boolean constantFirst) {
+            super(source);
+            _constant = constant;
+            _operand = operand;
+            _constantFirst = constantFirst;
+        }
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            Object v = _operand.evaluate(bindings);
+            if (v == null || ExpressionUtils.isError(v)) {
+                return v;
+            }
+            return _constantFirst ? _constant.concat(v.toString()) : v.toString().concat(_constant);
+        }
+    }
+
+    /**
+     * Same semantics as {@link FunctionCallExpr}, with compiled arguments.
+     */
+    static protected class CallExpr extends CompiledExpr {
+        final protected Function _function;
+        final protected Evaluable[] _args;
+
+        protected CallExpr(Evaluable source, Function function, Evaluable[] args) {
+            super(source);
+            _function = function;
+            _args = args;
+        }
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            Object[] args = new Object[_args.length];
+            for (int i = 0; i < _args.length; i++) {
+                Object v = _args[i].evaluate(bindings);
+                if (ExpressionUtils.isError(v)) {
+                    return v;
+                }
+                args[i] = v;
+            }
+            try {
+                return _function.call(bindings, args);
+            } catch (Exception e) {
+                return new EvalError(e);
+            }
+        }
+    }
+
+    /**
+     * Calls a string function of one argument directly when the argument is
+     * a string, and goes through the function otherwise.
+     */
+    static protected class StringFunctionExpr extends CompiledExpr {
+        static final int TRIM = 0;
+        static final int LOWERCASE = 1;
+        static final int UPPERCASE = 2;
+
+        final protected int _intrinsic;
+        final protected Function _function;
+        final protected Evaluable _arg;
+
+        protected StringFunctionExpr(Evaluable source, int intrinsic, Function function, Evaluable arg) {
+            super(source);
+            _intrinsic = intrinsic;
+            _function = function;
+            _arg = arg;
+        }
+
+        @Override
+        public Object evaluate(Properties bindings) {
+            Object v = _arg.evaluate(bindings);
+            if (ExpressionUtils.isError(v)) {
+                return v;
+            }
+            if (v instanceof String) {
+                String s = (String) v;
+                switch (_intrinsic) {
+                case TRIM: return CharMatcher.whitespace().trimFrom(s);
+                case LOWERCASE: return s.toLowerCase();
+                default: return s.toUpperCase();
+                }
+            }
+            try {
+                return _function.call(bindings, new Object[] { v });
+            } catch (Exception e) {
+                return new EvalError(e);
+            }
+        }
+    }
+}
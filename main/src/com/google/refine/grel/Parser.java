@@ -50,6 +50,7 @@ import com.google.refine.grel.ast.FunctionCallExpr;
 import com.google.refine.grel.ast.LiteralExpr;
 import com.google.refine.grel.ast.OperatorCallExpr;
 import com.google.refine.grel.ast.VariableExpr;
+import com.google.refine.util.PatternCache;
 
 public class Parser {
     protected Scanner   _scanner;
@@ -175,7 +176,7 @@ public class Parser {
             RegexToken t = (RegexToken) _token;
 
             try {
-                Pattern pattern = Pattern.compile(_token.text, t.caseInsensitive ? Pattern.CASE_INSENSITIVE : 0);
+                Pattern pattern = PatternCache.compile(_token.text, t.caseInsensitive ? Pattern.CASE_INSENSITIVE : 0);
                 eval = new LiteralExpr(pattern);
                 next(false);
             } catch (Exception e) {
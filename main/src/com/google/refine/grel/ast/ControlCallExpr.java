@@ -34,10 +34,18 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.grel.ast;
 
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.expr.EvalError;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.grel.Control;
+import com.google.refine.grel.controls.Filter;
+import com.google.refine.grel.controls.ForEach;
+import com.google.refine.grel.controls.ForEachIndex;
+import com.google.refine.grel.controls.ForNonBlank;
+import com.google.refine.grel.controls.ForRange;
+import com.google.refine.grel.controls.With;
 
 /**
  * An abstract syntax tree node encapsulating a control call, such as "if".
@@ -60,6 +68,16 @@ public class ControlCallExpr implements Evaluable {
         }
     }
 
+    @Override
+    public Set<String> getColumnDependencies(String baseColumn) {
+        if (_control instanceof ForEach || _control instanceof ForEachIndex || _control instanceof ForNonBlank
+                || _control instanceof ForRange || _control instanceof Filter || _control instanceof With) {
+            // these bind variables, which cannot be told apart from the ones of the row
+            return null;
+        }
+        return ExpressionUtils.getColumnDependencies(baseColumn, _args);
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
@@ -73,4 +91,12 @@ public class ControlCallExpr implements Evaluable {
         
         return _control.getClass().getSimpleName() + "(" + sb.toString() + ")";
     }
+
+    public Evaluable[] getArgs() {
+        return _args;
+    }
+
+    public Control getControl() {
+        return _control;
+    }
 }
@@ -33,11 +33,17 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.grel.ast;
 
+import java.util.Collections;
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.expr.EvalError;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.RowBatch;
+import com.google.refine.expr.functions.Get;
+import com.google.refine.grel.BatchFunction;
+import com.google.refine.grel.ControlFunctionRegistry;
 import com.google.refine.grel.Function;
 
 /**
@@ -72,6 +78,84 @@ public class FunctionCallExpr implements Evaluable {
         }
     }
 
+    @Override
+    public void evaluate(RowBatch batch, Object[] results) {
+        int count = batch.size();
+        Object[][] args = new Object[_args.length][];
+        for (int j = 0; j < _args.length; j++) {
+            args[j] = new Object[count];
+            _args[j].evaluate(batch, args[j]);
+        }
+
+        // the first error among the arguments of each row, if any
+        Object[] errors = null;
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < args.length; j++) {
+                if (ExpressionUtils.isError(args[j][i])) {
+                    if (errors == null) {
+                        errors = new Object[count];
+                    }
+                    errors[i] = args[j][i];
+                    break;
+                }
+            }
+        }
+
+        if (_function instanceof BatchFunction) {
+            try {
+                ((BatchFunction) _function).call(batch.getBindings(), args, count, results);
+            } catch (Exception e) {
+                callEach(batch, args, errors, results);
+            }
+        } else {
+            callEach(batch, args, errors, results);
+        }
+
+        if (errors != null) {
+            for (int i = 0; i < count; i++) {
+                if (errors[i] != null) {
+                    results[i] = errors[i]; // bubble up the error
+                }
+            }
+        }
+    }
+
+    /**
+     * Calls the function on each row of a batch, skipping the rows for which
+     * errors[i] is set, as the function is not applied to erroneous arguments.
+     */
+    protected void callEach(RowBatch batch, Object[][] args, Object[] errors, Object[] results) {
+        Object[] rowArgs = new Object[args.length];
+        for (int i = 0; i < batch.size(); i++) {
+            if (errors != null && errors[i] != null) {
+                continue;
+            }
+            for (int j = 0; j < args.length; j++) {
+                rowArgs[j] = args[j][i];
+            }
+            try {
+                results[i] = _function.call(batch.bind(i), rowArgs);
+            } catch (Exception e) {
+                results[i] = new EvalError(e);
+            }
+        }
+    }
+
+    @Override
+    public Set<String> getColumnDependencies(String baseColumn) {
+        if (_function instanceof Get && _args.length == 2
+                && _args[0] instanceof VariableExpr && "cells".equals(((VariableExpr) _args[0]).getName())
+                && _args[1] instanceof LiteralExpr && ((LiteralExpr) _args[1])._value instanceof String) {
+            // cells["column name"]
+            return Collections.singleton((String) ((LiteralExpr) _args[1])._value);
+        } else if (!ControlFunctionRegistry.isPure(_function)) {
+            // functions are passed all bindings, so they may read other rows
+            // or projects, or depend on the time they are called at
+            return null;
+        }
+        return ExpressionUtils.getColumnDependencies(baseColumn, _args);
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
@@ -85,4 +169,12 @@ public class FunctionCallExpr implements Evaluable {
         
         return _function.getClass().getSimpleName() + "(" + sb.toString() + ")";
     }
+
+    public Evaluable[] getArgs() {
+        return _args;
+    }
+
+    public Function getFunction() {
+        return _function;
+    }
 }
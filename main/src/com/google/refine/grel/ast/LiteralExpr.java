@@ -33,10 +33,14 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.grel.ast;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Properties;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.node.TextNode;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.RowBatch;
 
 /**
  * An abstract syntax tree node encapsulating a literal value.
@@ -53,8 +57,22 @@ public class LiteralExpr implements Evaluable {
         return _value;
     }
 
+    @Override
+    public Set<String> getColumnDependencies(String baseColumn) {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public void evaluate(RowBatch batch, Object[] results) {
+        Arrays.fill(results, 0, batch.size(), _value);
+    }
+
     @Override
     public String toString() {
-        return _value instanceof String ? new TextNode((String) _value).toString() : _value.toString();
+        return _value instanceof String ? new TextNode((String) _value).toString() : String.valueOf(_value);
+    }
+
+    public Object getValue() {
+        return _value;
     }
 }
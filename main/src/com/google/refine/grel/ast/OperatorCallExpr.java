@@ -34,9 +34,11 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.grel.ast;
 
 import java.util.Properties;
+import java.util.Set;
 
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.RowBatch;
 
 /**
  * An abstract syntax tree node encapsulating an operator call, such as "+".
@@ -60,7 +62,36 @@ public class OperatorCallExpr implements Evaluable {
             }
             args[i] = v;
         }
+        return apply(args);
+    }
+
+    @Override
+    public void evaluate(RowBatch batch, Object[] results) {
+        int count = batch.size();
+        Object[][] args = new Object[_args.length][];
+        for (int j = 0; j < _args.length; j++) {
+            args[j] = new Object[count];
+            _args[j].evaluate(batch, args[j]);
+        }
+
+        Object[] rowArgs = new Object[_args.length];
+        for (int i = 0; i < count; i++) {
+            Object error = null;
+            for (int j = 0; j < args.length && error == null; j++) {
+                Object v = args[j][i];
+                if (ExpressionUtils.isError(v)) {
+                    error = v;
+                }
+                rowArgs[j] = v;
+            }
+            results[i] = error != null ? error : apply(rowArgs);
+        }
+    }
 
+    /**
+     * Applies the operator to evaluated arguments, none of which is an error.
+     */
+    protected Object apply(Object[] args) {
         if (args.length == 2) {
             if (args[0] != null && args[1] != null) {
                 if (isIntegral(args[0]) && isIntegral(args[1])) {
@@ -141,6 +172,11 @@ public class OperatorCallExpr implements Evaluable {
         return null;
     }
 
+    @Override
+    public Set<String> getColumnDependencies(String baseColumn) {
+        return ExpressionUtils.getColumnDependencies(baseColumn, _args);
+    }
+
     @Override
     public String toString() {
         StringBuffer sb = new StringBuffer();
@@ -160,4 +196,12 @@ public class OperatorCallExpr implements Evaluable {
     private boolean isIntegral(Object n) {
         return n instanceof Long || n instanceof Integer;
     }
+
+    public Evaluable[] getArgs() {
+        return _args;
+    }
+
+    public String getOp() {
+        return _op;
+    }
 }
@@ -33,25 +33,57 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.grel.ast;
 
+import java.util.Collections;
 import java.util.Properties;
+import java.util.Set;
 
+import com.google.refine.expr.Bindings;
 import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.RowBatch;
 
 /**
  * An abstract syntax tree node encapsulating the retrieval of a variable's content.
  */
 public class VariableExpr implements Evaluable {
     final protected String _name;
+    final protected int _slot;
     
     public VariableExpr(String name) {
         _name = name;
+        _slot = Bindings.getSlot(name);
     }
     
     @Override
     public Object evaluate(Properties bindings) {
+        if (_slot >= 0 && bindings instanceof Bindings) {
+            return ((Bindings) bindings).get(_slot);
+        }
         return bindings.get(_name);
     }
 
+    @Override
+    public void evaluate(RowBatch batch, Object[] results) {
+        if (_slot == Bindings.VALUE) {
+            for (int i = 0; i < batch.size(); i++) {
+                results[i] = batch.getValue(i);
+            }
+        } else {
+            Evaluable.super.evaluate(batch, results);
+        }
+    }
+
+    @Override
+    public Set<String> getColumnDependencies(String baseColumn) {
+        if ("value".equals(_name) || "cell".equals(_name)) {
+            return baseColumn == null ? null : Collections.singleton(baseColumn);
+        } else if ("rowIndex".equals(_name) || "columnName".equals(_name)
+                || "true".equals(_name) || "false".equals(_name) || "PI".equals(_name)) {
+            return Collections.emptySet();
+        }
+        // other rows can be reached from "row", and any other variable could be bound by a control
+        return null;
+    }
+
     @Override
     public String toString() {
         return _name;
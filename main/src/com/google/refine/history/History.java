@@ -165,6 +165,35 @@ public class History  {
         }
     }
 
+    /**
+     * @param entryID
+     *      the id of an applied entry, or 0 for the start of the project
+     * @return the entries applied after the given one, oldest first, or null
+     *      if the given entry is not currently applied
+     */
+    synchronized public List<HistoryEntry> getPastEntriesSince(long entryID) {
+        if (entryID == 0) {
+            return new ArrayList<HistoryEntry>(_pastEntries);
+        }
+        for (int i = 0; i < _pastEntries.size(); i++) {
+            if (_pastEntries.get(i).id == entryID) {
+                return new ArrayList<HistoryEntry>(_pastEntries.subList(i + 1, _pastEntries.size()));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the entries of this history with those of another one, once
+     * the project has been brought to the state the other one describes.
+     *
+     * @param other
+     */
+    synchronized public void replaceEntries(History other) {
+        _pastEntries = new ArrayList<HistoryEntry>(other._pastEntries);
+        _futureEntries = new ArrayList<HistoryEntry>(other._futureEntries);
+    }
+
     synchronized public void undoRedo(long lastDoneEntryID) {
         if (lastDoneEntryID == 0) {
             // undo all the way back to the start of the project
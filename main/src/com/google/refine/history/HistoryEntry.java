@@ -145,6 +145,7 @@ public class HistoryEntry {
         }
 
         synchronized (project) {
+            loadRows(project);
             getChange().apply(project);
 
             // When a change is applied, it can hang on to old data (in order to be able
@@ -166,9 +167,18 @@ public class HistoryEntry {
         if (getChange() == null) {
             _manager.loadChange(this);
         }
+        loadRows(project);
         getChange().revert(project);
     }
 
+    protected void loadRows(Project project) {
+        try {
+            project.ensureRowsLoaded();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load the rows of the project", e);
+        }
+    }
+
     static public HistoryEntry load(Project project, String s) throws IOException {
     	ObjectMapper mapper = ParsingUtilities.mapper.copy();
     	InjectableValues injection = new InjectableValues.Std()
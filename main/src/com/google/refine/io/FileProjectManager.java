@@ -246,6 +246,16 @@ public class FileProjectManager extends ProjectManager  {
         ProjectUtilities.save(project);
     }
 
+    @Override
+    protected boolean needsCompaction(Project project) {
+        return ProjectUtilities.hasDelta(project);
+    }
+
+    @Override
+    protected void compactProject(Project project) throws IOException {
+        ProjectUtilities.compact(project);
+    }
+
     @Override
     public Project loadProject(long id) {
         return ProjectUtilities.load(getProjectDir(id), id);
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.io;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.zip.Inflater;
+
+import com.google.refine.model.Row;
+import com.google.refine.util.Pool;
+
+/**
+ * The rows of a project, read on demand from a file in the format of
+ * {@link BinaryRowFormat}.
+ *
+ * The file is memory-mapped and indexed when opened, which only reads the
+ * header of each chunk. Chunks are then decoded when one of their rows is
+ * accessed, and the most recently accessed ones are kept in memory, so that
+ * browsing a project does not need all of its rows in the heap.
+ *
+ * Rows are mutable, so they are all loaded in memory with {@link #load()}
+ * before the project is changed. This also happens on the first call to a
+ * method modifying the list itself.
+ *
+ * As the {@link List} methods cannot throw checked exceptions, they report
+ * failures to read the file with an {@link UncheckedIOException}.
+ */
+public class LazyRowList extends AbstractList<Row> implements RandomAccess, Closeable {
+    /**
+     * Set to true to load the rows of projects on demand when opening them.
+     */
+    public static final String LAZY_LOADING_PREFERENCE = "project.storage.lazyLoading";
+
+    /**
+     * Number of decoded chunks of rows kept in memory for each project.
+     */
+    public static final String HOT_CHUNKS_PREFERENCE = "project.storage.hotRowChunks";
+    public static final int DEFAULT_HOT_CHUNKS = 16;
+
+    final protected Pool _pool;
+    final protected int _chunkSize;
+    final protected int _rowCount;
+    final protected long[] _chunkOffsets;
+    final protected int[] _rawLengths;
+    final protected int[] _compressedLengths;
+    final protected Map<Integer, Row[]> _hotChunks;
+
+    protected FileChannel _channel;
+    /**
+     * All rows once loaded. Only assigned under the lock of this list, but
+     * read without it on the fast path of {@link #get(int)} and {@link #size()}.
+     */
+    protected volatile List<Row> _rows;
+
+    /**
+     * Opens a file written by {@link BinaryRowFormat#writeRows}.
+     *
+     * @param file
+     * @param pool
+     *      the pool to resolve recons from
+     * @param maxHotChunks
+     *      the number of decoded chunks to keep in memory
+     * @throws IOException
+     */
+    public LazyRowList(File file, Pool pool, int maxHotChunks) throws IOException {
+        _pool = pool;
+        _channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            int[] header = BinaryRowFormat.readHeader(read(0, BinaryRowFormat.HEADER_LENGTH).array());
+            _chunkSize = header[0];
+            _rowCount = header[1];
+
+            int chunkCount = (_rowCount + _chunkSize - 1) / _chunkSize;
+            _chunkOffsets = new long[chunkCount];
+            _rawLengths = new int[chunkCount];
+            _compressedLengths = new int[chunkCount];
+            long offset = BinaryRowFormat.HEADER_LENGTH;
+            for (int i = 0; i < chunkCount; i++) {
+                ByteBuffer chunkHeader = read(offset, BinaryRowFormat.CHUNK_HEADER_LENGTH);
+                _rawLengths[i] = chunkHeader.getInt();
+                _compressedLengths[i] = chunkHeader.getInt();
+                _chunkOffsets[i] = offset + BinaryRowFormat.CHUNK_HEADER_LENGTH;
+                offset = _chunkOffsets[i] + _compressedLengths[i];
+            }
+            if (offset > _channel.size()) {
+                throw new EOFException("Truncated binary row file");
+            }
+        } catch (IOException e) {
+            _channel.close();
+            throw e;
+        }
+
+        final int max = Math.max(1, maxHotChunks);
+        _hotChunks = new LinkedHashMap<Integer, Row[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Row[]> eldest) {
+                return size() > max;
+            }
+        };
+    }
+
+    protected ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (_channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Truncated binary row file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * @return true if all rows are in memory
+     */
+    public boolean isLoaded() {
+        return _rows != null;
+    }
+
+    /**
+     * Loads all rows in memory, so that they can be modified.
+     *
+     * @throws IOException
+     *      if the rows could not be read from the file
+     */
+    synchronized public void load() throws IOException {
+        if (_rows != null) {
+            return;
+        }
+        List<Row> rows = new ArrayList<>(_rowCount);
+        for (int i = 0; i < _chunkOffsets.length; i++) {
+            Row[] chunk = _hotChunks.get(i);
+            if (chunk == null) {
+                chunk = decodeChunk(i);
+            }
+            for (Row row : chunk) {
+                rows.add(row);
+            }
+        }
+        _rows = rows;
+        _hotChunks.clear();
+        close();
+    }
+
+    /**
+     * @throws UncheckedIOException
+     *      if the chunk of the row could not be read from the file
+     */
+    @Override
+    public Row get(int index) {
+        List<Row> rows = _rows;
+        if (rows != null) {
+            return rows.get(index);
+        }
+        if (index < 0 || index >= _rowCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _rowCount);
+        }
+
+        int chunkIndex = index / _chunkSize;
+        synchronized (this) {
+            rows = _rows;
+            if (rows != null) {
+                return rows.get(index);
+            }
+            Row[] chunk = _hotChunks.get(chunkIndex);
+            if (chunk == null) {
+                try {
+                    chunk = decodeChunk(chunkIndex);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read rows of chunk " + chunkIndex, e);
+                }
+                _hotChunks.put(chunkIndex, chunk);
+            }
+            return chunk[index - chunkIndex * _chunkSize];
+        }
+    }
+
+    protected Row[] decodeChunk(int chunkIndex) throws IOException {
+        if (_channel == null) {
+            throw new IOException("Binary row file is closed");
+        }
+        int length = _compressedLengths[chunkIndex];
+        byte[] compressed = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            MappedByteBuffer mapped = _channel.map(FileChannel.MapMode.READ_ONLY, _chunkOffsets[chunkIndex], length);
+            mapped.get(compressed);
+
+            byte[] raw = BinaryRowFormat.inflate(inflater, compressed, length, _rawLengths[chunkIndex]);
+            int rowCount = Math.min(_chunkSize, _rowCount - chunkIndex * _chunkSize);
+            List<Row> rows = new ArrayList<>(rowCount);
+            new BinaryRowFormat.ChunkReader(raw, _pool).read(rowCount, rows);
+            return rows.toArray(new Row[rowCount]);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    @Override
+    public int size() {
+        List<Row> rows = _rows;
+        return rows != null ? rows.size() : _rowCount;
+    }
+
+    /**
+     * Loads all rows before the list is modified.
+     *
+     * @return the rows in memory
+     * @throws UncheckedIOException
+     *      if the rows could not be read from the file
+     */
+    protected List<Row> loadForUpdate() {
+        try {
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load rows", e);
+        }
+        return _rows;
+    }
+
+    @Override
+    public Row set(int index, Row element) {
+        return loadForUpdate().set(index, element);
+    }
+
+    @Override
+    public void add(int index, Row element) {
+        loadForUpdate().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public Row remove(int index) {
+        List<Row> rows = loadForUpdate();
+        modCount++;
+        return rows.remove(index);
+    }
+
+    @Override
+    public void clear() {
+        List<Row> rows = loadForUpdate();
+        modCount++;
+        rows.clear();
+    }
+
+    @Override
+    synchronized public void close() {
+        if (_channel != null) {
+            try {
+                _channel.close();
+            } catch (IOException e) {
+                // nothing more to do
+            }
+            _channel = null;
+        }
+    }
+}
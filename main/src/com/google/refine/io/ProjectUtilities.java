@@ -33,9 +33,22 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.io;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -44,78 +57,270 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.refine.ProjectManager;
+import com.google.refine.RefineServlet;
+import com.google.refine.history.History;
+import com.google.refine.history.HistoryEntry;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
 
 public class ProjectUtilities {
     final static Logger logger = LoggerFactory.getLogger("project_utilities");
 
+    /**
+     * Set to "text" to save the rows of projects as JSON lines in data.txt,
+     * readable by older versions. By default they are saved with
+     * {@link BinaryRowFormat}.
+     */
+    public static final String STORAGE_FORMAT_PREFERENCE = "project.storage.format";
+
+    /**
+     * Maximum number of history entries a delta save can cover before the
+     * project is fully saved again. Set to 0 to always save projects fully.
+     */
+    public static final String MAX_DELTA_ENTRIES_PREFERENCE = "project.storage.maxDeltaEntries";
+    public static final int DEFAULT_MAX_DELTA_ENTRIES = 20;
+
+    static final String SNAPSHOT_ENTRY = "snapshot.txt";
+    static final String DELTA_ENTRY = "delta.txt";
+
+    /**
+     * Saves a project, either fully or, when possible, by only writing down
+     * its history on top of the last full save: the changes themselves are
+     * already on disk, in the change files of the history entries.
+     *
+     * @param project
+     * @throws IOException
+     */
     synchronized public static void save(Project project) throws IOException {
         synchronized (project) {
-            long id = project.id;
-            File dir = ((FileProjectManager)ProjectManager.singleton).getProjectDir(id);
-
-            File tempFile = new File(dir, "data.temp.zip");
-            try {
-                saveToFile(project, tempFile);
-            } catch (IOException e) {
-                e.printStackTrace();
-                logger.warn("Failed to save project {}", id);
-                try {
-                    tempFile.delete();
-                } catch (Exception e2) {
-                    // just ignore - file probably was never created.
-                }
-                throw e;
+            if (canSaveDelta(project)) {
+                saveDelta(project);
+            } else {
+                saveSnapshot(project);
             }
 
-            File file = new File(dir, "data.zip");
-            File oldFile = new File(dir, "data.old.zip");
+            project.setLastSave();
 
-            if (file.exists()) {
-                file.renameTo(oldFile);
+            logger.info("Saved project '{}'", project.id);
+        }
+    }
+
+    /**
+     * Fully saves a project if changes were saved as a delta since its last
+     * full save, so that loading it does not replay them. Unlike
+     * {@link #save(Project)}, this does not mark the project as saved, as
+     * it does not save anything new.
+     *
+     * @param project
+     * @throws IOException
+     */
+    synchronized public static void compact(Project project) throws IOException {
+        synchronized (project) {
+            if (hasDelta(project)) {
+                saveSnapshot(project);
+                logger.info("Compacted project '{}'", project.id);
             }
+        }
+    }
+
+    /**
+     * @param project
+     * @return true if changes to the project were saved as a delta since
+     *      its last full save
+     */
+    static public boolean hasDelta(Project project) {
+        File dir = ((FileProjectManager)ProjectManager.singleton).getProjectDir(project.id);
+        return new File(dir, "delta.zip").exists();
+    }
+
+    static protected boolean canSaveDelta(Project project) {
+        if (project.getSnapshotToken() == null) {
+            return false;
+        }
+        List<HistoryEntry> entries = project.history.getPastEntriesSince(project.getSnapshotEntryID());
+        return entries != null && entries.size() <= getMaxDeltaEntries();
+    }
+
+    static protected int getMaxDeltaEntries() {
+        return ProjectManager.singleton == null ? DEFAULT_MAX_DELTA_ENTRIES :
+            ProjectManager.singleton.getPreferenceStore().getIntPreference(
+                    MAX_DELTA_ENTRIES_PREFERENCE, DEFAULT_MAX_DELTA_ENTRIES);
+    }
+
+    static protected long getLastEntryID(Project project) {
+        List<HistoryEntry> entries = project.history.getLastPastEntries(1);
+        return entries.isEmpty() ? 0 : entries.get(entries.size() - 1).id;
+    }
 
-            tempFile.renameTo(file);
-            if (oldFile.exists()) {
-                oldFile.delete();
+    static protected void saveSnapshot(Project project) throws IOException {
+        long id = project.id;
+        File dir = ((FileProjectManager)ProjectManager.singleton).getProjectDir(id);
+        String token = UUID.randomUUID().toString();
+        long entryID = getLastEntryID(project);
+
+        File tempFile = new File(dir, "data.temp.zip");
+        try {
+            saveToFile(project, tempFile, token);
+        } catch (IOException e) {
+            e.printStackTrace();
+            logger.warn("Failed to save project {}", id);
+            try {
+                tempFile.delete();
+            } catch (Exception e2) {
+                // just ignore - file probably was never created.
             }
+            throw e;
+        }
 
-            project.setLastSave();
+        File file = new File(dir, "data.zip");
+        File oldFile = new File(dir, "data.old.zip");
 
-            logger.info("Saved project '{}'",id);
+        if (file.exists()) {
+            file.renameTo(oldFile);
         }
+
+        tempFile.renameTo(file);
+        if (oldFile.exists()) {
+            oldFile.delete();
+        }
+
+        // the delta refers to the previous snapshot, so it is ignored if left behind
+        new File(dir, "delta.zip").delete();
+
+        project.setSnapshot(token, entryID);
+    }
+
+    static protected void saveDelta(Project project) throws IOException {
+        long id = project.id;
+        File dir = ((FileProjectManager)ProjectManager.singleton).getProjectDir(id);
+
+        File tempFile = new File(dir, "delta.temp.zip");
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(tempFile));
+        try {
+            out.putNextEntry(new ZipEntry(DELTA_ENTRY));
+            Writer writer = new OutputStreamWriter(out, "UTF-8");
+            writer.write(RefineServlet.VERSION); writer.write('\n');
+            writer.write("snapshot="); writer.write(project.getSnapshotToken()); writer.write('\n');
+            writer.write("history=\n");
+
+            Properties options = new Properties();
+            options.setProperty("mode", "save");
+            project.history.save(writer, options);
+            writer.flush();
+            out.closeEntry();
+        } catch (IOException e) {
+            logger.warn("Failed to save changes of project {}", id);
+            out.close();
+            tempFile.delete();
+            throw e;
+        }
+        out.close();
+
+        File file = new File(dir, "delta.zip");
+        if (file.exists()) {
+            file.delete();
+        }
+        tempFile.renameTo(file);
     }
 
     protected static void saveToFile(Project project, File file) throws IOException  {
+        saveToFile(project, file, UUID.randomUUID().toString());
+    }
+
+    protected static void saveToFile(Project project, File file, String token) throws IOException  {
         ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
         try {
             Pool pool = new Pool();
+            boolean binaryRows = useBinaryRows();
 
             out.putNextEntry(new ZipEntry("data.txt"));
             try {
-                project.saveToOutputStream(out, pool);
+                project.saveToOutputStream(out, pool, !binaryRows);
             } finally {
                 out.closeEntry();
             }
 
+            if (binaryRows) {
+                // chunks are compressed already
+                out.setLevel(Deflater.NO_COMPRESSION);
+                out.putNextEntry(new ZipEntry(BinaryRowFormat.ENTRY_NAME));
+                try {
+                    BinaryRowFormat.writeRows(project.rows, out, pool);
+                } finally {
+                    out.closeEntry();
+                    out.setLevel(Deflater.DEFAULT_COMPRESSION);
+                }
+            }
+
             out.putNextEntry(new ZipEntry("pool.txt"));
             try {
                 pool.save(out);
             } finally {
                 out.closeEntry();
             }
+
+            out.putNextEntry(new ZipEntry(SNAPSHOT_ENTRY));
+            try {
+                out.write(token.getBytes("UTF-8"));
+            } finally {
+                out.closeEntry();
+            }
         } finally {
             out.close();
         }
     }
 
+    static protected boolean useBinaryRows() {
+        Object v = ProjectManager.singleton == null ? null :
+            ProjectManager.singleton.getPreferenceStore().get(STORAGE_FORMAT_PREFERENCE);
+        return v == null || !"text".equals(v.toString());
+    }
+
+    static protected boolean useLazyLoading() {
+        return ProjectManager.singleton != null &&
+            ProjectManager.singleton.getPreferenceStore().getBooleanPreference(LazyRowList.LAZY_LOADING_PREFERENCE, false);
+    }
+
+    static protected int getMaxHotChunks() {
+        return ProjectManager.singleton == null ? LazyRowList.DEFAULT_HOT_CHUNKS :
+            ProjectManager.singleton.getPreferenceStore().getIntPreference(
+                    LazyRowList.HOT_CHUNKS_PREFERENCE, LazyRowList.DEFAULT_HOT_CHUNKS);
+    }
+
+    /**
+     * Copies the binary rows of a full save to their own file, which can be
+     * memory-mapped, unless it was done already for this save. The copy is a
+     * hidden file so that it is left out of project exports.
+     */
+    static protected File extractRows(ZipFile zipFile, ZipEntry rowEntry, File dir, String token) throws IOException {
+        String name = ".rows-" + token + ".bin";
+        File file = new File(dir, name);
+        if (file.exists() && file.length() == rowEntry.getSize()) {
+            return file;
+        }
+
+        File[] staleFiles = dir.listFiles((d, n) -> n.startsWith(".rows-") && !n.equals(name));
+        if (staleFiles != null) {
+            for (File staleFile : staleFiles) {
+                staleFile.delete();
+            }
+        }
+
+        File tempFile = new File(dir, name + ".temp");
+        try (InputStream in = zipFile.getInputStream(rowEntry)) {
+            Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
     static public Project load(File dir, long id) {
         try {
             File file = new File(dir, "data.zip");
             if (file.exists()) {
-                return loadFromFile(file, id);
+                return loadWithDelta(dir, file, id);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -124,7 +329,7 @@ public class ProjectUtilities {
         try {
             File file = new File(dir, "data.temp.zip");
             if (file.exists()) {
-                return loadFromFile(file, id);
+                return loadWithDelta(dir, file, id);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -133,7 +338,7 @@ public class ProjectUtilities {
         try {
             File file = new File(dir, "data.old.zip");
             if (file.exists()) {
-                return loadFromFile(file, id);
+                return loadWithDelta(dir, file, id);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -142,6 +347,76 @@ public class ProjectUtilities {
         return null;
     }
 
+    static protected Project loadWithDelta(File dir, File file, long id) throws Exception {
+        Project project = loadFromFile(file, id);
+
+        File deltaFile = new File(dir, "delta.zip");
+        if (deltaFile.exists() && project.getSnapshotToken() != null) {
+            try {
+                loadDelta(project, deltaFile);
+            } catch (Exception e) {
+                logger.warn("Failed to replay changes of project " + id + ", loading its last full save", e);
+                project.dispose();
+                project = loadFromFile(file, id);
+            }
+        }
+        return project;
+    }
+
+    /**
+     * Replays the history entries saved in a delta file on top of the full
+     * save the project was loaded from.
+     *
+     * @param project
+     * @param file
+     * @return false if the delta does not apply to this save of the project
+     * @throws Exception
+     */
+    static protected boolean loadDelta(Project project, File file) throws Exception {
+        ZipFile zipFile = new ZipFile(file);
+        try {
+            LineNumberReader reader = new LineNumberReader(new InputStreamReader(
+                    zipFile.getInputStream(zipFile.getEntry(DELTA_ENTRY)), "UTF-8"));
+
+            /* String version = */ reader.readLine();
+
+            History history = new History(project);
+            String token = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int equal = line.indexOf('=');
+                String field = line.substring(0, equal);
+                String value = line.substring(equal + 1);
+
+                if ("snapshot".equals(field)) {
+                    token = value;
+                } else if ("history".equals(field)) {
+                    history.load(project, reader);
+                }
+            }
+
+            if (!project.getSnapshotToken().equals(token)) {
+                logger.info("Ignoring changes of project {} saved before its last full save", project.id);
+                return false;
+            }
+
+            List<HistoryEntry> entries = history.getPastEntriesSince(project.getSnapshotEntryID());
+            if (entries == null) {
+                throw new IOException("Saved changes do not follow the last full save");
+            }
+            for (HistoryEntry entry : entries) {
+                entry.apply(project);
+            }
+            project.history.replaceEntries(history);
+            project.update();
+
+            logger.info("Replayed {} change(s) on project {}", entries.size(), project.id);
+            return true;
+        } finally {
+            zipFile.close();
+        }
+    }
+
     static protected Project loadFromFile(
             File file,
             long id
@@ -154,11 +429,39 @@ public class ProjectUtilities {
                 pool.load(zipFile.getInputStream(poolEntry));
             } // else, it's a legacy project file
 
-            return Project.loadFromInputStream(
+            String token = null;
+            ZipEntry snapshotEntry = zipFile.getEntry(SNAPSHOT_ENTRY);
+            if (snapshotEntry != null) {
+                LineNumberReader reader = new LineNumberReader(new InputStreamReader(
+                        zipFile.getInputStream(snapshotEntry), "UTF-8"));
+                token = reader.readLine();
+            }
+
+            // projects saved in the text format have their rows in data.txt
+            List<Row> rows = null;
+            ZipEntry rowEntry = zipFile.getEntry(BinaryRowFormat.ENTRY_NAME);
+            if (rowEntry != null) {
+                if (token != null && useLazyLoading()) {
+                    rows = new LazyRowList(extractRows(zipFile, rowEntry, file.getParentFile(), token),
+                            pool, getMaxHotChunks());
+                } else {
+                    rows = new ArrayList<Row>();
+                    BinaryRowFormat.readRows(
+                            new BufferedInputStream(zipFile.getInputStream(rowEntry), 64 * 1024), pool, rows);
+                }
+            }
+
+            Project project = Project.loadFromInputStream(
                     zipFile.getInputStream(zipFile.getEntry("data.txt")),
                     id,
-                    pool
+                    pool,
+                    rows
             );
+
+            if (token != null) {
+                project.setSnapshot(token, getLastEntryID(project));
+            }
+            return project;
         } finally {
             zipFile.close();
         }
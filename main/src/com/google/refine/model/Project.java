@@ -33,6 +33,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.model;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -56,6 +57,8 @@ import com.google.refine.ProjectManager;
 import com.google.refine.ProjectMetadata;
 import com.google.refine.RefineServlet;
 import com.google.refine.history.History;
+import com.google.refine.io.BinaryRowFormat;
+import com.google.refine.io.LazyRowList;
 import com.google.refine.process.ProcessManager;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.Pool;
@@ -65,14 +68,17 @@ public class Project {
         s_overlayModelClasses = new HashMap<String, Class<? extends OverlayModel>>();
     
     final public long                       id;
-    final public List<Row>                  rows = new ArrayList<Row>();
+    final public List<Row>                  rows;
     final public ColumnModel                columnModel = new ColumnModel();
     final public RecordModel                recordModel = new RecordModel();
     final public Map<String, OverlayModel>  overlayModels = new HashMap<String, OverlayModel>();
     final public History                    history;
     
-    transient public ProcessManager processManager = new ProcessManager();
+    transient public ProcessManager processManager;
     transient private LocalDateTime _lastSave = LocalDateTime.now();
+    // identifies the last full save of the project, which delta saves build upon
+    transient private String _snapshotToken;
+    transient private long _snapshotEntryID;
 
     final static Logger logger = LoggerFactory.getLogger("project");
 
@@ -82,12 +88,20 @@ public class Project {
 
     public Project() {
         id = generateID();
+        rows = new ArrayList<Row>();
         history = new History(this);
+        processManager = new ProcessManager(id);
     }
 
     protected Project(long id) {
+        this(id, new ArrayList<Row>());
+    }
+
+    protected Project(long id, List<Row> rows) {
         this.id = id;
+        this.rows = rows;
         this.history = new History(this);
+        this.processManager = new ProcessManager(id);
     }
     
     static public void registerOverlayModel(String modelName, Class<? extends OverlayModel> klass) {
@@ -105,7 +119,19 @@ public class Project {
                 logger.warn("Error signaling overlay model before disposing", e);
             }
         }
+        ProjectManager.singleton.getLookupCacheManager().saveLookups(this);
         ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProject(this.id);
+        ProjectManager.singleton.getFilteredRowIndexCache().flushProject(this.id);
+        ProjectManager.singleton.getSortedRowIndexCache().flushProject(this.id);
+        ProjectManager.singleton.getFacetStateCache().flushProject(this.id);
+        ProjectManager.singleton.getValueCountIndexCache().flushProject(this.id);
+        if (rows instanceof Closeable) {
+            try {
+                ((Closeable) rows).close();
+            } catch (IOException e) {
+                logger.warn("Error releasing rows of project", e);
+            }
+        }
         // The rest of the project should get garbage collected when we return.
     }
 
@@ -119,11 +145,57 @@ public class Project {
         this._lastSave = LocalDateTime.now();
     }
 
+    /**
+     * @return a token identifying the last full save of the project, or null
+     *      if the project was never fully saved in this session
+     */
+    public String getSnapshotToken() {
+        return _snapshotToken;
+    }
+
+    /**
+     * @return the id of the last history entry applied when the project was
+     *      last fully saved
+     */
+    public long getSnapshotEntryID() {
+        return _snapshotEntryID;
+    }
+
+    public void setSnapshot(String token, long entryID) {
+        _snapshotToken = token;
+        _snapshotEntryID = entryID;
+    }
+
+    /**
+     * Loads all rows in memory if they are read on demand, as changes
+     * modify rows in place.
+     *
+     * @throws IOException
+     *      if the rows could not be read
+     */
+    public void ensureRowsLoaded() throws IOException {
+        if (rows instanceof LazyRowList) {
+            ((LazyRowList) rows).load();
+        }
+    }
+
     public ProjectMetadata getMetadata() {
         return ProjectManager.singleton.getProjectMetadata(id);
     }
 
     public void saveToOutputStream(OutputStream out, Pool pool) throws IOException {
+        saveToOutputStream(out, pool, true);
+    }
+
+    /**
+     * @param out
+     * @param pool
+     * @param includeRows
+     *      false to leave the rows out, when they are saved separately with
+     *      {@link BinaryRowFormat#writeRows}
+     * @throws IOException
+     */
+    public void saveToOutputStream(OutputStream out, Pool pool, boolean includeRows) throws IOException {
         for (OverlayModel overlayModel : overlayModels.values()) {
             try {
                 overlayModel.onBeforeSave(this);
@@ -137,6 +209,9 @@ public class Project {
             Properties options = new Properties();
             options.setProperty("mode", "save");
             options.put("pool", pool);
+            if (!includeRows) {
+                options.setProperty("rowFormat", BinaryRowFormat.FORMAT_NAME);
+            }
 
             saveToWriter(writer, options);
         } finally {
@@ -167,6 +242,11 @@ public class Project {
             writer.write('\n');
         }
         
+        if (options.containsKey("rowFormat")) {
+            writer.write("rowFormat="); writer.write(options.getProperty("rowFormat")); writer.write('\n');
+            return;
+        }
+
         writer.write("rowCount="); writer.write(Integer.toString(rows.size())); writer.write('\n');
         for (Row row : rows) {
             row.save(writer, options); writer.write('\n');
@@ -174,20 +254,35 @@ public class Project {
     }
     
     static public Project loadFromInputStream(InputStream is, long id, Pool pool) throws Exception {
-        return loadFromReader(new LineNumberReader(new InputStreamReader(is, "UTF-8")), id, pool);
+        return loadFromInputStream(is, id, pool, null);
+    }
+
+    /**
+     * @param is
+     * @param id
+     * @param pool
+     * @param rows
+     *      the rows of the project, read with {@link BinaryRowFormat}, if
+     *      the project was saved without its rows, or null
+     * @return the loaded project
+     * @throws Exception
+     */
+    static public Project loadFromInputStream(InputStream is, long id, Pool pool, List<Row> rows) throws Exception {
+        return loadFromReader(new LineNumberReader(new InputStreamReader(is, "UTF-8")), id, pool, rows);
     }
     
     static private Project loadFromReader(
         LineNumberReader reader,
         long id,
-        Pool pool
+        Pool pool,
+        List<Row> rows
     ) throws Exception {
         long start = System.currentTimeMillis();
         
         // version of Refine which wrote the file
         /* String version = */ reader.readLine();
         
-        Project project = new Project(id);
+        Project project = rows == null ? new Project(id) : new Project(id, rows);
         int maxCellCount = 0;
         
         ObjectMapper mapper = ParsingUtilities.mapper.copy();
@@ -220,6 +315,11 @@ public class Project {
                         maxCellCount = Math.max(maxCellCount, row.cells.size());
                     }
                 }
+            } else if ("rowFormat".equals(field)) {
+                // the maximum cell index saved in the column model accounts for these rows
+                if (!BinaryRowFormat.FORMAT_NAME.equals(value) || rows == null) {
+                    throw new IOException("Missing rows in format " + value);
+                }
             } else if (field.startsWith("overlayModel:")) {
                 String modelName = field.substring("overlayModel:".length());
                 if (s_overlayModelClasses.containsKey(modelName)) {
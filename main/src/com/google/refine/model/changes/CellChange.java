@@ -36,16 +36,17 @@ package com.google.refine.model.changes;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 import com.google.refine.ProjectManager;
-import com.google.refine.history.Change;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.util.Pool;
 
-public class CellChange implements Change {
+public class CellChange implements CellLevelChange {
     final public int     row;
     final public int     cellIndex;
     final public Cell    oldCell;
@@ -64,7 +65,7 @@ public class CellChange implements Change {
         
         Column column = project.columnModel.getColumnByCellIndex(cellIndex);
         column.clearPrecomputes();
-        ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, column.getName());
+        ProjectManager.singleton.getLookupCacheManager().updateLookups(project.id, getCellChanges(), false);
     }
 
     @Override
@@ -73,7 +74,12 @@ public class CellChange implements Change {
         
         Column column = project.columnModel.getColumnByCellIndex(cellIndex);
         column.clearPrecomputes();
-        ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, column.getName());
+        ProjectManager.singleton.getLookupCacheManager().updateLookups(project.id, getCellChanges(), true);
+    }
+    
+    @Override
+    public List<CellChange> getCellChanges() {
+        return Collections.singletonList(this);
     }
     
     @Override
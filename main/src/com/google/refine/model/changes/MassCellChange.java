@@ -36,6 +36,7 @@ package com.google.refine.model.changes;
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.Writer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 
@@ -46,7 +47,7 @@ import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.util.Pool;
 
-public class MassCellChange implements Change {
+public class MassCellChange implements CellLevelChange {
     final protected CellChange[]  _cellChanges;
     final protected String        _commonColumnName;
     final protected boolean       _updateRowContextDependencies;
@@ -94,8 +95,8 @@ public class MassCellChange implements Change {
             if (_commonColumnName != null) {
                 Column column = project.columnModel.getColumnByName(_commonColumnName);
                 column.clearPrecomputes();
-                ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, _commonColumnName);
             }
+            ProjectManager.singleton.getLookupCacheManager().updateLookups(project.id, getCellChanges(), false);
             
             if (_updateRowContextDependencies) {
                 project.update();
@@ -115,8 +116,8 @@ public class MassCellChange implements Change {
             if (_commonColumnName != null) {
                 Column column = project.columnModel.getColumnByName(_commonColumnName);
                 column.clearPrecomputes();
-                ProjectManager.singleton.getLookupCacheManager().flushLookupsInvolvingProjectColumn(project.id, _commonColumnName);
             }
+            ProjectManager.singleton.getLookupCacheManager().updateLookups(project.id, getCellChanges(), true);
             
             if (_updateRowContextDependencies) {
                 project.update();
@@ -124,6 +125,11 @@ public class MassCellChange implements Change {
         }
     }
     
+    @Override
+    public List<CellChange> getCellChanges() {
+        return Arrays.asList(_cellChanges);
+    }
+    
     @Override
     public void save(Writer writer, Properties options) throws IOException {
         if (_commonColumnName != null) {
@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.model.recon;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.refine.util.ResponseCache;
+
+/**
+ * Remembers the responses of reconciliation services to individual queries,
+ * so that reconciling the same values against the same service again, in
+ * the same project or in another one, does not query the service again.
+ *
+ * Responses are keyed by service URL and query JSON.
+ */
+public class ReconResponseCache extends ResponseCache {
+    /**
+     * Maximum size of the cached responses, in megabytes.
+     */
+    public static final String MAX_SIZE_PREFERENCE = "reconciliation.cache.maxSize";
+    public static final long DEFAULT_MAX_SIZE = 64;
+    /**
+     * Number of days responses are used for. Zero disables the cache.
+     */
+    public static final String TTL_PREFERENCE = "reconciliation.cache.ttlDays";
+    public static final long DEFAULT_TTL = 7;
+
+    static final protected String FILE_NAME = "reconciliation-cache.bin";
+
+    public ReconResponseCache() {
+        super(FILE_NAME, MAX_SIZE_PREFERENCE, DEFAULT_MAX_SIZE, TTL_PREFERENCE, DEFAULT_TTL, TimeUnit.DAYS);
+    }
+
+    /**
+     * @param service
+     *      the URL of the reconciliation service
+     * @param query
+     *      the JSON of the query sent to the service
+     * @return the response of the service to the query, or null if it is not
+     *      cached or has expired
+     */
+    public String get(String service, String query) {
+        return get(getKey(service, query));
+    }
+
+    public void put(String service, String query, String response) {
+        put(getKey(service, query), response);
+    }
+
+    static protected String getKey(String service, String query) {
+        return service + "\n" + query;
+    }
+}
@@ -57,6 +57,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.refine.ProjectManager;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
@@ -127,6 +128,11 @@ public class StandardReconConfig extends ReconConfig {
             return code.hashCode();
         }
 
+        @Override
+        public String getStringKey() {
+            return code;
+        }
+
         @Override
         public String toString() {
             return code;
@@ -429,7 +435,8 @@ public class StandardReconConfig extends ReconConfig {
         return job;
     }
     
-    private HttpClient getHttpClient() {
+    // batches may be sent from several threads
+    private synchronized HttpClient getHttpClient() {
         if (httpClient == null) {
             httpClient = new HttpClient();
         }
@@ -448,16 +455,39 @@ public class StandardReconConfig extends ReconConfig {
     @Override
     public List<Recon> batchRecon(List<ReconJob> jobs, long historyEntryID) {
         List<Recon> recons = new ArrayList<Recon>(jobs.size());
+        ReconResponseCache cache = ProjectManager.singleton == null ? null :
+            ProjectManager.singleton.getReconResponseCache();
+        
+        // answer the jobs we have responses for, and only send the others
+        List<Integer> sent = new ArrayList<Integer>(jobs.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            StandardReconJob job = (StandardReconJob) jobs.get(i);
+            String cached = cache == null ? null : cache.get(service, job.code);
+            Recon recon = null;
+            if (cached != null) {
+                ObjectNode o2 = ParsingUtilities.evaluateJsonStringToObjectNode(cached);
+                if (o2 != null) {
+                    recon = createRecon(job, o2, historyEntryID);
+                }
+            }
+            if (recon == null) {
+                sent.add(i);
+            }
+            recons.add(recon);
+        }
+        if (sent.isEmpty()) {
+            return recons;
+        }
         
         StringWriter stringWriter = new StringWriter();
         
         stringWriter.write("{");
-        for (int i = 0; i < jobs.size(); i++) {
-            StandardReconJob job = (StandardReconJob) jobs.get(i);
-            if (i > 0) {
+        for (int k = 0; k < sent.size(); k++) {
+            StandardReconJob job = (StandardReconJob) jobs.get(sent.get(k));
+            if (k > 0) {
                 stringWriter.write(",");
             }
-            stringWriter.write("\"q" + i + "\":");
+            stringWriter.write("\"q" + k + "\":");
             stringWriter.write(job.code);
         }
         stringWriter.write("}");
@@ -470,31 +500,23 @@ public class StandardReconConfig extends ReconConfig {
             if (o == null) { // utility method returns null instead of throwing
                 logger.error("Failed to parse string as JSON: " + responseString);
             } else {
-                for (int i = 0; i < jobs.size(); i++) {
-                    StandardReconJob job = (StandardReconJob) jobs.get(i);
+                for (int k = 0; k < sent.size(); k++) {
+                    StandardReconJob job = (StandardReconJob) jobs.get(sent.get(k));
                     Recon recon = null;
 
-                    String text = job.text;
-                    String key = "q" + i;
+                    String key = "q" + k;
                     if (o.has(key) && o.get(key) instanceof ObjectNode) {
                         ObjectNode o2 = (ObjectNode) o.get(key);
-                        if (o2.has("result") && o2.get("result") instanceof ArrayNode) {
-                            ArrayNode results = (ArrayNode) o2.get("result");
-
-                            recon = createReconServiceResults(text, results, historyEntryID);
-                        } else {
-                            // TODO: better error reporting
-                            logger.warn("Service error for text: " + text + "\n  Job code: " + job.code + "\n  Response: " + o2.toString());
+                        recon = createRecon(job, o2, historyEntryID);
+                        if (recon != null && cache != null) {
+                            cache.put(service, job.code, o2.toString());
                         }
                     } else {
                         // TODO: better error reporting
-                        logger.warn("Service error for text: " + text + "\n  Job code: " + job.code);
+                        logger.warn("Service error for text: " + job.text + "\n  Job code: " + job.code);
                     }
 
-                    if (recon != null) {
-                        recon.service = service;
-                    }
-                    recons.add(recon);
+                    recons.set(sent.get(k), recon);
                 }
             }
         } catch (IOException e) {
@@ -502,18 +524,40 @@ public class StandardReconConfig extends ReconConfig {
         }
 
         // TODO: This code prevents the retry mechanism in ReconOperation from working
-        while (recons.size() < jobs.size()) {
-            Recon recon = new Recon(historyEntryID, identifierSpace, schemaSpace);
-            recon.service = service;
-            recon.identifierSpace = identifierSpace;
-            recon.schemaSpace = schemaSpace;
-
-            recons.add(recon);
+        for (int i = 0; i < recons.size(); i++) {
+            if (recons.get(i) == null) {
+                Recon recon = new Recon(historyEntryID, identifierSpace, schemaSpace);
+                recon.service = service;
+                recon.identifierSpace = identifierSpace;
+                recon.schemaSpace = schemaSpace;
+
+                recons.set(i, recon);
+            }
         }
         
         return recons;
     }
 
+    /**
+     * @param job
+     * @param o2
+     *      the response of the service to the query of the job
+     * @return the recon built from the response, or null if the service returned an error
+     */
+    protected Recon createRecon(StandardReconJob job, ObjectNode o2, long historyEntryID) {
+        if (o2.has("result") && o2.get("result") instanceof ArrayNode) {
+            ArrayNode results = (ArrayNode) o2.get("result");
+
+            Recon recon = createReconServiceResults(job.text, results, historyEntryID);
+            recon.service = service;
+            return recon;
+        } else {
+            // TODO: better error reporting
+            logger.warn("Service error for text: " + job.text + "\n  Job code: " + job.code + "\n  Response: " + o2.toString());
+            return null;
+        }
+    }
+
     @Override
     public Recon createNewRecon(long historyEntryID) {
         Recon recon = new Recon(historyEntryID, identifierSpace, schemaSpace);
@@ -42,10 +42,12 @@ import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
 import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.util.ParallelRowScanner;
 import com.google.refine.history.Change;
 import com.google.refine.history.HistoryEntry;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
+import com.google.refine.model.Row;
 import com.google.refine.model.changes.CellChange;
 import com.google.refine.model.changes.MassCellChange;
 
@@ -71,13 +73,18 @@ abstract public class EngineDependentMassCellOperation extends EngineDependentOp
             throw new Exception("No column named " + _columnName);
         }
         
-        List<CellChange> cellChanges = new ArrayList<CellChange>(project.rows.size());
+        List<CellChange> cellChanges;
         
         FilteredRows filteredRows = engine.getAllFilteredRows();
-        try {
-            filteredRows.accept(project, createRowVisitor(project, cellChanges, historyEntryID));
-        } catch (Exception e) {
-            e.printStackTrace();
+        if (supportsParallelEvaluation(project)) {
+            cellChanges = computeCellChangesInParallel(project, filteredRows, historyEntryID);
+        } else {
+            cellChanges = new ArrayList<CellChange>(project.rows.size());
+            try {
+                filteredRows.accept(project, createRowVisitor(project, cellChanges, historyEntryID));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
         }
         
         String description = createDescription(column, cellChanges);
@@ -86,6 +93,36 @@ abstract public class EngineDependentMassCellOperation extends EngineDependentOp
             historyEntryID, project, description, this, createChange(project, column, cellChanges));
     }
     
+    /**
+     * Visits the filtered rows in chunks, in parallel if configured so, each
+     * chunk with its own row visitor. The cell changes of all chunks are
+     * concatenated in row order, so they are the same as with a single visitor.
+     */
+    protected List<CellChange> computeCellChangesInParallel(
+            Project project, FilteredRows filteredRows, long historyEntryID) {
+        try {
+            return ParallelRowScanner.scan(
+                    project,
+                    filteredRows,
+                    () -> new CellChangeCollector(project, historyEntryID),
+                    (collector, other) -> collector.cellChanges.addAll(other.cellChanges)).cellChanges;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return new ArrayList<CellChange>();
+        }
+    }
+    
+    /**
+     * Operations whose row visitors do not depend on the rows visited before
+     * can have the rows visited concurrently by several visitors.
+     * 
+     * @param project
+     * @return true if the rows can be visited in parallel
+     */
+    protected boolean supportsParallelEvaluation(Project project) {
+        return false;
+    }
+    
     protected Change createChange(Project project, Column column, List<CellChange> cellChanges) {
         return new MassCellChange(
             cellChanges, column.getName(), _updateRowContextDependencies);
@@ -96,6 +133,38 @@ abstract public class EngineDependentMassCellOperation extends EngineDependentOp
         return _columnName;
     }
     
+    /**
+     * Collects the cell changes of the row visitor of this operation for a
+     * chunk of rows.
+     */
+    protected class CellChangeCollector implements RowVisitor {
+        final protected List<CellChange> cellChanges = new ArrayList<CellChange>();
+        final protected RowVisitor visitor;
+        
+        protected CellChangeCollector(Project project, long historyEntryID) {
+            try {
+                visitor = createRowVisitor(project, cellChanges, historyEntryID);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        
+        @Override
+        public void start(Project project) {
+            visitor.start(project);
+        }
+        
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            return visitor.visit(project, rowIndex, row);
+        }
+        
+        @Override
+        public void end(Project project) {
+            visitor.end(project);
+        }
+    }
+    
     abstract protected RowVisitor createRowVisitor(Project project, List<CellChange> cellChanges, long historyEntryID) throws Exception;
     abstract protected String createDescription(Column column, List<CellChange> cellChanges);
 }
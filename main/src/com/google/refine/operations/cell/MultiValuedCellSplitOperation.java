@@ -50,6 +50,7 @@ import com.google.refine.model.Column;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.model.changes.MassRowChange;
+import com.google.refine.util.PatternCache;
 
 public class MultiValuedCellSplitOperation extends AbstractOperation {
     final protected String  _columnName;
@@ -202,7 +203,7 @@ public class MultiValuedCellSplitOperation extends AbstractOperation {
                     }
                 }
             } else if (_regex) {
-                Pattern pattern = Pattern.compile(_separator, Pattern.UNICODE_CHARACTER_CLASS);
+                Pattern pattern = PatternCache.compile(_separator, Pattern.UNICODE_CHARACTER_CLASS);
                 values = pattern.split(s);
             } else {
                 values = StringUtils.splitByWholeSeparatorPreserveAllTokens(s, _separator);
@@ -44,6 +44,7 @@ import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.Evaluable;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
+import com.google.refine.expr.RowBatch;
 import com.google.refine.expr.WrappedCell;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
@@ -117,6 +118,12 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
             " cells in column " + column.getName() + ": " + _expression;
     }
 
+    @Override
+    protected boolean supportsParallelEvaluation(Project project) {
+        // expressions of other languages would be evaluated one at a time anyway
+        return MetaParser.isThreadSafe(_expression);
+    }
+
     @Override
     protected RowVisitor createRowVisitor(Project project, List<CellChange> cellChanges, long historyEntryID) throws Exception {
         Column column = project.columnModel.getColumnByName(_columnName);
@@ -129,12 +136,16 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
             Properties             bindings;
             List<CellChange>     cellChanges;
             Evaluable             eval;
+            RowBatch             batch;
+            Object[]             results;
             
             public RowVisitor init(int cellIndex, Properties bindings, List<CellChange> cellChanges, Evaluable eval) {
                 this.cellIndex = cellIndex;
                 this.bindings = bindings;
                 this.cellChanges = cellChanges;
                 this.eval = eval;
+                this.batch = new RowBatch(bindings, _columnName, cellIndex, RowBatch.DEFAULT_CAPACITY);
+                this.results = new Object[batch.getCapacity()];
                 return this;
             }
             
@@ -145,19 +156,31 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
 
             @Override
             public void end(Project project) {
-                // nothing to do
+                flush();
             }
 
             @Override
             public boolean visit(Project project, int rowIndex, Row row) {
-                Cell cell = row.getCell(cellIndex);
+                if (batch.add(rowIndex, row)) {
+                    flush();
+                }
+                return false;
+            }
+
+            protected void flush() {
+                batch.evaluate(eval, results);
+                for (int i = 0; i < batch.size(); i++) {
+                    transformCell(batch.getRowIndex(i), batch.getRow(i), batch.getCell(i), results[i]);
+                    results[i] = null;
+                }
+                batch.clear();
+            }
+
+            protected void transformCell(int rowIndex, Row row, Cell cell, Object o) {
                 Cell newCell = null;
 
                 Object oldValue = cell != null ? cell.value : null;
 
-                ExpressionUtils.bind(bindings, row, rowIndex, _columnName, cell);
-
-                Object o = eval.evaluate(bindings);
                 if (o == null) {
                     if (oldValue != null) {
                         CellChange cellChange = new CellChange(rowIndex, cellIndex, cell, null);
@@ -172,7 +195,7 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
                         Serializable newValue = ExpressionUtils.wrapStorable(o);
                         if (ExpressionUtils.isError(newValue)) {
                             if (_onError == OnError.KeepOriginal) {
-                                return false;
+                                return;
                             } else if (_onError == OnError.SetToBlank) {
                                 newValue = null;
                             }
@@ -203,8 +226,6 @@ public class TextTransformOperation extends EngineDependentMassCellOperation {
                         cellChanges.add(cellChange);
                     }
                 }
-                
-                return false;
             }
         }.init(column.getCellIndex(), bindings, cellChanges, eval);
     }
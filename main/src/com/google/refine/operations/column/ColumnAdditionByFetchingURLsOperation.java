@@ -37,20 +37,30 @@ import static com.google.common.base.Strings.isNullOrEmpty;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.message.BasicHeader;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.RateLimiter;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
@@ -61,6 +71,7 @@ import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.expr.MetaParser;
 import com.google.refine.expr.WrappedCell;
 import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.AbstractOperation;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
@@ -69,12 +80,24 @@ import com.google.refine.model.changes.CellAtRow;
 import com.google.refine.model.changes.ColumnAdditionChange;
 import com.google.refine.operations.EngineDependentOperation;
 import com.google.refine.operations.OnError;
-import com.google.refine.process.LongRunningProcess;
 import com.google.refine.process.Process;
+import com.google.refine.process.ResumableProcess;
 import com.google.refine.util.HttpClient;
+import com.google.refine.util.ParsingUtilities;
+import com.google.refine.util.UrlResponseCache;
 
 
 public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperation {
+    /**
+     * Number of URLs fetched at the same time.
+     */
+    public static final String CONCURRENT_REQUESTS_PREFERENCE = "fetching.concurrentRequests";
+    /**
+     * Number of URLs of the same host fetched at the same time.
+     */
+    public static final String CONCURRENT_REQUESTS_PER_HOST_PREFERENCE = "fetching.concurrentRequestsPerHost";
+    public static final int DEFAULT_CONCURRENT_REQUESTS_PER_HOST = 4;
+
     public static final class HttpHeader  {
         @JsonProperty("name")
         final public String name;
@@ -148,7 +171,8 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
             }
         }
         httpHeaders = headers.toArray(httpHeaders);
-        _httpClient = new HttpClient(_delay);
+        // requests are spaced by the fetching process, per host
+        _httpClient = new HttpClient(_delay, false);
 
     }
 
@@ -208,6 +232,36 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
     }
 
 
+    static protected int getIntPreference(String key, int defaultValue) {
+        return ProjectManager.singleton == null ? defaultValue :
+            ProjectManager.singleton.getPreferenceStore().getIntPreference(key, defaultValue);
+    }
+
+    /**
+     * Limits the requests sent to a host: how many can be in flight at once,
+     * and how often they can start, which is once per delay of the operation.
+     */
+    static protected class HostThrottle {
+        final protected Semaphore   _semaphore;
+        final protected RateLimiter _rateLimiter;
+
+        public HostThrottle(int maxConcurrentRequests, int delay) {
+            _semaphore = new Semaphore(Math.max(1, maxConcurrentRequests));
+            _rateLimiter = delay > 0 ? RateLimiter.create(1000.0 / delay) : null;
+        }
+
+        public void acquire() throws InterruptedException {
+            _semaphore.acquire();
+            if (_rateLimiter != null) {
+                _rateLimiter.acquire();
+            }
+        }
+
+        public void release() {
+            _semaphore.release();
+        }
+    }
+
     @Override
     public Process createProcess(Project project, Properties options) throws Exception {
         Engine engine = createEngine(project);
@@ -224,13 +278,17 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
         );
     }
 
-    public class ColumnAdditionByFetchingURLsProcess extends LongRunningProcess implements Runnable {
+    public class ColumnAdditionByFetchingURLsProcess extends ResumableProcess implements Runnable {
         final protected Project       _project;
         final protected Engine        _engine;
         final protected Evaluable     _eval;
         final protected long          _historyEntryID;
         protected int                 _cellIndex;
-        protected LoadingCache<String, Serializable> _urlCache;
+        protected UrlResponseCache    _urlCache;
+        final protected Map<String, HostThrottle> _throttles = new HashMap<>();
+        protected List<CellAtRow>     _urls;
+        protected Serializable[]      _responses;
+        protected boolean[]           _fetched;
 
         public ColumnAdditionByFetchingURLsProcess(
             Project project,
@@ -239,27 +297,14 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
             String description,
             boolean cacheResponses
         ) {
-            super(description);
+            super(description, project);
             _project = project;
             _engine = engine;
             _eval = eval;
             _historyEntryID = HistoryEntry.allocateID();
             _urlCache = null;
-            if (cacheResponses) {
-                _urlCache = CacheBuilder.newBuilder()
-                .maximumSize(2048)
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                .build(
-                     new CacheLoader<String, Serializable>() {
-                        public Serializable load(String urlString) throws Exception {
-                            Serializable result = fetch(urlString, httpHeaders);
-                            if (result == null) {
-                                // the load method should not return any null value
-                                throw new Exception("null result returned by fetch");
-                            }
-                            return result;
-                        }
-                        });
+            if (cacheResponses && ProjectManager.singleton != null) {
+                _urlCache = ProjectManager.singleton.getUrlResponseCache();
             }
         }
         
@@ -268,14 +313,57 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
             return this;
         }
 
+        @Override
+        protected AbstractOperation getOperation() {
+            return ColumnAdditionByFetchingURLsOperation.this;
+        }
+
+        @Override
+        protected JsonNode getPartialResults() {
+            ObjectNode responses = ParsingUtilities.mapper.createObjectNode();
+            for (int i = 0; i < _fetched.length; i++) {
+                // errors are fetched again when resuming
+                if (_fetched[i] && _responses[i] instanceof String) {
+                    ObjectNode response = ParsingUtilities.mapper.createObjectNode();
+                    response.put("url", _urls.get(i).cell.value.toString());
+                    response.put("body", (String) _responses[i]);
+                    responses.set(Integer.toString(_urls.get(i).row), response);
+                }
+            }
+            ObjectNode results = ParsingUtilities.mapper.createObjectNode();
+            results.set("responses", responses);
+            return results;
+        }
+
+        /**
+         * Takes the responses saved by the checkpoint the process resumes from,
+         * for the rows whose URL did not change.
+         */
+        protected void restoreResponses() {
+            JsonNode results = getRestoredResults();
+            if (results == null || !results.has("responses")) {
+                return;
+            }
+            JsonNode responses = results.get("responses");
+            for (int i = 0; i < _urls.size(); i++) {
+                JsonNode response = responses.get(Integer.toString(_urls.get(i).row));
+                if (response != null && _urls.get(i).cell.value.toString().equals(response.path("url").asText())) {
+                    _responses[i] = response.path("body").asText();
+                    _fetched[i] = true;
+                }
+            }
+        }
+
         @Override
         public void run() {
             Column column = _project.columnModel.getColumnByName(_baseColumnName);
             if (column == null) {
+                discardCheckpoint();
                 _project.processManager.onFailedProcess(this, new Exception("No column named " + _baseColumnName));
                 return;
             }
             if (_project.columnModel.getColumnByName(_newColumnName) != null) {
+                discardCheckpoint();
                 _project.processManager.onFailedProcess(this, new Exception("Another column already named " + _newColumnName));
                 return;
             }
@@ -286,34 +374,67 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
             filteredRows.accept(_project, createRowVisitor(urls));
 
             int count = urls.size();
-            List<CellAtRow> responseBodies = new ArrayList<CellAtRow>(count);
-            int i = 0;
-            for (CellAtRow urlData : urls) {
-                String urlString = urlData.cell.value.toString();
-
-                Serializable response = null;
-                if (_urlCache != null) {
-                    response = cachedFetch(urlString);
-                } else {
-                    response = fetch(urlString, httpHeaders);
+            _urls = urls;
+            _responses = new Serializable[count];
+            _fetched = new boolean[count];
+            restoreResponses();
+
+            int maxInFlight = Math.max(1, getIntPreference(CONCURRENT_REQUESTS_PREFERENCE, 1));
+            int submitted = 0;
+            int inFlight = 0;
+            int done = 0;
+
+            ExecutorService executor = Executors.newFixedThreadPool(maxInFlight);
+            CompletionService<Integer> completionService = new ExecutorCompletionService<Integer>(executor);
+            try {
+                while (done < count && !_canceled) {
+                    // only queue a few URLs ahead, so that cancelling does not wait for the others
+                    while (submitted < count && inFlight < 2 * maxInFlight) {
+                        final int i = submitted++;
+                        if (_fetched[i]) {
+                            done++;
+                            continue;
+                        }
+                        completionService.submit(() -> {
+                            String urlString = urls.get(i).cell.value.toString();
+                            _responses[i] = _urlCache != null ? cachedFetch(urlString) : fetch(urlString, httpHeaders);
+                            return i;
+                        });
+                        inFlight++;
+                    }
+                    if (inFlight == 0) {
+                        continue;
+                    }
+
+                    try {
+                        _fetched[completionService.take().get()] = true;
+                    } catch (InterruptedException e) {
+                        continue;
+                    } catch (ExecutionException e) {
+                        throw new RuntimeException(e.getCause());
+                    }
+                    inFlight--;
+                    done++;
+                    _progress = done * 100 / count;
+                    checkpoint();
                 }
+            } finally {
+                executor.shutdownNow();
+            }
 
-                if (response != null) {
+            List<CellAtRow> responseBodies = new ArrayList<CellAtRow>(count);
+            for (int i = 0; i < count; i++) {
+                if (_fetched[i] && _responses[i] != null) {
                     CellAtRow cellAtRow = new CellAtRow(
-                            urlData.row,
-                            new Cell(response, null));
+                            urls.get(i).row,
+                            new Cell(_responses[i], null));
 
                     responseBodies.add(cellAtRow);
                 }
-
-                _progress = i++ * 100 / count;
-
-                if (_canceled) {
-                    break;
-                }
             }
 
-            if (!_canceled) {
+            discardCheckpoint();
+            if (!_canceled || (keepsPartialResults() && !responseBodies.isEmpty())) {
                 HistoryEntry historyEntry = new HistoryEntry(
                     _historyEntryID,
                     _project,
@@ -331,14 +452,26 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
         }
 
         Serializable cachedFetch(String urlString) {
-            try {
-                return  _urlCache.get(urlString);
-            } catch(Exception e) {
-                return null;
+            String cached = _urlCache.get(urlString, httpHeaders);
+            if (cached != null) {
+                return cached;
             }
+            Serializable response = fetch(urlString, httpHeaders);
+            // errors are not cached, so that they are retried next time
+            if (response instanceof String) {
+                _urlCache.put(urlString, httpHeaders, (String) response);
+            }
+            return response;
         }
 
         Serializable fetch(String urlString, Header[] headers) {
+            HostThrottle throttle = getThrottle(urlString);
+            try {
+                throttle.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
             try { //HttpClients.createDefault()) {
                 try {
                     return _httpClient.getAsString(urlString, headers);
@@ -347,9 +480,29 @@ public class ColumnAdditionByFetchingURLsOperation extends EngineDependentOperat
                 }
             } catch (Exception e) {
                 return _onError == OnError.StoreError ? new EvalError(e.getMessage()) : null;
+            } finally {
+                throttle.release();
             }
         }
 
+        protected HostThrottle getThrottle(String urlString) {
+            String host;
+            try {
+                host = new URL(urlString).getHost();
+            } catch (MalformedURLException e) {
+                host = "";
+            }
+            synchronized (_throttles) {
+                HostThrottle throttle = _throttles.get(host);
+                if (throttle == null) {
+                    throttle = new HostThrottle(
+                            getIntPreference(CONCURRENT_REQUESTS_PER_HOST_PREFERENCE, DEFAULT_CONCURRENT_REQUESTS_PER_HOST),
+                            _delay);
+                    _throttles.put(host, throttle);
+                }
+                return throttle;
+            }
+        }
 
         RowVisitor createRowVisitor(List<CellAtRow> cellsAtRows) {
             return new RowVisitor() {
@@ -264,7 +264,10 @@ public class ExtendDataOperation extends EngineDependentOperation {
                 }
             }
             
-            if (!_canceled) {
+            if (!_canceled || (keepsPartialResults() && !dataExtensions.isEmpty())) {
+                // when cancelled, only the rows extended so far are changed
+                rowIndices = new ArrayList<Integer>(rowIndices.subList(0, dataExtensions.size()));
+                
                 List<String> columnNames = new ArrayList<String>();
                 for (ColumnInfo info : _job.columns) {
                     columnNames.add(info.name);
@@ -34,11 +34,21 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.operations.recon;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +56,8 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.refine.ProjectManager;
 import com.google.refine.browsing.Engine;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.browsing.FilteredRows;
@@ -53,6 +65,7 @@ import com.google.refine.browsing.RowVisitor;
 import com.google.refine.expr.ExpressionUtils;
 import com.google.refine.history.Change;
 import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.AbstractOperation;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Column;
 import com.google.refine.model.Project;
@@ -64,13 +77,23 @@ import com.google.refine.model.recon.ReconConfig;
 import com.google.refine.model.recon.ReconJob;
 import com.google.refine.model.recon.StandardReconConfig;
 import com.google.refine.operations.EngineDependentOperation;
-import com.google.refine.process.LongRunningProcess;
 import com.google.refine.process.Process;
+import com.google.refine.process.ResumableProcess;
 import com.google.refine.util.ParsingUtilities;
 
 public class ReconOperation extends EngineDependentOperation {
     final static Logger logger = LoggerFactory.getLogger("recon-operation");
     
+    /**
+     * Number of batches sent to the service without waiting for their responses.
+     */
+    public static final String CONCURRENT_BATCHES_PREFERENCE = "reconciliation.concurrentBatches";
+    /**
+     * Number of jobs the batches can grow to when the service answers quickly.
+     * Defaults to the batch size of the reconciliation config.
+     */
+    public static final String MAX_BATCH_SIZE_PREFERENCE = "reconciliation.maxBatchSize";
+    
     final protected String      _columnName;
     final protected ReconConfig _reconConfig;
     
@@ -112,6 +135,61 @@ public class ReconOperation extends EngineDependentOperation {
         return _columnName;
     }
 
+    static protected int getConcurrentBatches() {
+        return Math.max(1, getIntPreference(CONCURRENT_BATCHES_PREFERENCE, 1));
+    }
+    
+    static protected int getMaxBatchSize(ReconConfig reconConfig) {
+        return Math.max(reconConfig.getBatchSize(), getIntPreference(MAX_BATCH_SIZE_PREFERENCE, 0));
+    }
+    
+    static private int getIntPreference(String key, int defaultValue) {
+        return ProjectManager.singleton == null ? defaultValue :
+            ProjectManager.singleton.getPreferenceStore().getIntPreference(key, defaultValue);
+    }
+    
+    /**
+     * Adapts the number of jobs per batch to the time the service takes to
+     * answer: batches grow while responses come back quickly and shrink when
+     * they get slow.
+     */
+    static protected class BatchSizer {
+        /**
+         * Responses faster than half of this let batches grow, responses
+         * slower than twice this make them shrink.
+         */
+        static final public long TARGET_LATENCY = 1000;
+        
+        final protected int _minBatchSize;
+        final protected int _maxBatchSize;
+        protected int _batchSize;
+        
+        public BatchSizer(int batchSize, int maxBatchSize) {
+            _minBatchSize = 1;
+            _maxBatchSize = Math.max(batchSize, maxBatchSize);
+            _batchSize = batchSize;
+        }
+        
+        public synchronized int getBatchSize() {
+            return _batchSize;
+        }
+        
+        /**
+         * @param size
+         *      the number of jobs in the batch
+         * @param latency
+         *      the time the service took to answer, in milliseconds
+         */
+        public synchronized void recordBatch(int size, long latency) {
+            if (latency > 2 * TARGET_LATENCY) {
+                _batchSize = Math.max(_minBatchSize, _batchSize / 2);
+            } else if (latency < TARGET_LATENCY / 2 && size >= _batchSize) {
+                // only full batches tell whether larger ones would be answered in time
+                _batchSize = Math.min(_maxBatchSize, _batchSize + Math.max(1, _batchSize / 2));
+            }
+        }
+    }
+    
     static protected class ReconEntry {
         final public int rowIndex;
         final public Cell cell;
@@ -131,12 +209,16 @@ public class ReconOperation extends EngineDependentOperation {
         }
     }
     
-    public class ReconProcess extends LongRunningProcess implements Runnable {
+    public class ReconProcess extends ResumableProcess implements Runnable {
         final protected Project      _project;
         final protected EngineConfig _engineConfig;
         final protected long         _historyEntryID;
         protected List<ReconEntry>   _entries;
         protected int                _cellIndex;
+        /**
+         * The recons of the jobs done so far, by job key
+         */
+        final protected Map<String, Recon> _doneRecons = new LinkedHashMap<String, Recon>();
         
         protected final String _addJudgmentFacetJson =
                 "{\n" + 
@@ -169,7 +251,7 @@ public class ReconOperation extends EngineDependentOperation {
             EngineConfig engineConfig, 
             String description
         ) {
-            super(description);
+            super(description, project);
             _project = project;
             _engineConfig = engineConfig;
             _historyEntryID = HistoryEntry.allocateID();
@@ -196,6 +278,77 @@ public class ReconOperation extends EngineDependentOperation {
             return this;
         }
         
+        @Override
+        protected AbstractOperation getOperation() {
+            return ReconOperation.this;
+        }
+        
+        /**
+         * Jobs of other configs may be keyed by identity hash codes, which do
+         * not identify the same jobs after a restart.
+         */
+        protected boolean canResume() {
+            return _reconConfig instanceof StandardReconConfig;
+        }
+        
+        @Override
+        protected JsonNode getPartialResults() {
+            ObjectNode recons = ParsingUtilities.mapper.createObjectNode();
+            if (canResume()) {
+                for (Map.Entry<String, Recon> entry : _doneRecons.entrySet()) {
+                    try {
+                        recons.set(entry.getKey(), ParsingUtilities.mapper.readTree(
+                                ParsingUtilities.saveWriter.writeValueAsString(entry.getValue())));
+                    } catch (IOException e) {
+                        // the job is done again when resuming
+                        logger.warn("Failed to save recon of job " + entry.getKey(), e);
+                    }
+                }
+            }
+            ObjectNode results = ParsingUtilities.mapper.createObjectNode();
+            results.set("recons", recons);
+            return results;
+        }
+        
+        /**
+         * @return the recons saved by the checkpoint the process resumes from, by job key
+         */
+        protected Map<String, Recon> getRestoredRecons() {
+            Map<String, Recon> recons = new HashMap<String, Recon>();
+            JsonNode results = getRestoredResults();
+            if (results != null && results.has("recons") && canResume()) {
+                Iterator<Map.Entry<String, JsonNode>> fields = results.get("recons").fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    try {
+                        recons.put(field.getKey(), Recon.loadStreaming(field.getValue().toString()));
+                    } catch (Exception e) {
+                        logger.warn("Failed to restore recon of job " + field.getKey(), e);
+                    }
+                }
+            }
+            return recons;
+        }
+        
+        protected void addCellChanges(JobGroup group, Recon recon, List<CellChange> cellChanges) {
+            List<ReconEntry> entries = group.entries;
+            recon.judgmentBatchSize = entries.size();
+            
+            for (ReconEntry entry : entries) {
+                Cell oldCell = entry.cell;
+                Cell newCell = new Cell(oldCell.value, recon);
+                
+                CellChange cellChange = new CellChange(
+                    entry.rowIndex, 
+                    _cellIndex, 
+                    oldCell, 
+                    newCell
+                );
+                cellChanges.add(cellChange);
+            }
+            _doneRecons.put(group.job.getStringKey(), recon);
+        }
+        
         protected void populateEntries() throws Exception {
             Engine engine = new Engine(_project);
             engine.initializeFromConfig(_engineConfig);
@@ -233,6 +386,32 @@ public class ReconOperation extends EngineDependentOperation {
             });
         }
         
+        /**
+         * Jobs sent to the service in one request, along with the response.
+         */
+        protected class ReconBatch implements Callable<ReconBatch> {
+            final protected List<JobGroup> groups = new ArrayList<JobGroup>();
+            protected List<Recon> recons;
+            protected long latency;
+            
+            @Override
+            public ReconBatch call() {
+                List<ReconJob> jobs = new ArrayList<ReconJob>(groups.size());
+                for (JobGroup group : groups) {
+                    jobs.add(group.job);
+                }
+                long start = System.currentTimeMillis();
+                try {
+                    recons = _reconConfig.batchRecon(jobs, _historyEntryID);
+                } catch (RuntimeException e) {
+                    // the jobs of the batch are retried
+                    logger.error("Failed to reconcile batch", e);
+                }
+                latency = System.currentTimeMillis() - start;
+                return this;
+            }
+        }
+        
         @Override
         public void run() {
             try {
@@ -262,78 +441,89 @@ public class ReconOperation extends EngineDependentOperation {
                 group.entries.add(entry);
             }
             
-            int batchSize = _reconConfig.getBatchSize();
             int done = 0;
             
             List<CellChange> cellChanges = new ArrayList<CellChange>(_entries.size());
             List<JobGroup> groups = new ArrayList<JobGroup>(jobKeyToGroup.values());
+            Deque<JobGroup> pendingGroups = new ArrayDeque<JobGroup>(groups.size());
             
-            List<ReconJob> jobs = new ArrayList<ReconJob>(batchSize);
-            Map<ReconJob, JobGroup> jobToGroup = new HashMap<ReconJob, ReconOperation.JobGroup>();
-            
-            for (int i = 0; i < groups.size(); /* don't increment here */) {
-                while (jobs.size() < batchSize && i < groups.size()) {
-                    JobGroup group = groups.get(i++);
-                    
-                    jobs.add(group.job);
-                    jobToGroup.put(group.job, group);
+            // jobs done before the process was interrupted are not sent again
+            Map<String, Recon> restoredRecons = getRestoredRecons();
+            for (JobGroup group : groups) {
+                Recon recon = restoredRecons.get(group.job.getStringKey());
+                if (recon != null) {
+                    addCellChanges(group, recon, cellChanges);
+                    done++;
+                } else {
+                    pendingGroups.addLast(group);
                 }
-                
-                List<Recon> recons = _reconConfig.batchRecon(jobs, _historyEntryID);
-                for (int j = jobs.size() - 1; j >= 0; j--) {
-                    ReconJob job = jobs.get(j);
-                    Recon    recon = j < recons.size() ? recons.get(j) : null;
-                    JobGroup group = jobToGroup.get(job);
-                    List<ReconEntry> entries = group.entries;
-
-                    /*
-                     * TODO: Not sure what this retry is meant to handle, but it's currently
-                     * non-functional due the code at the end of StandardReconConfig#batchRecon()
-                     * which tops up any missing entries.
-                     */
-                    if (recon == null) {
-                        group.trials++;
-                        if (group.trials < 3) {
-                            logger.warn("Re-trying job including cell containing: " + entries.get(0).cell.value);
-                            continue; // try again next time
+            }
+            
+            BatchSizer batchSizer = new BatchSizer(_reconConfig.getBatchSize(), getMaxBatchSize(_reconConfig));
+            int maxInFlight = getConcurrentBatches();
+            int inFlight = 0;
+            
+            ExecutorService executor = Executors.newFixedThreadPool(maxInFlight);
+            CompletionService<ReconBatch> completionService = new ExecutorCompletionService<ReconBatch>(executor);
+            try {
+                while (!_canceled && (inFlight > 0 || !pendingGroups.isEmpty())) {
+                    while (inFlight < maxInFlight && !pendingGroups.isEmpty()) {
+                        ReconBatch batch = new ReconBatch();
+                        int batchSize = batchSizer.getBatchSize();
+                        while (batch.groups.size() < batchSize && !pendingGroups.isEmpty()) {
+                            batch.groups.add(pendingGroups.pollFirst());
                         }
-                        String msg = "Failed after 3 trials for job including cell containing: " + entries.get(0).cell.value;
-                        logger.warn(msg);
-                        recon = _reconConfig.createNewRecon(_historyEntryID);
+                        completionService.submit(batch);
+                        inFlight++;
                     }
-
-                    jobToGroup.remove(job);
-                    jobs.remove(j);
-                    done++;
-
-                    recon.judgmentBatchSize = entries.size();
                     
-                    for (ReconEntry entry : entries) {
-                        Cell oldCell = entry.cell;
-                        Cell newCell = new Cell(oldCell.value, recon);
-                        
-                        CellChange cellChange = new CellChange(
-                            entry.rowIndex, 
-                            _cellIndex, 
-                            oldCell, 
-                            newCell
-                        );
-                        cellChanges.add(cellChange);
+                    ReconBatch batch;
+                    try {
+                        batch = completionService.take().get();
+                    } catch (InterruptedException e) {
+                        continue;
+                    } catch (ExecutionException e) {
+                        // exceptions are caught by the batch, so this is an error
+                        throw new RuntimeException(e.getCause());
                     }
-                }
-                
-                _progress = done * 100 / groups.size();
-                try {
-                    Thread.sleep(50);
-                } catch (InterruptedException e) {
-                    if (_canceled) {
-                        break;
+                    inFlight--;
+                    batchSizer.recordBatch(batch.groups.size(), batch.latency);
+                    
+                    for (int j = 0; j < batch.groups.size(); j++) {
+                        JobGroup group = batch.groups.get(j);
+                        Recon    recon = batch.recons != null && j < batch.recons.size() ? batch.recons.get(j) : null;
+                        List<ReconEntry> entries = group.entries;
+
+                        /*
+                         * TODO: Not sure what this retry is meant to handle, but it's currently
+                         * non-functional due the code at the end of StandardReconConfig#batchRecon()
+                         * which tops up any missing entries.
+                         */
+                        if (recon == null) {
+                            group.trials++;
+                            if (group.trials < 3) {
+                                logger.warn("Re-trying job including cell containing: " + entries.get(0).cell.value);
+                                pendingGroups.addLast(group); // try again in a later batch
+                                continue;
+                            }
+                            String msg = "Failed after 3 trials for job including cell containing: " + entries.get(0).cell.value;
+                            logger.warn(msg);
+                            recon = _reconConfig.createNewRecon(_historyEntryID);
+                        }
+
+                        done++;
+                        addCellChanges(group, recon, cellChanges);
                     }
+                    
+                    _progress = done * 100 / groups.size();
+                    checkpoint();
                 }
+            } finally {
+                executor.shutdownNow();
             }
             
-            // TODO: Option to keep partial results after cancellation?
-            if (!_canceled) {
+            discardCheckpoint();
+            if (!_canceled || (keepsPartialResults() && !cellChanges.isEmpty())) {
                 Change reconChange = new ReconChange(
                     cellChanges, 
                     _columnName, 
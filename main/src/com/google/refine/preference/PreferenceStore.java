@@ -67,6 +67,43 @@ public class PreferenceStore  {
         return _prefs.get(key);
     }
     
+    /**
+     * @return the preference as an integer, or the default value if it is
+     *      not set or is not a number
+     */
+    public int getIntPreference(String key, int defaultValue) {
+        return (int) getLongPreference(key, defaultValue);
+    }
+    
+    /**
+     * @return the preference as a long, or the default value if it is not
+     *      set or is not a number
+     */
+    public long getLongPreference(String key, long defaultValue) {
+        Object v = _prefs.get(key);
+        if (v instanceof Number) {
+            return ((Number) v).longValue();
+        } else if (v != null) {
+            try {
+                return Long.parseLong(v.toString());
+            } catch (NumberFormatException e) {
+                // ignore
+            }
+        }
+        return defaultValue;
+    }
+    
+    /**
+     * @return the preference as a boolean, or the default value if it is not set
+     */
+    public boolean getBooleanPreference(String key, boolean defaultValue) {
+        Object v = _prefs.get(key);
+        if (v instanceof Boolean) {
+            return (Boolean) v;
+        }
+        return v == null ? defaultValue : Boolean.parseBoolean(v.toString());
+    }
+    
     @JsonIgnore
     public Set<String> getKeys() {
         return _prefs.keySet();
@@ -35,15 +35,23 @@ package com.google.refine.process;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.refine.ProjectManager;
 import com.google.refine.history.HistoryEntry;
 
 abstract public class LongRunningProcess extends Process {
+    /**
+     * Whether cancelled processes add the results they have computed so far to the history.
+     */
+    public static final String KEEP_PARTIAL_RESULTS_PREFERENCE = "processes.keepPartialResults";
+
     @JsonProperty("description")
     final protected String       _description;
     @JsonIgnore
     protected ProcessManager     _manager;
     @JsonIgnore
-    protected Thread             _thread;
+    protected ProcessScheduler.Task _task;
+    @JsonIgnore
+    protected ProcessScheduler.Priority _priority = ProcessScheduler.Priority.INTERACTIVE;
     @JsonProperty("progress")
     protected int                _progress; // out of 100
     @JsonIgnore
@@ -56,14 +64,14 @@ abstract public class LongRunningProcess extends Process {
     @Override
     public void cancel() {
         _canceled = true;
-        if (_thread != null && _thread.isAlive()) {
-            _thread.interrupt();
+        if (_task != null) {
+            _task.cancel();
         }
     }
     
     @JsonProperty("status")
     public String getStatus() {
-        return _thread == null ? "pending" : (_thread.isAlive() ? "running" : "done");
+        return _task == null ? "pending" : (_task.isDone() ? "done" : (_task.isStarted() ? "running" : "pending"));
     }
 
     @Override
@@ -73,12 +81,12 @@ abstract public class LongRunningProcess extends Process {
     
     @Override
     public boolean isRunning() {
-        return _thread != null && _thread.isAlive();
+        return _task != null && !_task.isDone();
     }
     
     @Override
     public boolean isDone() {
-        return _thread != null && !_thread.isAlive();
+        return _task != null && _task.isDone();
     }
 
     @Override
@@ -88,13 +96,42 @@ abstract public class LongRunningProcess extends Process {
 
     @Override
     public void startPerforming(ProcessManager manager) {
-        if (_thread == null) {
+        if (_task == null) {
             _manager = manager;
             
-            _thread = new Thread(getRunnable());
-            _thread.start();
+            _task = ProcessScheduler.getInstance().schedule(this, manager == null ? 0 : manager.getProjectID());
         }
     }
     
+    /**
+     * @return the task running the process on the shared scheduler, or null if it was not started
+     */
+    @JsonIgnore
+    public ProcessScheduler.Task getTask() {
+        return _task;
+    }
+    
+    @JsonIgnore
+    public ProcessScheduler.Priority getPriority() {
+        return _priority;
+    }
+    
+    /**
+     * Sets whether the process starts before or after the processes of other
+     * projects. Only has an effect before the process is started.
+     */
+    public void setPriority(ProcessScheduler.Priority priority) {
+        _priority = priority;
+    }
+    
+    /**
+     * @return whether a cancelled process should add its partial results to the history
+     */
+    @JsonIgnore
+    protected boolean keepsPartialResults() {
+        return ProjectManager.singleton != null &&
+            ProjectManager.singleton.getPreferenceStore().getBooleanPreference(KEEP_PARTIAL_RESULTS_PREFERENCE, false);
+    }
+
     abstract protected Runnable getRunnable();
 }
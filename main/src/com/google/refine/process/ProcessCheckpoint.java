@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.refine.ProjectManager;
+import com.google.refine.io.FileProjectManager;
+import com.google.refine.model.AbstractOperation;
+import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
+
+/**
+ * The progress of a resumable process, as saved in the project directory: the
+ * operation the process performs, and the results it has computed so far.
+ */
+public class ProcessCheckpoint {
+    final static Logger logger = LoggerFactory.getLogger("ProcessCheckpoint");
+
+    static final protected String DIR_NAME = "checkpoints";
+
+    @JsonProperty("operation")
+    final public AbstractOperation operation;
+    @JsonProperty("results")
+    final public JsonNode results;
+    @JsonProperty("progress")
+    final public int progress;
+
+    @JsonCreator
+    public ProcessCheckpoint(
+            @JsonProperty("operation")
+            AbstractOperation operation,
+            @JsonProperty("results")
+            JsonNode results,
+            @JsonProperty("progress")
+            int progress) {
+        this.operation = operation;
+        this.results = results;
+        this.progress = progress;
+    }
+
+    public void save(File file) throws IOException {
+        file.getParentFile().mkdirs();
+        File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+        ParsingUtilities.mapper.writeValue(tempFile, this);
+        // the previous checkpoint is kept until the new one is complete
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static public ProcessCheckpoint load(File file) throws IOException {
+        return ParsingUtilities.mapper.readValue(file, ProcessCheckpoint.class);
+    }
+
+    /**
+     * @return the directory the checkpoints of the project are saved in, or null
+     *      if projects are not stored in files
+     */
+    static public File getCheckpointDir(Project project) {
+        if (!(ProjectManager.singleton instanceof FileProjectManager)) {
+            return null;
+        }
+        return new File(((FileProjectManager) ProjectManager.singleton).getProjectDir(project.id), DIR_NAME);
+    }
+
+    /**
+     * Queues again the processes which were interrupted before they finished,
+     * such as by a restart, so that they resume from their latest checkpoint.
+     *
+     * @return the number of processes queued
+     */
+    static public int resumeProcesses(Project project) {
+        File dir = getCheckpointDir(project);
+        return dir == null ? 0 : resumeProcesses(project, dir);
+    }
+
+    static public int resumeProcesses(Project project, File dir) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".json"));
+        if (files == null) {
+            return 0;
+        }
+        Arrays.sort(files);
+
+        List<ResumableProcess> processes = new ArrayList<>();
+        for (File file : files) {
+            Process process;
+            ProcessCheckpoint checkpoint;
+            try {
+                checkpoint = load(file);
+                process = checkpoint.operation.createProcess(project, new Properties());
+            } catch (Exception e) {
+                // kept, as the extension providing the operation may not be loaded yet
+                logger.warn("Failed to resume process from " + file, e);
+                continue;
+            }
+            if (process instanceof ResumableProcess) {
+                ResumableProcess resumableProcess = (ResumableProcess) process;
+                resumableProcess.restore(checkpoint);
+                // the file is replaced by the next checkpoint, and deleted once the process is done
+                resumableProcess.setCheckpointFile(file);
+                // processes resumed on load should not delay the ones users start
+                resumableProcess.setPriority(ProcessScheduler.Priority.BATCH);
+                processes.add(resumableProcess);
+            } else {
+                file.delete();
+            }
+        }
+        for (ResumableProcess process : processes) {
+            try {
+                project.getProcessManager().queueProcess(process);
+            } catch (Exception e) {
+                logger.warn("Failed to queue resumed process", e);
+            }
+        }
+        return processes.size();
+    }
+}
@@ -50,6 +50,8 @@ public class ProcessManager  {
     protected List<Process> _processes = Collections.synchronizedList(new LinkedList<Process>());
     @JsonIgnore
     protected List<Exception> _latestExceptions = null;
+    @JsonIgnore
+    final protected long _projectID;
     
     public static class ExceptionMessage {
         @JsonProperty("message")
@@ -60,7 +62,20 @@ public class ProcessManager  {
     }
     
     public ProcessManager() {
-        
+        this(0);
+    }
+    
+    public ProcessManager(long projectID) {
+        _projectID = projectID;
+    }
+    
+    /**
+     * @return the project whose processes are managed, which they share their
+     *      turns on the {@link ProcessScheduler} with
+     */
+    @JsonIgnore
+    public long getProjectID() {
+        return _projectID;
     }
     
     @JsonProperty("exceptions")
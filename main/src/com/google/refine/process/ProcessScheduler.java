@@ -0,0 +1,393 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.process;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.refine.ProjectManager;
+import com.google.refine.preference.PreferenceStore;
+
+/**
+ * Runs the long running processes of all projects on a bounded pool of
+ * worker threads.
+ *
+ * Each project still runs its processes one at a time, in the order they were
+ * queued (see {@link ProcessManager}), but the number of processes running at
+ * once across projects is bounded by the "processes.workerThreads" preference.
+ * Interactive processes are started before batch ones, and the projects waiting
+ * for a worker are served in turn. A batch process which has waited for longer
+ * than {@link #BATCH_PROMOTION_DELAY} is treated as interactive, so that batch
+ * processes are not held back forever.
+ */
+public class ProcessScheduler {
+    final static Logger logger = LoggerFactory.getLogger("ProcessScheduler");
+
+    public static final String WORKER_THREADS_PREFERENCE = "processes.workerThreads";
+
+    /**
+     * Milliseconds after which a waiting batch process is started as if it
+     * was interactive.
+     */
+    public static final long BATCH_PROMOTION_DELAY = 60000;
+
+    public enum Priority {
+        INTERACTIVE,
+        BATCH
+    }
+
+    static final protected ThreadMXBean s_threadBean = ManagementFactory.getThreadMXBean();
+
+    /**
+     * A process scheduled to run on a worker, with the time it spent waiting and running.
+     */
+    static public class Task {
+        final protected ProcessScheduler _scheduler;
+        final protected LongRunningProcess _process;
+        final protected long _projectID;
+        final protected Priority _priority;
+        final protected long _queuedTime;
+        protected volatile long _startTime;
+        protected volatile long _endTime;
+        protected volatile long _cpuTime = -1;
+        protected Thread _thread;
+
+        protected Task(ProcessScheduler scheduler, LongRunningProcess process, long projectID, Priority priority) {
+            _scheduler = scheduler;
+            _process = process;
+            _projectID = projectID;
+            _priority = priority;
+            _queuedTime = System.currentTimeMillis();
+        }
+
+        @JsonProperty("processId")
+        public long getProcessId() {
+            return _process.getId();
+        }
+
+        @JsonProperty("projectId")
+        public long getProjectId() {
+            return _projectID;
+        }
+
+        @JsonProperty("description")
+        public String getDescription() {
+            return _process._description;
+        }
+
+        @JsonProperty("priority")
+        public Priority getPriority() {
+            return _priority;
+        }
+
+        @JsonProperty("status")
+        public String getStatus() {
+            return isDone() ? "done" : (isStarted() ? "running" : "queued");
+        }
+
+        @JsonIgnore
+        public boolean isStarted() {
+            return _startTime > 0;
+        }
+
+        @JsonIgnore
+        public boolean isDone() {
+            return _endTime > 0;
+        }
+
+        /**
+         * @return the milliseconds spent waiting for a worker
+         */
+        @JsonProperty("waitTime")
+        public long getWaitTime() {
+            return (_startTime > 0 ? _startTime : (_endTime > 0 ? _endTime : System.currentTimeMillis())) - _queuedTime;
+        }
+
+        /**
+         * @return the milliseconds spent running so far
+         */
+        @JsonProperty("runTime")
+        public long getRunTime() {
+            if (_startTime == 0) {
+                return 0;
+            }
+            return (_endTime > 0 ? _endTime : System.currentTimeMillis()) - _startTime;
+        }
+
+        /**
+         * @return the CPU time used by the worker thread in milliseconds, once
+         *      the process is done, or -1 if it is not known. Threads the process
+         *      starts itself are not accounted for.
+         */
+        @JsonProperty("cpuTime")
+        public long getCpuTime() {
+            return _cpuTime < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(_cpuTime);
+        }
+
+        protected void run() {
+            synchronized (this) {
+                _thread = Thread.currentThread();
+            }
+            _startTime = System.currentTimeMillis();
+            long cpuStart = getThreadCpuTime();
+            try {
+                Runnable runnable = _process.getRunnable();
+                if (runnable != null) {
+                    runnable.run();
+                }
+            } catch (Throwable e) {
+                logger.error("Process " + _process._description + " failed", e);
+            } finally {
+                long cpuEnd = getThreadCpuTime();
+                _cpuTime = cpuStart < 0 || cpuEnd < 0 ? -1 : cpuEnd - cpuStart;
+                synchronized (this) {
+                    _thread = null;
+                }
+                // the interruption of a cancelled process must not reach the next one
+                Thread.interrupted();
+                _endTime = Math.max(System.currentTimeMillis(), _startTime);
+                _scheduler.onFinished(this);
+            }
+        }
+
+        /**
+         * Removes the task from the queue if it has not started yet, or
+         * interrupts its worker otherwise.
+         */
+        public void cancel() {
+            if (_scheduler.dequeue(this)) {
+                _endTime = System.currentTimeMillis();
+            } else {
+                synchronized (this) {
+                    if (_thread != null) {
+                        _thread.interrupt();
+                    }
+                }
+            }
+        }
+    }
+
+    static private ProcessScheduler s_instance;
+
+    final protected ThreadPoolExecutor _executor;
+    /*
+     * Tasks waiting for a worker, by priority, then by project in the order
+     * the projects are served.
+     */
+    final protected Map<Priority, LinkedHashMap<Long, Deque<Task>>> _queues = new EnumMap<>(Priority.class);
+    final protected Set<Task> _running = new LinkedHashSet<>();
+    protected long _finishedCount;
+    protected long _totalCpuTime;
+
+    public ProcessScheduler(int workerThreads) {
+        for (Priority priority : Priority.values()) {
+            _queues.put(priority, new LinkedHashMap<>());
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = r -> new Thread(r, "process-worker-" + threadCount.incrementAndGet());
+        _executor = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), threadFactory);
+        _executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @return the scheduler shared by all projects, resized if the preference
+     *      changed since it was created
+     */
+    static synchronized public ProcessScheduler getInstance() {
+        int workerThreads = getWorkerThreads();
+        if (s_instance == null) {
+            s_instance = new ProcessScheduler(workerThreads);
+        } else {
+            s_instance.setWorkerThreads(workerThreads);
+        }
+        return s_instance;
+    }
+
+    static public int getWorkerThreads() {
+        PreferenceStore prefs = ProjectManager.singleton == null ? null : ProjectManager.singleton.getPreferenceStore();
+        int n = prefs == null ? 0 : prefs.getIntPreference(WORKER_THREADS_PREFERENCE, 0);
+        // processes mostly wait for web services, so use a few more threads than processors
+        return n <= 0 ? Math.max(4, Runtime.getRuntime().availableProcessors()) : n;
+    }
+
+    @JsonProperty("workerThreads")
+    public int getWorkerThreadCount() {
+        return _executor.getMaximumPoolSize();
+    }
+
+    public void setWorkerThreads(int workerThreads) {
+        if (workerThreads > _executor.getMaximumPoolSize()) {
+            _executor.setMaximumPoolSize(workerThreads);
+            _executor.setCorePoolSize(workerThreads);
+        } else if (workerThreads < _executor.getMaximumPoolSize()) {
+            _executor.setCorePoolSize(workerThreads);
+            _executor.setMaximumPoolSize(workerThreads);
+        }
+    }
+
+    /**
+     * Queues a process to run on a worker thread.
+     *
+     * @param process
+     *      the process to run
+     * @param projectID
+     *      the project the process belongs to, which it shares its turns with
+     * @return the task tracking the process
+     */
+    public Task schedule(LongRunningProcess process, long projectID) {
+        Task task = new Task(this, process, projectID, process.getPriority());
+        synchronized (this) {
+            _queues.get(task._priority).computeIfAbsent(projectID, id -> new ArrayDeque<>()).add(task);
+        }
+        // each worker picks the next task when it becomes free, not this one
+        _executor.execute(this::runNext);
+        return task;
+    }
+
+    protected void runNext() {
+        Task task;
+        synchronized (this) {
+            task = pollNext();
+            if (task == null) {
+                // the task this worker was started for was cancelled
+                return;
+            }
+            _running.add(task);
+        }
+        task.run();
+    }
+
+    protected Task pollNext() {
+        LinkedHashMap<Long, Deque<Task>> interactive = _queues.get(Priority.INTERACTIVE);
+        LinkedHashMap<Long, Deque<Task>> batch = _queues.get(Priority.BATCH);
+        if (!interactive.isEmpty()) {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<Long, Deque<Task>> entry : batch.entrySet()) {
+                if (now - entry.getValue().peek()._queuedTime > BATCH_PROMOTION_DELAY) {
+                    return pollFrom(batch, entry.getKey());
+                }
+            }
+            return pollFrom(interactive, interactive.keySet().iterator().next());
+        } else if (!batch.isEmpty()) {
+            return pollFrom(batch, batch.keySet().iterator().next());
+        }
+        return null;
+    }
+
+    /**
+     * Takes the first task of a project, and moves the project to the end of
+     * the queue so that the other projects are served first.
+     */
+    static protected Task pollFrom(LinkedHashMap<Long, Deque<Task>> queue, long projectID) {
+        Deque<Task> tasks = queue.remove(projectID);
+        Task task = tasks.poll();
+        if (!tasks.isEmpty()) {
+            queue.put(projectID, tasks);
+        }
+        return task;
+    }
+
+    protected synchronized boolean dequeue(Task task) {
+        LinkedHashMap<Long, Deque<Task>> queue = _queues.get(task._priority);
+        Deque<Task> tasks = queue.get(task._projectID);
+        if (tasks == null || !tasks.remove(task)) {
+            return false;
+        }
+        if (tasks.isEmpty()) {
+            queue.remove(task._projectID);
+        }
+        return true;
+    }
+
+    protected synchronized void onFinished(Task task) {
+        _running.remove(task);
+        _finishedCount++;
+        if (task._cpuTime > 0) {
+            _totalCpuTime += task._cpuTime;
+        }
+    }
+
+    @JsonProperty("running")
+    public synchronized List<Task> getRunningTasks() {
+        return new ArrayList<>(_running);
+    }
+
+    /**
+     * @return the tasks waiting for a worker, by priority and then by project
+     */
+    @JsonProperty("queued")
+    public synchronized List<Task> getQueuedTasks() {
+        List<Task> tasks = new ArrayList<>();
+        for (LinkedHashMap<Long, Deque<Task>> queue : _queues.values()) {
+            for (Deque<Task> projectTasks : queue.values()) {
+                tasks.addAll(projectTasks);
+            }
+        }
+        return tasks;
+    }
+
+    @JsonProperty("finishedCount")
+    public synchronized long getFinishedCount() {
+        return _finishedCount;
+    }
+
+    /**
+     * @return the CPU time used by the finished tasks, in milliseconds
+     */
+    @JsonProperty("totalCpuTime")
+    public synchronized long getTotalCpuTime() {
+        return TimeUnit.NANOSECONDS.toMillis(_totalCpuTime);
+    }
+
+    static protected long getThreadCpuTime() {
+        try {
+            return s_threadBean.isCurrentThreadCpuTimeSupported() ? s_threadBean.getCurrentThreadCpuTime() : -1;
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.process;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.refine.ProjectManager;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.AbstractOperation;
+import com.google.refine.model.Project;
+
+/**
+ * A long running process which saves its partial results to the project
+ * directory from time to time, so that it can resume from them if it is
+ * interrupted by a restart.
+ *
+ * Subclasses call {@link #checkpoint()} as they make progress, read the
+ * results of the checkpoint they resume from with {@link #getRestoredResults()},
+ * and call {@link #discardCheckpoint()} once they are done or cancelled.
+ */
+abstract public class ResumableProcess extends LongRunningProcess {
+    /**
+     * Number of seconds between checkpoints. Zero disables checkpoints.
+     */
+    public static final String CHECKPOINT_INTERVAL_PREFERENCE = "processes.checkpointInterval";
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 60;
+
+    @JsonIgnore
+    protected File _checkpointFile;
+    @JsonIgnore
+    protected long _lastCheckpoint;
+    @JsonIgnore
+    protected JsonNode _restoredResults;
+
+    protected ResumableProcess(String description, Project project) {
+        super(description);
+        File dir = ProcessCheckpoint.getCheckpointDir(project);
+        if (dir != null) {
+            _checkpointFile = new File(dir, HistoryEntry.allocateID() + ".json");
+        }
+        _lastCheckpoint = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the operation performed by the process, which is saved with
+     *      its checkpoints to resume it
+     */
+    abstract protected AbstractOperation getOperation();
+
+    /**
+     * @return the results computed so far, in a form the process can resume from
+     */
+    abstract protected JsonNode getPartialResults();
+
+    /**
+     * Makes the process start from the results of a checkpoint instead of from scratch.
+     */
+    public void restore(ProcessCheckpoint checkpoint) {
+        _restoredResults = checkpoint.results;
+        _progress = checkpoint.progress;
+    }
+
+    /**
+     * @return the results of the checkpoint the process resumes from, or null
+     */
+    @JsonIgnore
+    protected JsonNode getRestoredResults() {
+        return _restoredResults;
+    }
+
+    /**
+     * Saves the partial results of the process, if the last checkpoint is old enough.
+     */
+    protected void checkpoint() {
+        long interval = getCheckpointInterval() * 1000L;
+        if (_checkpointFile == null || interval <= 0 || System.currentTimeMillis() - _lastCheckpoint < interval) {
+            return;
+        }
+        try {
+            new ProcessCheckpoint(getOperation(), getPartialResults(), _progress).save(_checkpointFile);
+        } catch (IOException e) {
+            ProcessCheckpoint.logger.warn("Failed to save checkpoint of process " + _description, e);
+        }
+        _lastCheckpoint = System.currentTimeMillis();
+    }
+
+    protected void discardCheckpoint() {
+        if (_checkpointFile != null) {
+            _checkpointFile.delete();
+        }
+    }
+
+    /**
+     * Sets where checkpoints are saved, or disables them if null.
+     */
+    public void setCheckpointFile(File file) {
+        _checkpointFile = file;
+    }
+
+    static protected int getCheckpointInterval() {
+        return ProjectManager.singleton == null ? DEFAULT_CHECKPOINT_INTERVAL :
+            ProjectManager.singleton.getPreferenceStore().getIntPreference(
+                    CHECKPOINT_INTERVAL_PREFERENCE, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+}
@@ -127,6 +127,20 @@ abstract public class BaseSorter {
         return keys;
     }
 
+    /**
+     * Sorts items at once, which is much faster than sorting them with {@link #compare}
+     * for large projects.
+     *
+     * @param items
+     *      the rows or records to sort
+     * @param indices
+     *      the row or record index of each item
+     * @return the positions of the items in {@code items}, in sorted order
+     */
+    protected int[] sort(Project project, Object[] items, int[] indices) {
+        return new PrimitiveKeySorter(this).sort(project, items, indices);
+    }
+
     protected int compare(Project project, Object o1, int i1, Object o2, int i2) {
         int c = 0;
         for (int i = 0; c == 0 && i < _comparatorWrappers.length; i++) {
@@ -0,0 +1,288 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.sorting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import com.google.refine.browsing.util.ParallelRowScanner;
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Project;
+import com.google.refine.sorting.Criterion.KeyMaker;
+
+/**
+ * Sorts rows or records by the criteria of a {@link BaseSorter} without
+ * comparing boxed keys.
+ *
+ * The sort keys are computed once per item, in parallel for large projects,
+ * and each criterion is turned into a dense integer rank that already
+ * accounts for the positions of blanks and errors and for the reverse flag.
+ * Numbers are ranked by sorting their bit patterns; other keys (collation keys
+ * for strings, instants, booleans) are ranked through a dictionary of their
+ * distinct values, which is usually much smaller than the number of items.
+ * The ranks of all criteria are then combined into a single rank and the
+ * items are ordered with {@link Arrays#parallelSort(long[])}, ties being
+ * broken by position so that the order is the same as the one of a stable
+ * sort with the comparator of {@link BaseSorter}.
+ */
+public class PrimitiveKeySorter {
+    static final protected int BLANK = -1;
+    static final protected int ERROR = -2;
+
+    final protected BaseSorter _sorter;
+
+    public PrimitiveKeySorter(BaseSorter sorter) {
+        _sorter = sorter;
+    }
+
+    /**
+     * @param project
+     * @param items
+     *      the rows or records to sort
+     * @param indices
+     *      the row or record index of each item
+     * @return the positions of the items in {@code items}, in sorted order
+     */
+    public int[] sort(Project project, Object[] items, int[] indices) {
+        int count = items.length;
+        int[] ranks = null;
+        for (int c = 0; c < _sorter._criteria.length; c++) {
+            int[] criterionRanks = rank(c, makeKeys(project, c, items, indices));
+            ranks = ranks == null ? criterionRanks : combine(ranks, criterionRanks);
+        }
+
+        final int[] finalRanks = ranks;
+        long[] order = new long[count];
+        Arrays.parallelSetAll(order, i -> ((long) finalRanks[i] << 32) | i);
+        Arrays.parallelSort(order);
+
+        int[] positions = new int[count];
+        Arrays.parallelSetAll(positions, i -> (int) order[i]);
+        return positions;
+    }
+
+    protected Object[] makeKeys(Project project, int criterionIndex, Object[] items, int[] indices) {
+        Criterion criterion = _sorter._criteria[criterionIndex];
+        // resolve the cell index before the keys are made concurrently
+        criterion.getCellIndex(project);
+
+        int count = items.length;
+        Object[] keys = new Object[count];
+        int parallelism = ParallelRowScanner.getParallelism();
+        if (parallelism <= 1 || count < 2 * ParallelRowScanner.MIN_CHUNK_SIZE) {
+            makeKeys(project, criterion, _sorter._keyMakers[criterionIndex], items, indices, keys, 0, count);
+            return keys;
+        }
+
+        int chunkCount = Math.min(parallelism * 4, count / ParallelRowScanner.MIN_CHUNK_SIZE);
+        int chunkSize = (count + chunkCount - 1) / chunkCount;
+        List<Callable<Void>> tasks = new ArrayList<>(chunkCount);
+        for (int from = 0; from < count; from += chunkSize) {
+            final int fromIndex = from;
+            final int toIndex = Math.min(from + chunkSize, count);
+            tasks.add(() -> {
+                // key makers are not meant to be shared between threads
+                makeKeys(project, criterion, criterion.createKeyMaker(), items, indices, keys, fromIndex, toIndex);
+                return null;
+            });
+        }
+        ParallelRowScanner.invokeAll(tasks);
+        return keys;
+    }
+
+    protected void makeKeys(Project project, Criterion criterion, KeyMaker keyMaker,
+            Object[] items, int[] indices, Object[] keys, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            keys[i] = _sorter.makeKey(project, keyMaker, criterion, items[i], indices[i]);
+        }
+    }
+
+    /**
+     * Turns the keys of a criterion into dense ranks: items with equal keys
+     * get the same rank, and ranks are ordered as the keys.
+     */
+    protected int[] rank(int criterionIndex, Object[] keys) {
+        Criterion criterion = _sorter._criteria[criterionIndex];
+        int[] ranks = new int[keys.length];
+        int valueCount;
+        if (criterion instanceof NumberCriterion) {
+            valueCount = rankNumbers(keys, ranks);
+        } else {
+            valueCount = rankWithDictionary(_sorter._keyMakers[criterionIndex], keys, ranks);
+        }
+
+        int blankPosition = criterion.blankPosition;
+        int errorPosition = criterion.errorPosition;
+        int valueOffset = (blankPosition < 0 ? 1 : 0)
+                + (errorPosition < 0 && errorPosition != blankPosition ? 1 : 0);
+        int blankRank = getSlot(blankPosition, errorPosition, valueOffset, valueCount);
+        int errorRank = getSlot(errorPosition, blankPosition, valueOffset, valueCount);
+
+        for (int i = 0; i < ranks.length; i++) {
+            int rank = ranks[i];
+            if (rank == BLANK) {
+                ranks[i] = blankRank;
+            } else if (rank == ERROR) {
+                ranks[i] = errorRank;
+            } else {
+                ranks[i] = valueOffset + (criterion.reverse ? valueCount - 1 - rank : rank);
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * @return the rank of blanks or errors, given their position and the one of the other kind
+     */
+    static protected int getSlot(int position, int otherPosition, int valueOffset, int valueCount) {
+        if (position < 0) {
+            return otherPosition < position ? 1 : 0;
+        } else {
+            return valueOffset + valueCount + (otherPosition >= 0 && otherPosition < position ? 1 : 0);
+        }
+    }
+
+    /**
+     * Ranks numeric keys by their values as doubles, as {@link NumberCriterion} compares them.
+     *
+     * @return the number of distinct values
+     */
+    static protected int rankNumbers(Object[] keys, int[] ranks) {
+        long[] bits = new long[keys.length];
+        int valueCount = 0;
+        for (int i = 0; i < keys.length; i++) {
+            Object key = keys[i];
+            if (key == null) {
+                ranks[i] = BLANK;
+            } else if (key instanceof EvalError) {
+                ranks[i] = ERROR;
+            } else {
+                // adding 0.0 turns -0.0 into 0.0
+                long b = Double.doubleToLongBits(((Number) key).doubleValue() + 0.0);
+                // flip the bits of negative numbers so that longs are ordered as the doubles
+                bits[i] = b ^ ((b >> 63) & Long.MAX_VALUE);
+                valueCount++;
+            }
+        }
+
+        long[] distinct = new long[valueCount];
+        for (int i = 0, j = 0; i < keys.length; i++) {
+            if (ranks[i] >= 0) {
+                distinct[j++] = bits[i];
+            }
+        }
+        int distinctCount = sortDistinct(distinct);
+        for (int i = 0; i < keys.length; i++) {
+            if (ranks[i] >= 0) {
+                ranks[i] = Arrays.binarySearch(distinct, 0, distinctCount, bits[i]);
+            }
+        }
+        return distinctCount;
+    }
+
+    /**
+     * Ranks keys by sorting their distinct values with the comparator of the key maker.
+     *
+     * @return the number of distinct ranks
+     */
+    static protected int rankWithDictionary(KeyMaker keyMaker, Object[] keys, int[] ranks) {
+        Map<Object, Integer> ids = new HashMap<>();
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            Object key = keys[i];
+            if (key == null) {
+                ranks[i] = BLANK;
+            } else if (key instanceof EvalError) {
+                ranks[i] = ERROR;
+            } else {
+                Integer id = ids.get(key);
+                if (id == null) {
+                    id = values.size();
+                    ids.put(key, id);
+                    values.add(key);
+                }
+                ranks[i] = id;
+            }
+        }
+
+        Integer[] sortedIds = new Integer[values.size()];
+        for (int id = 0; id < sortedIds.length; id++) {
+            sortedIds[id] = id;
+        }
+        Arrays.sort(sortedIds, (id1, id2) -> keyMaker.compareKeys(values.get(id1), values.get(id2)));
+
+        int[] idRanks = new int[sortedIds.length];
+        int rank = -1;
+        for (int j = 0; j < sortedIds.length; j++) {
+            if (j == 0 || keyMaker.compareKeys(values.get(sortedIds[j - 1]), values.get(sortedIds[j])) != 0) {
+                rank++;
+            }
+            idRanks[sortedIds[j]] = rank;
+        }
+
+        for (int i = 0; i < ranks.length; i++) {
+            if (ranks[i] >= 0) {
+                ranks[i] = idRanks[ranks[i]];
+            }
+        }
+        return rank + 1;
+    }
+
+    /**
+     * @return the dense ranks of the pairs of ranks, ordered by the first rank then the second one
+     */
+    static protected int[] combine(int[] ranks, int[] nextRanks) {
+        long[] pairs = new long[ranks.length];
+        Arrays.parallelSetAll(pairs, i -> ((long) ranks[i] << 32) | nextRanks[i]);
+        long[] distinct = pairs.clone();
+        int distinctCount = sortDistinct(distinct);
+
+        int[] combined = new int[ranks.length];
+        Arrays.parallelSetAll(combined, i -> Arrays.binarySearch(distinct, 0, distinctCount, pairs[i]));
+        return combined;
+    }
+
+    /**
+     * Sorts the array and moves its distinct values to its beginning.
+     *
+     * @return the number of distinct values
+     */
+    static protected int sortDistinct(long[] values) {
+        Arrays.parallelSort(values);
+        int distinctCount = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i == 0 || values[i] != values[distinctCount - 1]) {
+                values[distinctCount++] = values[i];
+            }
+        }
+        return distinctCount;
+    }
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.sorting;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.refine.model.Project;
+
+/**
+ * Caches the order of the rows of a project for a sorting configuration, as
+ * an array of row indices.
+ *
+ * Keys are expected to identify the facets, the sorting criteria and the state
+ * of the project, so that paging through sorted rows only sorts them once.
+ * Since the arrays can be as large as the project, only a few are kept.
+ */
+public class SortedRowIndexCache {
+    public static final int DEFAULT_MAX_ENTRIES = 4;
+
+    protected final int _maxEntries;
+    protected final Map<String, Entry> _entries;
+
+    static protected class Entry {
+        final long projectID;
+        final int[] rowIndices;
+        final int rowCount;
+
+        Entry(long projectID, int[] rowIndices, int rowCount) {
+            this.projectID = projectID;
+            this.rowIndices = rowIndices;
+            this.rowCount = rowCount;
+        }
+    }
+
+    public SortedRowIndexCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public SortedRowIndexCache(int maxEntries) {
+        _maxEntries = maxEntries;
+        _entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > _maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the sorted row indices stored for this key, or null if there are none
+     *      or if the number of rows of the project changed since
+     */
+    public int[] get(Project project, String key) {
+        synchronized (_entries) {
+            Entry entry = _entries.get(project.id + ";" + key);
+            if (entry != null && entry.rowCount == project.rows.size()) {
+                return entry.rowIndices;
+            }
+            return null;
+        }
+    }
+
+    public void put(Project project, String key, int[] rowIndices) {
+        synchronized (_entries) {
+            _entries.put(project.id + ";" + key, new Entry(project.id, rowIndices, project.rows.size()));
+        }
+    }
+
+    public void flushProject(long projectID) {
+        synchronized (_entries) {
+            for (Iterator<Entry> it = _entries.values().iterator(); it.hasNext(); ) {
+                if (it.next().projectID == projectID) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (_entries) {
+            return _entries.size();
+        }
+    }
+}
@@ -34,8 +34,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package com.google.refine.sorting;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 
 import com.google.refine.browsing.RecordVisitor;
@@ -55,29 +53,22 @@ public class SortingRecordVisitor extends BaseSorter implements RecordVisitor {
     public void start(Project project) {
         int count = project.recordModel.getRecordCount();
         _records = new ArrayList<Record>(count);
-        _keys = new ArrayList<Object[]>(count);
     }
 
     @Override
     public void end(Project project) {
         _visitor.start(project);
 
-        Collections.sort(_records, new Comparator<Record>() {
-            Project project;
-
-            Comparator<Record> init(Project project) {
-                this.project = project;
-                return this;
-            }
-
-            @Override
-            public int compare(Record o1, Record o2) {
-                return SortingRecordVisitor.this.compare(project, o1, o1.recordIndex, o2, o2.recordIndex);
-            }
-        }.init(project));
+        int count = _records.size();
+        Object[] records = _records.toArray();
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = _records.get(i).recordIndex;
+        }
 
-        for (Record record : _records) {
-            _visitor.visit(project, record);
+        int[] positions = sort(project, records, indices);
+        for (int position : positions) {
+            _visitor.visit(project, (Record) records[position]);
         }
 
         _visitor.end(project);
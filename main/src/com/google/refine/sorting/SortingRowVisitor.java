@@ -37,15 +37,27 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 import com.google.refine.browsing.RowVisitor;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
 import com.google.refine.sorting.Criterion.KeyMaker;
 
+/**
+ * Visits rows in the order defined by a sorting configuration. The rows are
+ * collected, sorted and then forwarded to the wrapped visitor.
+ * 
+ * When a limit is set with {@link #setLimit(int)}, only the first rows in
+ * sorting order are kept, in a bounded heap, and forwarded. This avoids a
+ * full sort when only the first page of the sorted rows is needed.
+ */
 public class SortingRowVisitor extends BaseSorter implements RowVisitor {
     final protected RowVisitor _visitor;
     protected List<IndexedRow> _indexedRows;
+    protected PriorityQueue<IndexedRow> _topRows;
+    protected int _limit = -1;
+    protected int _rowCount;
 
     static protected class IndexedRow {
         final int index;
@@ -61,30 +73,62 @@ public class SortingRowVisitor extends BaseSorter implements RowVisitor {
         _visitor = visitor;
     }
 
+    /**
+     * Only forward the given number of rows, the first ones in sorting order.
+     * 
+     * @param limit
+     *      the maximum number of rows to forward, or a negative number for no limit
+     */
+    public void setLimit(int limit) {
+        _limit = limit;
+    }
+
+    /**
+     * @return the number of rows visited, including those not forwarded because of the limit
+     */
+    public int getRowCount() {
+        return _rowCount;
+    }
+
+    /**
+     * @return the indices of the forwarded rows, in sorting order. Only valid after
+     *      the visit is over.
+     */
+    public int[] getSortedRowIndices() {
+        int[] indices = new int[_indexedRows.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = _indexedRows.get(i).index;
+        }
+        return indices;
+    }
+
     @Override
     public void start(Project project) {
         int count = project.rows.size();
-        _indexedRows = new ArrayList<IndexedRow>(count);
-        _keys = new ArrayList<Object[]>(count);
+        _rowCount = 0;
+        _keys = new ArrayList<Object[]>(_limit >= 0 ? count : 0);
+        if (_limit >= 0) {
+            _indexedRows = new ArrayList<IndexedRow>(Math.min(_limit, count));
+            // the head of the queue is the last row in sorting order
+            _topRows = new PriorityQueue<IndexedRow>(Math.max(1, Math.min(_limit, count) + 1),
+                    Collections.reverseOrder(getComparator(project)));
+        } else {
+            _indexedRows = new ArrayList<IndexedRow>(count);
+            _topRows = null;
+        }
     }
 
     @Override
     public void end(Project project) {
         _visitor.start(project);
 
-        Collections.sort(_indexedRows, new Comparator<IndexedRow>() {
-            Project project;
-
-            Comparator<IndexedRow> init(Project project) {
-                this.project = project;
-                return this;
-            }
-
-            @Override
-            public int compare(IndexedRow o1, IndexedRow o2) {
-                return SortingRowVisitor.this.compare(project, o1.row, o1.index, o2.row, o2.index);
-            }
-        }.init(project));
+        if (_topRows != null) {
+            _indexedRows.addAll(_topRows);
+            _topRows = null;
+            Collections.sort(_indexedRows, getComparator(project));
+        } else {
+            sortIndexedRows(project);
+        }
 
         for (IndexedRow indexedRow : _indexedRows) {
             _visitor.visit(project, indexedRow.index, indexedRow.row);
@@ -95,10 +139,55 @@ public class SortingRowVisitor extends BaseSorter implements RowVisitor {
 
     @Override
     public boolean visit(Project project, int rowIndex, Row row) {
-        _indexedRows.add(new IndexedRow(rowIndex, row));
+        _rowCount++;
+        if (_topRows != null) {
+            if (_limit > 0) {
+                _topRows.add(new IndexedRow(rowIndex, row));
+                if (_topRows.size() > _limit) {
+                    IndexedRow evicted = _topRows.poll();
+                    // keys of rows out of the top are not needed anymore
+                    _keys.set(evicted.index, null);
+                }
+            }
+        } else {
+            _indexedRows.add(new IndexedRow(rowIndex, row));
+        }
         return false;
     }
 
+    protected void sortIndexedRows(Project project) {
+        int count = _indexedRows.size();
+        Object[] rows = new Object[count];
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            IndexedRow indexedRow = _indexedRows.get(i);
+            rows[i] = indexedRow.row;
+            indices[i] = indexedRow.index;
+        }
+
+        int[] positions = sort(project, rows, indices);
+        List<IndexedRow> sortedRows = new ArrayList<IndexedRow>(count);
+        for (int position : positions) {
+            sortedRows.add(_indexedRows.get(position));
+        }
+        _indexedRows = sortedRows;
+    }
+
+    /**
+     * Orders rows by the sorting criteria, then by row index so that the order
+     * is the same as the one of a stable sort of the rows in visiting order.
+     */
+    protected Comparator<IndexedRow> getComparator(Project project) {
+        return new Comparator<IndexedRow>() {
+
+            @Override
+            public int compare(IndexedRow o1, IndexedRow o2) {
+                int c = SortingRowVisitor.this.compare(project, o1.row, o1.index, o2.row, o2.index);
+                return c != 0 ? c : Integer.compare(o1.index, o2.index);
+            }
+        };
+    }
+
     @Override
     protected Object makeKey(
             Project project, KeyMaker keyMaker, Criterion c, Object o, int index) {
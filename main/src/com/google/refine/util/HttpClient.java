@@ -52,6 +52,17 @@ public class HttpClient {
     }
     
     public HttpClient(int delay) {
+        this(delay, true);
+    }
+
+    /**
+     * @param delay
+     *      the base delay of retries, and the delay between requests if they are spaced
+     * @param spaceRequests
+     *      whether to wait for the delay between requests, which callers
+     *      doing their own rate limiting turn off
+     */
+    public HttpClient(int delay, boolean spaceRequests) {
         _delay = delay;
         // Create a connection manager with a custom socket timeout
         PoolingHttpClientConnectionManager connManager = new PoolingHttpClientConnectionManager();
@@ -59,6 +70,8 @@ public class HttpClient {
             .setSoTimeout(10, TimeUnit.SECONDS)
             .build();
         connManager.setDefaultSocketConfig(socketConfig);
+        // let concurrent requests to the same service, such as reconciliation batches, proceed in parallel
+        connManager.setDefaultMaxPerRoute(20);
 
         defaultRequestConfig = RequestConfig.custom()
                 .setConnectTimeout(30, TimeUnit.SECONDS)
@@ -83,6 +96,9 @@ public class HttpClient {
                             final EntityDetails entity,
                             final HttpContext context) throws HttpException, IOException {
 
+                        if (!spaceRequests) {
+                            return;
+                        }
                         long delay = nextRequestTime - System.currentTimeMillis();
                         if (delay > 0) {
                             try {
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Remembers the most recently compiled regular expressions, so that
+ * functions, facets and operations given the same regular expression for
+ * each row or request do not compile it again.
+ *
+ * Entries are keyed by regular expression and flags. Patterns are immutable
+ * and can be shared between threads.
+ */
+public class PatternCache {
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    static final private PatternCache s_instance = new PatternCache();
+
+    protected final int _maxEntries;
+    protected final Map<String, Pattern> _entries;
+
+    protected long _hits;
+    protected long _misses;
+
+    public PatternCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public PatternCache(int maxEntries) {
+        _maxEntries = maxEntries;
+        _entries = new LinkedHashMap<String, Pattern>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+                return size() > _maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the cache shared by the whole application
+     */
+    static public PatternCache getInstance() {
+        return s_instance;
+    }
+
+    /**
+     * Compiles a regular expression with the shared cache.
+     *
+     * @see Pattern#compile(String, int)
+     */
+    static public Pattern compile(String regex, int flags) {
+        return s_instance.get(regex, flags);
+    }
+
+    static public Pattern compile(String regex) {
+        return s_instance.get(regex, 0);
+    }
+
+    /**
+     * Returns the pattern compiled from the given regular expression, compiling it if needed.
+     *
+     * @throws PatternSyntaxException
+     *      if the expression is invalid, in which case nothing is cached
+     */
+    public Pattern get(String regex, int flags) {
+        String key = flags + ":" + regex;
+        synchronized (_entries) {
+            Pattern pattern = _entries.get(key);
+            if (pattern != null) {
+                _hits++;
+                return pattern;
+            }
+            _misses++;
+        }
+
+        Pattern pattern = Pattern.compile(regex, flags);
+        synchronized (_entries) {
+            _entries.put(key, pattern);
+        }
+        return pattern;
+    }
+
+    public void clear() {
+        synchronized (_entries) {
+            _entries.clear();
+        }
+    }
+
+    public long getHitCount() {
+        synchronized (_entries) {
+            return _hits;
+        }
+    }
+
+    public long getMissCount() {
+        synchronized (_entries) {
+            return _misses;
+        }
+    }
+
+    public int size() {
+        synchronized (_entries) {
+            return _entries.size();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.io.FileProjectManager;
+
+/**
+ * Remembers responses of web services, so that sending the same request
+ * again, from the same project or from another one, does not reach the
+ * service again.
+ *
+ * Responses expire after a configurable time, and the least recently used
+ * ones are dropped when the cache gets over its size budget. The cache is
+ * kept in a file of the workspace directory, so it survives restarts.
+ */
+public class ResponseCache {
+    final static Logger logger = LoggerFactory.getLogger("ResponseCache");
+
+    static final protected int FORMAT_VERSION = 1;
+
+    static protected class CachedResponse {
+        final String response;
+        final long time;
+
+        CachedResponse(String response, long time) {
+            this.response = response;
+            this.time = time;
+        }
+
+        long getSize(String key) {
+            return 64 + 2L * (key.length() + response.length());
+        }
+    }
+
+    protected final String _fileName;
+    protected final String _maxSizePreference;
+    protected final long _defaultMaxSize;
+    protected final String _ttlPreference;
+    protected final long _defaultTtl;
+    protected final TimeUnit _ttlUnit;
+
+    protected final Map<String, CachedResponse> _responses =
+            new LinkedHashMap<String, CachedResponse>(16, 0.75f, true);
+    protected long _size;
+    protected boolean _loaded;
+    protected boolean _dirty;
+
+    protected long _hits;
+    protected long _misses;
+
+    /**
+     * @param fileName
+     *      the name of the file the cache is saved to, in the workspace directory
+     * @param maxSizePreference
+     *      the preference holding the maximum size of the responses, in megabytes
+     * @param defaultMaxSize
+     *      the maximum size when the preference is not set
+     * @param ttlPreference
+     *      the preference holding the time responses are used for, zero
+     *      disabling the cache
+     * @param defaultTtl
+     *      the time responses are used for when the preference is not set
+     * @param ttlUnit
+     *      the unit of the time responses are used for
+     */
+    public ResponseCache(String fileName, String maxSizePreference, long defaultMaxSize,
+            String ttlPreference, long defaultTtl, TimeUnit ttlUnit) {
+        _fileName = fileName;
+        _maxSizePreference = maxSizePreference;
+        _defaultMaxSize = defaultMaxSize;
+        _ttlPreference = ttlPreference;
+        _defaultTtl = defaultTtl;
+        _ttlUnit = ttlUnit;
+    }
+
+    /**
+     * @param key
+     *      what identifies the request
+     * @return the response to the request, or null if it is not cached or has expired
+     */
+    public synchronized String get(String key) {
+        long ttl = getTimeToLive();
+        if (ttl <= 0) {
+            return null;
+        }
+        ensureLoaded();
+
+        CachedResponse cached = _responses.get(key);
+        if (cached != null && getCurrentTime() - cached.time > ttl) {
+            remove(key);
+            cached = null;
+        }
+        if (cached == null) {
+            _misses++;
+            return null;
+        }
+        _hits++;
+        return cached.response;
+    }
+
+    public synchronized void put(String key, String response) {
+        if (getTimeToLive() <= 0) {
+            return;
+        }
+        ensureLoaded();
+
+        remove(key);
+        CachedResponse cached = new CachedResponse(response, getCurrentTime());
+        _responses.put(key, cached);
+        _size += cached.getSize(key);
+        _dirty = true;
+        evict(getMaxSize());
+    }
+
+    /**
+     * Writes the cache to the workspace, if it changed since it was loaded.
+     */
+    public synchronized void save() {
+        File file = getCacheFile();
+        if (!_dirty || file == null) {
+            return;
+        }
+        File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(tempFile))))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(_responses.size());
+                // least recently used first, so that loading keeps the order
+                for (Map.Entry<String, CachedResponse> entry : _responses.entrySet()) {
+                    writeString(out, entry.getKey());
+                    writeString(out, entry.getValue().response);
+                    out.writeLong(entry.getValue().time);
+                }
+            }
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Cannot replace " + file);
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("Cannot rename " + tempFile);
+            }
+            _dirty = false;
+        } catch (IOException e) {
+            logger.warn("Failed to save response cache " + _fileName, e);
+            tempFile.delete();
+        }
+    }
+
+    public synchronized void clear() {
+        _responses.clear();
+        _size = 0;
+        _loaded = true;
+        _dirty = true;
+    }
+
+    public synchronized long getHitCount() {
+        return _hits;
+    }
+
+    public synchronized long getMissCount() {
+        return _misses;
+    }
+
+    public synchronized int size() {
+        return _responses.size();
+    }
+
+    /**
+     * @return an estimate of the memory taken by the cached responses, in bytes
+     */
+    public synchronized long getMemoryUsage() {
+        return _size;
+    }
+
+    protected void ensureLoaded() {
+        if (_loaded) {
+            return;
+        }
+        _loaded = true;
+        File file = getCacheFile();
+        if (file == null || !file.exists()) {
+            return;
+        }
+        long ttl = getTimeToLive();
+        long now = getCurrentTime();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = readString(in);
+                CachedResponse cached = new CachedResponse(readString(in), in.readLong());
+                if (now - cached.time <= ttl) {
+                    _responses.put(key, cached);
+                    _size += cached.getSize(key);
+                }
+            }
+            evict(getMaxSize());
+        } catch (IOException e) {
+            logger.warn("Failed to load response cache " + _fileName, e);
+            _responses.clear();
+            _size = 0;
+        }
+    }
+
+    protected void remove(String key) {
+        CachedResponse cached = _responses.remove(key);
+        if (cached != null) {
+            _size -= cached.getSize(key);
+            _dirty = true;
+        }
+    }
+
+    protected void evict(long maxSize) {
+        Iterator<Map.Entry<String, CachedResponse>> it = _responses.entrySet().iterator();
+        while (_size > maxSize && it.hasNext()) {
+            Map.Entry<String, CachedResponse> eldest = it.next();
+            _size -= eldest.getValue().getSize(eldest.getKey());
+            it.remove();
+            _dirty = true;
+        }
+    }
+
+    protected long getCurrentTime() {
+        return System.currentTimeMillis();
+    }
+
+    protected File getCacheFile() {
+        if (!(ProjectManager.singleton instanceof FileProjectManager)) {
+            return null;
+        }
+        return new File(((FileProjectManager) ProjectManager.singleton).getWorkspaceDir(), _fileName);
+    }
+
+    static protected void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static protected String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    protected long getMaxSize() {
+        return getLongPreference(_maxSizePreference, _defaultMaxSize) * 1024 * 1024;
+    }
+
+    /**
+     * @return the time responses are used for, in milliseconds
+     */
+    public long getTimeToLive() {
+        return _ttlUnit.toMillis(getLongPreference(_ttlPreference, _defaultTtl));
+    }
+
+    static private long getLongPreference(String key, long defaultValue) {
+        return ProjectManager.singleton == null ? defaultValue :
+            ProjectManager.singleton.getPreferenceStore().getLongPreference(key, defaultValue);
+    }
+}
@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Maps strings to the ascending list of rows they occur in.
+ *
+ * Strings are kept in an open-addressed hash table. The rows of each string
+ * are chained through arrays indexed by row, so the index takes a few ints
+ * per row and per distinct string instead of boxed integers, lists and map
+ * entries. A row can be moved from one string to another in place, so the
+ * index can follow changes to the rows it was built from.
+ */
+public class StringRowIndex {
+    static final protected int FORMAT_VERSION = 1;
+
+    protected String[] _keys;
+    protected int[] _heads;
+    protected int[] _tails;
+    protected int[] _counts;
+    protected int _keyCount;
+    protected long _keyBytes;
+
+    protected int[] _next;
+    protected int[] _prev;
+    protected int[] _slotOfRow;
+
+    public StringRowIndex(int rowCount) {
+        allocateTable(16);
+        _next = new int[Math.max(rowCount, 16)];
+        _prev = new int[_next.length];
+        _slotOfRow = new int[_next.length];
+        Arrays.fill(_slotOfRow, -1);
+    }
+
+    /**
+     * @return the rows of the given string in ascending order, or null if there are none
+     */
+    public int[] get(String key) {
+        int slot = find(key);
+        if (slot < 0 || _counts[slot] == 0) {
+            return null;
+        }
+        int[] rows = new int[_counts[slot]];
+        int i = 0;
+        for (int r = _heads[slot]; r >= 0; r = _next[r]) {
+            rows[i++] = r;
+        }
+        return rows;
+    }
+
+    /**
+     * Associates a row with a string, replacing its previous string.
+     *
+     * @param row
+     * @param key
+     *      the string, or null to remove the row from the index
+     */
+    public void set(int row, String key) {
+        remove(row);
+        if (key != null) {
+            add(row, key);
+        }
+    }
+
+    /**
+     * Adds a row, which must not be in the index yet.
+     */
+    public void add(int row, String key) {
+        ensureRowCapacity(row + 1);
+        if ((_keyCount + 1) * 2 > _keys.length) {
+            // only grow the table if it is not mostly made of strings without rows
+            rehash(getLiveKeyCount() * 4 > _keys.length ? _keys.length * 2 : _keys.length);
+        }
+        int slot = findOrInsert(key);
+
+        int head = _heads[slot];
+        if (head < 0) {
+            _heads[slot] = row;
+            _tails[slot] = row;
+            _next[row] = -1;
+            _prev[row] = -1;
+        } else if (row > _tails[slot]) {
+            // rows are usually added in ascending order
+            _next[_tails[slot]] = row;
+            _prev[row] = _tails[slot];
+            _next[row] = -1;
+            _tails[slot] = row;
+        } else if (row < head) {
+            _next[row] = head;
+            _prev[row] = -1;
+            _prev[head] = row;
+            _heads[slot] = row;
+        } else {
+            int r = head;
+            while (_next[r] >= 0 && _next[r] < row) {
+                r = _next[r];
+            }
+            _next[row] = _next[r];
+            _prev[row] = r;
+            _prev[_next[r]] = row;
+            _next[r] = row;
+        }
+        _counts[slot]++;
+        _slotOfRow[row] = slot;
+    }
+
+    public void remove(int row) {
+        if (row >= _slotOfRow.length || _slotOfRow[row] < 0) {
+            return;
+        }
+        int slot = _slotOfRow[row];
+        int prev = _prev[row];
+        int next = _next[row];
+        if (prev < 0) {
+            _heads[slot] = next;
+        } else {
+            _next[prev] = next;
+        }
+        if (next < 0) {
+            _tails[slot] = prev;
+        } else {
+            _prev[next] = prev;
+        }
+        _counts[slot]--;
+        _slotOfRow[row] = -1;
+    }
+
+    /**
+     * @return an estimate of the memory taken by the index, in bytes
+     */
+    public long getMemoryUsage() {
+        return 24L * _keys.length + 12L * _next.length + _keyBytes;
+    }
+
+    /**
+     * @return the number of strings which have rows
+     */
+    public int getLiveKeyCount() {
+        int live = 0;
+        for (int i = 0; i < _keys.length; i++) {
+            if (_keys[i] != null && _counts[i] > 0) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    protected int find(String key) {
+        int mask = _keys.length - 1;
+        for (int slot = hash(key) & mask; _keys[slot] != null; slot = (slot + 1) & mask) {
+            if (_keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    protected int findOrInsert(String key) {
+        int mask = _keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; _keys[slot] != null; slot = (slot + 1) & mask) {
+            if (_keys[slot].equals(key)) {
+                return slot;
+            }
+        }
+        _keys[slot] = key;
+        _heads[slot] = -1;
+        _tails[slot] = -1;
+        _counts[slot] = 0;
+        _keyCount++;
+        _keyBytes += 40 + 2L * key.length();
+        return slot;
+    }
+
+    static protected int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    protected void allocateTable(int capacity) {
+        _keys = new String[capacity];
+        _heads = new int[capacity];
+        _tails = new int[capacity];
+        _counts = new int[capacity];
+        _keyCount = 0;
+        _keyBytes = 0;
+    }
+
+    /**
+     * Rebuilds the table, dropping the strings no row has anymore.
+     */
+    protected void rehash(int capacity) {
+        String[] keys = _keys;
+        int[] heads = _heads;
+        int[] tails = _tails;
+        int[] counts = _counts;
+
+        allocateTable(capacity);
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && counts[i] > 0) {
+                int slot = findOrInsert(keys[i]);
+                _heads[slot] = heads[i];
+                _tails[slot] = tails[i];
+                _counts[slot] = counts[i];
+                for (int r = heads[i]; r >= 0; r = _next[r]) {
+                    _slotOfRow[r] = slot;
+                }
+            }
+        }
+    }
+
+    protected void ensureRowCapacity(int rowCount) {
+        if (rowCount > _next.length) {
+            int capacity = Math.max(rowCount, _next.length + (_next.length >> 1));
+            int oldCapacity = _next.length;
+            _next = Arrays.copyOf(_next, capacity);
+            _prev = Arrays.copyOf(_prev, capacity);
+            _slotOfRow = Arrays.copyOf(_slotOfRow, capacity);
+            Arrays.fill(_slotOfRow, oldCapacity, capacity, -1);
+        }
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(_next.length);
+        out.writeInt(getLiveKeyCount());
+        for (int i = 0; i < _keys.length; i++) {
+            if (_keys[i] != null && _counts[i] > 0) {
+                byte[] bytes = _keys[i].getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.writeInt(_counts[i]);
+                for (int r = _heads[i]; r >= 0; r = _next[r]) {
+                    out.writeInt(r);
+                }
+            }
+        }
+    }
+
+    static public StringRowIndex read(DataInputStream in) throws IOException {
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Unsupported row index version");
+        }
+        StringRowIndex index = new StringRowIndex(in.readInt());
+        int keyCount = in.readInt();
+        index.rehash(Integer.highestOneBit(Math.max(keyCount, 8)) * 4);
+        for (int k = 0; k < keyCount; k++) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            String key = new String(bytes, StandardCharsets.UTF_8);
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                index.add(in.readInt(), key);
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.hc.core5.http.Header;
+
+/**
+ * Remembers the responses of URLs fetched to add columns, so that fetching
+ * them again, after an undo or from another project, does not reach the
+ * server again.
+ *
+ * Responses are keyed by URL and a digest of the request headers.
+ */
+public class UrlResponseCache extends ResponseCache {
+    /**
+     * Maximum size of the cached responses, in megabytes.
+     */
+    public static final String MAX_SIZE_PREFERENCE = "fetching.cache.maxSize";
+    public static final long DEFAULT_MAX_SIZE = 64;
+    /**
+     * Number of hours responses are used for. Zero disables the cache.
+     */
+    public static final String TTL_PREFERENCE = "fetching.cache.ttlHours";
+    public static final long DEFAULT_TTL = 24;
+
+    static final protected String FILE_NAME = "url-fetching-cache.bin";
+
+    public UrlResponseCache() {
+        super(FILE_NAME, MAX_SIZE_PREFERENCE, DEFAULT_MAX_SIZE, TTL_PREFERENCE, DEFAULT_TTL, TimeUnit.HOURS);
+    }
+
+    /**
+     * @return the body of the response to the request, or null if it is not
+     *      cached or has expired
+     */
+    public String get(String url, Header[] headers) {
+        return get(getKey(url, headers));
+    }
+
+    public void put(String url, Header[] headers, String response) {
+        put(getKey(url, headers), response);
+    }
+
+    /**
+     * Headers may hold credentials, such as API keys or cookies, and the cache
+     * is saved to the workspace, so only a digest of them is part of the key.
+     */
+    static protected String getKey(String url, Header[] headers) {
+        if (headers == null || headers.length == 0) {
+            return url;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Header header : headers) {
+            sb.append(header.getName()).append(": ").append(header.getValue()).append('\n');
+        }
+        return url + "\n" + DigestUtils.sha256Hex(sb.toString());
+    }
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.LookupCacheManager.ProjectLookup;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.util.LookupException;
+
+public class LookupCacheManagerTests extends RefineTest {
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    static private class FileLookupCacheManager extends LookupCacheManager {
+        final File _file;
+
+        FileLookupCacheManager(File file) {
+            _file = file;
+        }
+
+        @Override
+        protected File getLookupFile(ProjectLookup lookup) {
+            return _file;
+        }
+
+        @Override
+        protected void computeLookup(ProjectLookup lookup) throws LookupException {
+            Assert.fail("lookup should have been read from disk");
+        }
+    }
+
+    @Test
+    public void testPersistence() throws Exception {
+        Project project = createCSVProject("A,B\nx,1\ny,2\nx,3\n");
+        File file = new File(Files.createTempDirectory("lookups").toFile(), "lookup.idx");
+        ProjectManager.singleton.getPreferenceStore().put(LookupCacheManager.PERSIST_PREFERENCE, true);
+        try {
+            LookupCacheManager manager = new LookupCacheManager() {
+
+                @Override
+                protected File getLookupFile(ProjectLookup lookup) {
+                    return file;
+                }
+            };
+            ProjectLookup lookup = manager.getLookup(project.id, "A");
+            Assert.assertEquals(lookup.getRows("x").size(), 2);
+            manager.updateLookups(project.id, new CellChange(1, 0, null, new Cell("x", null)).getCellChanges(), false);
+            manager.saveLookups(project);
+            Assert.assertTrue(file.exists());
+
+            ProjectLookup loaded = new FileLookupCacheManager(file).getLookup(project.id, "A");
+            Assert.assertEquals(loaded.getRows("x").size(), 3);
+            Assert.assertNull(loaded.getRows("y"));
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(LookupCacheManager.PERSIST_PREFERENCE, null);
+            file.delete();
+            file.getParentFile().delete();
+        }
+    }
+
+    @Test
+    public void testStaleFileIsIgnored() throws Exception {
+        Project project = createCSVProject("A,B\nx,1\ny,2\n");
+        File file = new File(Files.createTempDirectory("lookups").toFile(), "lookup.idx");
+        ProjectManager.singleton.getPreferenceStore().put(LookupCacheManager.PERSIST_PREFERENCE, true);
+        try {
+            LookupCacheManager manager = new LookupCacheManager() {
+
+                @Override
+                protected File getLookupFile(ProjectLookup lookup) {
+                    return file;
+                }
+            };
+            manager.getLookup(project.id, "A");
+            manager.saveLookups(project);
+
+            project.rows.remove(1);
+            Assert.assertFalse(new FileLookupCacheManager(file).loadLookup(new ProjectLookup(project.id, "A")));
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(LookupCacheManager.PERSIST_PREFERENCE, null);
+            file.delete();
+            file.getParentFile().delete();
+        }
+    }
+}
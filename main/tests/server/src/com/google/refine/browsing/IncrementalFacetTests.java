@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.facets.IncrementalFacet;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.MassCellChange;
+import com.google.refine.model.changes.RowStarChange;
+import com.google.refine.util.ParsingUtilities;
+
+public class IncrementalFacetTests extends RefineTest {
+
+    private static final String ENGINE_JSON = "{\"mode\":\"row-based\",\"facets\":["
+            + "{\"type\":\"list\",\"name\":\"A\",\"columnName\":\"A\",\"expression\":\"value\","
+            + "\"omitBlank\":false,\"omitError\":false,\"selection\":[{\"v\":{\"v\":\"x\",\"l\":\"x\"}}],"
+            + "\"selectBlank\":false,\"selectError\":false,\"invert\":false},"
+            + "{\"type\":\"range\",\"name\":\"B\",\"columnName\":\"B\",\"expression\":\"value.toNumber()\","
+            + "\"from\":0,\"to\":30,\"selectNumeric\":true,\"selectNonNumeric\":true,\"selectBlank\":true,\"selectError\":true},"
+            + "{\"type\":\"list\",\"name\":\"B parity\",\"columnName\":\"B\",\"expression\":\"value.toNumber() % 2\","
+            + "\"omitBlank\":false,\"omitError\":false,\"selection\":[],"
+            + "\"selectBlank\":false,\"selectError\":false,\"invert\":false}"
+            + "]}";
+
+    private Project project;
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @BeforeMethod
+    public void setUp() {
+        StringBuilder csv = new StringBuilder("A,B\n");
+        String[] values = { "x", "y", "z" };
+        for (int i = 0; i < 40; i++) {
+            csv.append(values[i % 3]).append(',').append(i).append('\n');
+        }
+        project = createCSVProject(csv.toString());
+    }
+
+    private Engine computeFacets() throws Exception {
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct(ENGINE_JSON));
+        engine.computeFacets();
+        return engine;
+    }
+
+    private JsonNode serialize(Engine engine) throws Exception {
+        JsonNode json = ParsingUtilities.mapper.readTree(ParsingUtilities.mapper.writeValueAsString(engine));
+        for (JsonNode facet : json.get("facets")) {
+            if (facet.has("choices")) {
+                List<JsonNode> choices = new ArrayList<>();
+                facet.get("choices").forEach(choices::add);
+                choices.sort(Comparator.comparing(choice -> choice.get("v").get("v").asText()));
+                ((ObjectNode) facet).set("choices", new ArrayNode(ParsingUtilities.mapper.getNodeFactory(), choices));
+            }
+        }
+        return json;
+    }
+
+    private void applyCellChanges(String columnName, CellChange... cellChanges) {
+        MassCellChange change = new MassCellChange(Arrays.asList(cellChanges), columnName, false);
+        project.history.addEntry(new HistoryEntry(HistoryEntry.allocateID(), project, "Edit cells", null, change));
+    }
+
+    private CellChange cellChange(int rowIndex, String columnName, String value) {
+        int cellIndex = project.columnModel.getColumnByName(columnName).getCellIndex();
+        return new CellChange(rowIndex, cellIndex, project.rows.get(rowIndex).getCell(cellIndex), new Cell(value, null));
+    }
+
+    @Test
+    public void testUpdateAfterCellChanges() throws Exception {
+        Engine before = computeFacets();
+        Object listState = ((IncrementalFacet) before._facets.get(0)).getChoicesState();
+
+        applyCellChanges("A", cellChange(0, "A", "y"), cellChange(1, "A", "x"), cellChange(2, "A", "w"));
+        applyCellChanges("B", cellChange(3, "B", "5"), cellChange(6, "B", "oops"), cellChange(1, "B", ""));
+        Engine updated = computeFacets();
+
+        // the state was reused rather than computed again
+        Assert.assertSame(((IncrementalFacet) updated._facets.get(0)).getChoicesState(), listState);
+
+        ProjectManager.singleton.getFacetStateCache().flushProject(project.id);
+        Engine recomputed = computeFacets();
+        Assert.assertEquals(serialize(updated), serialize(recomputed));
+        Assert.assertNotEquals(serialize(before), serialize(recomputed));
+    }
+
+    @Test
+    public void testNoUpdateAfterOtherChanges() throws Exception {
+        Engine before = computeFacets();
+        Object listState = ((IncrementalFacet) before._facets.get(0)).getChoicesState();
+
+        project.history.addEntry(new HistoryEntry(HistoryEntry.allocateID(), project, "Star row", null,
+                new RowStarChange(0, true)));
+        Engine updated = computeFacets();
+
+        Assert.assertNotSame(((IncrementalFacet) updated._facets.get(0)).getChoicesState(), listState);
+    }
+}
@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class FilteredRowIndexCacheTests extends RefineTest {
+
+    private static final String ENGINE_JSON = "{\"mode\":\"row-based\",\"facets\":["
+            + "{\"type\":\"list\",\"name\":\"A\",\"columnName\":\"A\",\"expression\":\"value\","
+            + "\"omitBlank\":false,\"omitError\":false,\"selection\":[{\"v\":{\"v\":\"x\",\"l\":\"x\"}}],"
+            + "\"selectBlank\":false,\"selectError\":false,\"invert\":false}"
+            + "]}";
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    private List<Integer> visitedRows(Project project, FilteredRows filteredRows) {
+        List<Integer> rowIndices = new ArrayList<>();
+        filteredRows.accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                rowIndices.add(rowIndex);
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        return rowIndices;
+    }
+
+    @Test
+    public void testCachedFilteredRows() {
+        Project project = createCSVProject("A\nx\ny\nx\nz\n");
+        FilteredRowIndexCache cache = ProjectManager.singleton.getFilteredRowIndexCache();
+        long misses = cache.getMissCount();
+        long hits = cache.getHitCount();
+
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct(ENGINE_JSON));
+        Assert.assertEquals(visitedRows(project, engine.getAllFilteredRows()), Arrays.asList(0, 2));
+
+        Engine otherEngine = new Engine(project);
+        otherEngine.initializeFromConfig(EngineConfig.reconstruct(ENGINE_JSON));
+        FilteredRows cached = otherEngine.getAllFilteredRows();
+        Assert.assertEquals(visitedRows(project, cached), Arrays.asList(0, 2));
+        Assert.assertEquals(cache.getMissCount(), misses + 1);
+        Assert.assertEquals(cache.getHitCount(), hits + 1);
+
+        project.dispose();
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testUnknownDependenciesNotCached() {
+        Project project = createCSVProject("A\nx\ny\nx\nz\n");
+        FilteredRowIndexCache cache = ProjectManager.singleton.getFilteredRowIndexCache();
+        long misses = cache.getMissCount();
+        int size = cache.size();
+
+        String engineJson = ENGINE_JSON.replace("\"expression\":\"value\"",
+                "\"expression\":\"value + now().toString().substring(0, 0)\"");
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct(engineJson));
+        Assert.assertEquals(visitedRows(project, engine.getAllFilteredRows()), Arrays.asList(0, 2));
+        Assert.assertEquals(cache.getMissCount(), misses);
+        Assert.assertEquals(cache.size(), size);
+
+        project.dispose();
+    }
+
+    @Test
+    public void testRangedAccess() {
+        Project project = createCSVProject("A\nx\ny\nx\nz\nx\n");
+        FilteredRowIndexCache cache = new FilteredRowIndexCache(1);
+        ConjunctiveFilteredRows filter = new ConjunctiveFilteredRows();
+        filter.add((p, rowIndex, row) -> "x".equals(row.getCellValue(0)));
+
+        FilteredRows filteredRows = cache.getFilteredRows(project, "key", filter);
+        List<Integer> rowIndices = new ArrayList<>();
+        filteredRows.accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                rowIndices.add(rowIndex);
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        }, 1, 5);
+        Assert.assertEquals(rowIndices, Arrays.asList(2, 4));
+    }
+
+    @Test
+    public void testEviction() {
+        Project project = createCSVProject("A\nx\ny\n");
+        FilteredRowIndexCache cache = new FilteredRowIndexCache(2);
+        ConjunctiveFilteredRows filter = new ConjunctiveFilteredRows();
+
+        cache.getFilteredRows(project, "a", filter);
+        cache.getFilteredRows(project, "b", filter);
+        cache.getFilteredRows(project, "a", filter);
+        cache.getFilteredRows(project, "c", filter);
+        Assert.assertEquals(cache.size(), 2);
+
+        cache.getFilteredRows(project, "a", filter);
+        Assert.assertEquals(cache.getHitCount(), 2);
+        cache.getFilteredRows(project, "b", filter);
+        Assert.assertEquals(cache.getMissCount(), 4);
+    }
+}
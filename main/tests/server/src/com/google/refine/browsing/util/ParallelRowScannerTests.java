@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.FilteredRows;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.browsing.facets.ListFacet;
+import com.google.refine.browsing.facets.ListFacet.ListFacetConfig;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.expr.SynchronizedEvaluable;
+import com.google.refine.model.Cell;
+import com.google.refine.model.ModelException;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.util.TestUtils;
+
+public class ParallelRowScannerTests extends RefineTest {
+
+    private static final int ROW_COUNT = 3 * ParallelRowScanner.MIN_CHUNK_SIZE + 17;
+
+    private Project project;
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @BeforeMethod
+    public void setUp() throws IOException, ModelException {
+        project = createProjectWithColumns("ParallelRowScannerTests", "Col1");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Row row = new Row(1);
+            if (i % 5 == 0) {
+                row.setCell(0, new Cell("", null));
+            } else {
+                row.setCell(0, new Cell(i % 7, null));
+            }
+            project.rows.add(row);
+        }
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectManager.singleton.getPreferenceStore().put(ParallelRowScanner.PARALLELISM_PREFERENCE, null);
+        project = null;
+    }
+
+    private ExpressionNominalValueGrouper scanWithParallelism(int parallelism) throws Exception {
+        ProjectManager.singleton.getPreferenceStore().put(ParallelRowScanner.PARALLELISM_PREFERENCE, parallelism);
+        FilteredRows allRows = new ConjunctiveFilteredRows();
+        Evaluable eval = MetaParser.parse("value");
+        return ParallelRowScanner.scan(
+                project,
+                allRows,
+                () -> new ExpressionNominalValueGrouper(eval, "Col1", 0),
+                ExpressionNominalValueGrouper::merge);
+    }
+
+    @Test
+    public void testParallelScanMatchesSequentialScan() throws Exception {
+        ExpressionNominalValueGrouper sequential = scanWithParallelism(1);
+        ExpressionNominalValueGrouper parallel = scanWithParallelism(4);
+
+        Assert.assertEquals(parallel.blankCount, sequential.blankCount);
+        Assert.assertEquals(parallel.errorCount, sequential.errorCount);
+        Assert.assertEquals(parallel.choices.keySet(), sequential.choices.keySet());
+        for (Object key : sequential.choices.keySet()) {
+            Assert.assertEquals(parallel.choices.get(key).count, sequential.choices.get(key).count);
+        }
+    }
+
+    @Test
+    public void testRangedAccept() {
+        int[] count = new int[1];
+        new ConjunctiveFilteredRows().accept(project, new RowVisitorStub(count), 10, 30);
+        Assert.assertEquals(count[0], 20);
+    }
+
+    @Test
+    public void testParallelFacetComputation() throws Exception {
+        ProjectManager.singleton.getPreferenceStore().put(ParallelRowScanner.PARALLELISM_PREFERENCE, 3);
+        ListFacetConfig config = new ListFacetConfig();
+        config.columnName = "Col1";
+        config.expression = "value";
+        config.name = "Col1";
+        ListFacet facet = (ListFacet) config.apply(project);
+        facet.computeChoices(project, new ConjunctiveFilteredRows());
+
+        Assert.assertEquals(facet.getChoices().size(), 7);
+        TestUtils.isSerializedTo(facet.getBlankChoice(),
+                "{\"s\":false,\"c\":" + ((ROW_COUNT + 4) / 5) + "}");
+    }
+
+    @Test
+    public void testNonThreadSafeLanguageEvaluatedSerially() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        MetaParser.registerLanguageParser("serialtest", "Serial test", s -> (bindings -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.yield();
+            running.decrementAndGet();
+            return bindings.get("value");
+        }), "value");
+        Assert.assertFalse(MetaParser.isThreadSafe("serialtest:value"));
+        Assert.assertTrue(MetaParser.isThreadSafe("grel:value"));
+        Assert.assertFalse(MetaParser.parse("grel:value") instanceof SynchronizedEvaluable);
+
+        ProjectManager.singleton.getPreferenceStore().put(ParallelRowScanner.PARALLELISM_PREFERENCE, 4);
+        Evaluable eval = MetaParser.parse("serialtest:value");
+        Assert.assertTrue(eval instanceof SynchronizedEvaluable);
+        ExpressionNominalValueGrouper grouper = ParallelRowScanner.scan(
+                project,
+                new ConjunctiveFilteredRows(),
+                () -> new ExpressionNominalValueGrouper(eval, "Col1", 0),
+                ExpressionNominalValueGrouper::merge);
+
+        Assert.assertEquals(grouper.choices.size(), 7);
+        Assert.assertEquals(maxRunning.get(), 1);
+    }
+
+    @Test
+    public void testScanAfterParallelismChange() throws Exception {
+        ExpressionNominalValueGrouper before = scanWithParallelism(2);
+        ExpressionNominalValueGrouper after = scanWithParallelism(3);
+        Assert.assertEquals(after.blankCount, before.blankCount);
+        Assert.assertEquals(after.choices.keySet(), before.choices.keySet());
+    }
+
+    private static class RowVisitorStub implements RowVisitor {
+        private final int[] _count;
+
+        RowVisitorStub(int[] count) {
+            _count = count;
+        }
+
+        @Override
+        public void start(Project project) {
+        }
+
+        @Override
+        public boolean visit(Project project, int rowIndex, Row row) {
+            _count[0]++;
+            return false;
+        }
+
+        @Override
+        public void end(Project project) {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.RowFilter;
+import com.google.refine.browsing.RowVisitor;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.util.TestUtils;
+
+public class RowFilterMasksTests extends RefineTest {
+
+    private static final String ENGINE_JSON = "{\"mode\":\"row-based\",\"facets\":["
+            + "{\"type\":\"list\",\"name\":\"A\",\"columnName\":\"A\",\"expression\":\"value\","
+            + "\"omitBlank\":false,\"omitError\":false,\"selection\":[{\"v\":{\"v\":\"x\",\"l\":\"x\"}}],"
+            + "\"selectBlank\":false,\"selectError\":false,\"invert\":false},"
+            + "{\"type\":\"list\",\"name\":\"B\",\"columnName\":\"B\",\"expression\":\"value\","
+            + "\"omitBlank\":false,\"omitError\":false,\"selection\":[{\"v\":{\"v\":\"1\",\"l\":\"1\"}}],"
+            + "\"selectBlank\":false,\"selectError\":false,\"invert\":false},"
+            + "{\"type\":\"list\",\"name\":\"A again\",\"columnName\":\"A\",\"expression\":\"value\","
+            + "\"omitBlank\":false,\"omitError\":false,\"selection\":[],"
+            + "\"selectBlank\":false,\"selectError\":false,\"invert\":false}"
+            + "]}";
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    private Project createProject() {
+        return createCSVProject("A,B\n"
+                + "x,1\n"
+                + "x,2\n"
+                + "y,1\n"
+                + "y,2\n"
+                + "y,1\n");
+    }
+
+    private List<Integer> visitedRows(Project project, RowFilterMasks masks, int filterIndex) {
+        List<Integer> rowIndices = new ArrayList<>();
+        masks.getFilteredRows(filterIndex).accept(project, new RowVisitor() {
+
+            @Override
+            public void start(Project project) {
+            }
+
+            @Override
+            public boolean visit(Project project, int rowIndex, Row row) {
+                rowIndices.add(rowIndex);
+                return false;
+            }
+
+            @Override
+            public void end(Project project) {
+            }
+        });
+        return rowIndices;
+    }
+
+    @Test
+    public void testMasks() {
+        Project project = createProject();
+        RowFilter isX = (p, rowIndex, row) -> "x".equals(row.getCellValue(0));
+        RowFilter isOne = (p, rowIndex, row) -> "1".equals(row.getCellValue(1));
+
+        RowFilterMasks masks = new RowFilterMasks(project, Arrays.asList(isX, null, isOne));
+
+        Assert.assertEquals(visitedRows(project, masks, -1), Arrays.asList(0));
+        Assert.assertEquals(visitedRows(project, masks, 0), Arrays.asList(0, 2, 4));
+        Assert.assertEquals(visitedRows(project, masks, 1), Arrays.asList(0));
+        Assert.assertEquals(visitedRows(project, masks, 2), Arrays.asList(0, 1));
+    }
+
+    @Test
+    public void testComputeFacetsWithSharedScan() {
+        Project project = createProject();
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct(ENGINE_JSON));
+
+        engine.computeFacets();
+
+        TestUtils.isSerializedTo(engine, "{\"engine-mode\":\"row-based\",\"facets\":["
+                + "{\"name\":\"A\",\"expression\":\"value\",\"columnName\":\"A\",\"invert\":false,\"choices\":["
+                + "{\"v\":{\"v\":\"x\",\"l\":\"x\"},\"c\":1,\"s\":true},{\"v\":{\"v\":\"y\",\"l\":\"y\"},\"c\":2,\"s\":false}]},"
+                + "{\"name\":\"B\",\"expression\":\"value\",\"columnName\":\"B\",\"invert\":false,\"choices\":["
+                + "{\"v\":{\"v\":\"1\",\"l\":\"1\"},\"c\":1,\"s\":true},{\"v\":{\"v\":\"2\",\"l\":\"2\"},\"c\":1,\"s\":false}]},"
+                + "{\"name\":\"A again\",\"expression\":\"value\",\"columnName\":\"A\",\"invert\":false,\"choices\":["
+                + "{\"v\":{\"v\":\"x\",\"l\":\"x\"},\"c\":1,\"s\":false}]}"
+                + "]}");
+    }
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.browsing.util;
+
+import java.util.Arrays;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.MassCellChange;
+
+public class ValueCountIndexCacheTests extends RefineTest {
+
+    private static final String ENGINE_JSON = "{\"mode\":\"row-based\",\"facets\":["
+            + "{\"type\":\"list\",\"name\":\"A\",\"columnName\":\"A\",\"expression\":\"value\","
+            + "\"omitBlank\":false,\"omitError\":false,\"selection\":[{\"v\":{\"v\":\"x\",\"l\":\"x\"}}],"
+            + "\"selectBlank\":false,\"selectError\":false,\"invert\":false}"
+            + "]}";
+
+    private Project project;
+    private ValueCountIndexCache cache;
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @BeforeMethod
+    public void setUp() {
+        StringBuilder csv = new StringBuilder("A,B\nx,1\ny,2\nx,3\nz,4\n,5\n");
+        for (int i = 0; i < 40; i++) {
+            csv.append("q,").append(i).append('\n');
+        }
+        project = createCSVProject(csv.toString());
+        cache = ProjectManager.singleton.getValueCountIndexCache();
+    }
+
+    private ExpressionNominalValueGrouper getValueCounts(String columnName, String expression) throws Exception {
+        int cellIndex = project.columnModel.getColumnByName(columnName).getCellIndex();
+        return cache.getValueCounts(project, columnName, cellIndex, expression, MetaParser.parse(expression));
+    }
+
+    private void applyCellChanges(String columnName, CellChange... cellChanges) {
+        MassCellChange change = new MassCellChange(Arrays.asList(cellChanges), columnName, false);
+        project.history.addEntry(new HistoryEntry(HistoryEntry.allocateID(), project, "Edit cells", null, change));
+    }
+
+    private CellChange cellChange(int rowIndex, String columnName, String value) {
+        int cellIndex = project.columnModel.getColumnByName(columnName).getCellIndex();
+        return new CellChange(rowIndex, cellIndex, project.rows.get(rowIndex).getCell(cellIndex), new Cell(value, null));
+    }
+
+    @Test
+    public void testSharedCounts() throws Exception {
+        ExpressionNominalValueGrouper counts = getValueCounts("A", "value");
+        Assert.assertEquals(counts.getChoiceValueCount("x"), Integer.valueOf(2));
+        Assert.assertEquals(counts.blankCount, 1);
+        Assert.assertSame(getValueCounts("A", "value"), counts);
+        Assert.assertEquals(cache.getHitCount(), 1);
+
+        // a list facet without other filters uses the same counts
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct(ENGINE_JSON));
+        engine.computeFacets();
+        Assert.assertEquals(cache.getHitCount(), 2);
+        Assert.assertFalse(counts.choices.get("x").selected);
+    }
+
+    @Test
+    public void testUpdateAfterCellChanges() throws Exception {
+        ExpressionNominalValueGrouper counts = getValueCounts("A", "value");
+        applyCellChanges("A", cellChange(0, "A", "y"), cellChange(4, "A", "w"));
+
+        ExpressionNominalValueGrouper updated = getValueCounts("A", "value");
+        Assert.assertNotSame(updated, counts);
+        Assert.assertEquals(updated.getChoiceValueCount("x"), Integer.valueOf(1));
+        Assert.assertEquals(updated.getChoiceValueCount("y"), Integer.valueOf(2));
+        Assert.assertEquals(updated.getChoiceValueCount("w"), Integer.valueOf(1));
+        Assert.assertEquals(updated.blankCount, 0);
+        // the counts returned before are left as they were
+        Assert.assertEquals(counts.getChoiceValueCount("x"), Integer.valueOf(2));
+
+        // changes to other columns keep the counts
+        applyCellChanges("B", cellChange(0, "B", "10"));
+        Assert.assertSame(getValueCounts("A", "value"), updated);
+    }
+
+    @Test
+    public void testRecomputeAfterUndo() throws Exception {
+        getValueCounts("A", "value");
+        applyCellChanges("A", cellChange(0, "A", "y"));
+        getValueCounts("A", "value");
+        project.history.undoRedo(0);
+
+        Assert.assertEquals(getValueCounts("A", "value").getChoiceValueCount("x"), Integer.valueOf(2));
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        ProjectManager.singleton.getPreferenceStore().put(ValueCountIndexCache.MAX_MEMORY_PREFERENCE, 0);
+        try {
+            getValueCounts("A", "value");
+            getValueCounts("B", "value");
+            Assert.assertEquals(cache.size(), 1);
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(ValueCountIndexCache.MAX_MEMORY_PREFERENCE, null);
+        }
+    }
+
+    @Test
+    public void testUnknownDependenciesNotCached() throws Exception {
+        String expression = "value + facetCount(value, \"value\", \"A\")";
+        ExpressionNominalValueGrouper counts = getValueCounts("A", expression);
+        Assert.assertEquals(counts.getChoiceValueCount("x2"), Integer.valueOf(2));
+        Assert.assertNotSame(getValueCounts("A", expression), counts);
+        // only the counts of the inner facetCount() are kept
+        Assert.assertEquals(cache.size(), 1);
+    }
+}
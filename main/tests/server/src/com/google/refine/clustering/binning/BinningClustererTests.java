@@ -37,6 +37,7 @@ import com.fasterxml.jackson.databind.JsonMappingException;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.Engine;
 import com.google.refine.clustering.binning.BinningClusterer.BinningClustererConfig;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
@@ -96,4 +97,22 @@ public class BinningClustererTests extends RefineTest {
         clusterer.computeClusters(new Engine(project));
         assertEquals(clusterer.getJsonRepresentation().size(), 1);
     }
+
+    @Test
+    public void testEmptyStringsClustered() throws JsonParseException, JsonMappingException, IOException {
+        Project project = createCSVProject("column\n"
+                + "a\n"
+                + "b\n"
+                + "c\n"
+                + "d\n"
+                + "e\n");
+        project.rows.get(1).setCell(0, new Cell(" ", null));
+        project.rows.get(2).setCell(0, new Cell("", null));
+        project.rows.get(3).setCell(0, new Cell("", null));
+        project.rows.get(4).setCell(0, null);
+        BinningClustererConfig config = ParsingUtilities.mapper.readValue(configJson, BinningClustererConfig.class);
+        BinningClusterer clusterer = config.apply(project);
+        clusterer.computeClusters(new Engine(project));
+        TestUtils.isSerializedTo(clusterer, "[[{\"v\":\"\",\"c\":2},{\"v\":\" \",\"c\":1}]]");
+    }
 }
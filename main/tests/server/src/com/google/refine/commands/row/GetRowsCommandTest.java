@@ -32,24 +32,32 @@ import static org.mockito.Mockito.when;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
-import com.google.refine.commands.Command;
+import com.google.refine.browsing.Engine;
+import com.google.refine.browsing.EngineConfig;
 import com.google.refine.model.Project;
+import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
 
 public class GetRowsCommandTest extends RefineTest {
     
     HttpServletRequest request = null;
     HttpServletResponse response = null;
-    Command command = null;
+    GetRowsCommand command = null;
     Project project = null;
     StringWriter writer = null;
     
@@ -138,4 +146,62 @@ public class GetRowsCommandTest extends RefineTest {
         command.doPost(request, response);
         TestUtils.assertEqualsAsJson(writer.toString(), recordJson);
     }
+    
+    @Test
+    public void testSortedPages() throws ServletException, IOException {
+        Project sortedProject = createCSVProject("a\nd\nb\ne\nb\na\nc\n");
+        when(request.getParameter("project")).thenReturn(String.valueOf(sortedProject.id));
+        when(request.getParameter("engine")).thenReturn("{\"mode\":\"row-based\",\"facets\":[]}");
+        when(request.getParameter("sorting")).thenReturn("{\"criteria\":[{\"valueType\":\"string\","
+                + "\"column\":\"a\",\"reverse\":false,\"blankPosition\":2,\"errorPosition\":1,"
+                + "\"caseSensitive\":false}]}");
+        when(request.getParameter("limit")).thenReturn("2");
+        
+        when(request.getParameter("start")).thenReturn("0");
+        Assert.assertEquals(getRowIndices(), Arrays.asList(4, 1));
+        Assert.assertEquals(ProjectManager.singleton.getSortedRowIndexCache().get(sortedProject,
+                command.getSortedRowsCacheKey(createEngine(sortedProject, request.getParameter("engine")),
+                        request.getParameter("sorting"))), null);
+        
+        when(request.getParameter("start")).thenReturn("2");
+        Assert.assertEquals(getRowIndices(), Arrays.asList(3, 5));
+        // served from the cached order
+        when(request.getParameter("start")).thenReturn("4");
+        Assert.assertEquals(getRowIndices(), Arrays.asList(0, 2));
+        when(request.getParameter("start")).thenReturn("0");
+        Assert.assertEquals(getRowIndices(), Arrays.asList(4, 1));
+    }
+    
+    @Test
+    public void testSortedRowsNotCachedWithUnknownDependencies() {
+        Project sortedProject = createCSVProject("a\nd\nb\ne\n");
+        String sortingJson = "{\"criteria\":[{\"valueType\":\"string\",\"column\":\"a\"}]}";
+        String engineJson = "{\"mode\":\"row-based\",\"facets\":["
+                + "{\"type\":\"list\",\"name\":\"a\",\"columnName\":\"a\",\"expression\":\"%s\","
+                + "\"omitBlank\":false,\"omitError\":false,\"selection\":[{\"v\":{\"v\":\"b\",\"l\":\"b\"}}],"
+                + "\"selectBlank\":false,\"selectError\":false,\"invert\":false}]}";
+
+        Assert.assertNotNull(command.getSortedRowsCacheKey(
+                createEngine(sortedProject, String.format(engineJson, "value")), sortingJson));
+        Assert.assertNull(command.getSortedRowsCacheKey(
+                createEngine(sortedProject, String.format(engineJson, "value + now().toString().substring(0, 0)")), sortingJson));
+    }
+
+    private Engine createEngine(Project project, String engineJson) {
+        Engine engine = new Engine(project);
+        engine.initializeFromConfig(EngineConfig.reconstruct(engineJson));
+        return engine;
+    }
+    
+    private List<Integer> getRowIndices() throws ServletException, IOException {
+        writer.getBuffer().setLength(0);
+        command.doPost(request, response);
+        JsonNode result = ParsingUtilities.mapper.readTree(writer.toString());
+        Assert.assertEquals(result.get("filtered").asInt(), 6);
+        List<Integer> rowIndices = new ArrayList<>();
+        for (JsonNode row : result.get("rows")) {
+            rowIndices.add(row.get("i").asInt());
+        }
+        return rowIndices;
+    }
 }
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.expr;
+
+import java.util.Properties;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class BindingsTests extends RefineTest {
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    private Object evaluate(Properties bindings, String expression) throws ParsingException {
+        return MetaParser.parse("grel:" + expression).evaluate(bindings);
+    }
+
+    @Test
+    public void testSlotVariables() throws ParsingException {
+        Project project = createCSVProject("A,B\nx,1\ny,2\n");
+        Properties bindings = ExpressionUtils.createBindings(project);
+        Assert.assertTrue(bindings instanceof Bindings);
+
+        Row row = project.rows.get(1);
+        ExpressionUtils.bind(bindings, row, 1, "A", row.getCell(0));
+
+        Assert.assertEquals(evaluate(bindings, "value"), "y");
+        Assert.assertEquals(evaluate(bindings, "cell.value"), "y");
+        Assert.assertEquals(evaluate(bindings, "cells.B.value"), "2");
+        Assert.assertEquals(evaluate(bindings, "row.index"), 1);
+        Assert.assertEquals(evaluate(bindings, "rowIndex"), 1);
+        Assert.assertEquals(evaluate(bindings, "columnName"), "A");
+        Assert.assertEquals(evaluate(bindings, "PI"), Math.PI);
+        Assert.assertSame(bindings.get("project"), project);
+
+        // wrappers are created once per row
+        Assert.assertSame(bindings.get("row"), bindings.get("row"));
+        Object wrappedRow = bindings.get("row");
+        ExpressionUtils.bind(bindings, project.rows.get(0), 0, "A", project.rows.get(0).getCell(0));
+        Assert.assertNotSame(bindings.get("row"), wrappedRow);
+        Assert.assertEquals(evaluate(bindings, "value"), "x");
+    }
+
+    @Test
+    public void testOverriddenSlots() throws ParsingException {
+        Project project = createCSVProject("A\nx\n");
+        Properties bindings = ExpressionUtils.createBindings(project);
+        Row row = project.rows.get(0);
+        ExpressionUtils.bind(bindings, row, 0, "A", row.getCell(0));
+
+        Assert.assertEquals(evaluate(bindings, "forEach(['a','b'], value, value + '!').join(',')"), "a!,b!");
+        Assert.assertEquals(evaluate(bindings, "value"), "x");
+
+        bindings.remove("value");
+        Assert.assertFalse(bindings.containsKey("value"));
+        Assert.assertNull(evaluate(bindings, "value"));
+
+        ExpressionUtils.bind(bindings, row, 0, null, new Cell(null, null));
+        Assert.assertNull(evaluate(bindings, "value"));
+        Assert.assertEquals(evaluate(bindings, "columnName"), "A");
+
+        ExpressionUtils.bind(bindings, row, 0, "A", null);
+        Assert.assertNull(bindings.get("cell"));
+    }
+
+    @Test
+    public void testPlainProperties() throws ParsingException {
+        Properties bindings = new Properties();
+        bindings.put("value", "plain");
+        Assert.assertEquals(evaluate(bindings, "value"), "plain");
+    }
+}
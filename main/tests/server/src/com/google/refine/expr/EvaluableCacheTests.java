@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.expr;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.grel.ControlFunctionRegistry;
+import com.google.refine.grel.ExpressionCompiler;
+
+public class EvaluableCacheTests extends RefineTest {
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectManager.singleton.getPreferenceStore().put(ExpressionCompiler.COMPILE_PREFERENCE, null);
+    }
+
+    @Test
+    public void testParsedExpressionsAreShared() throws ParsingException {
+        EvaluableCache cache = MetaParser.getCache();
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+
+        Evaluable first = MetaParser.parse("grel:value + 'cached'");
+        Evaluable second = MetaParser.parse("value + 'cached'");
+        Evaluable third = MetaParser.parse("gel:value + 'cached'");
+        Assert.assertSame(second, first);
+        Assert.assertSame(third, first);
+        Assert.assertEquals(cache.getMissCount(), misses + 1);
+        Assert.assertEquals(cache.getHitCount(), hits + 2);
+
+        ProjectManager.singleton.getPreferenceStore().put(ExpressionCompiler.COMPILE_PREFERENCE, false);
+        Assert.assertNotSame(MetaParser.parse("value + 'cached'"), first);
+    }
+
+    @Test
+    public void testParsingErrorsAreNotCached() {
+        EvaluableCache cache = new EvaluableCache();
+        for (int i = 0; i < 2; i++) {
+            try {
+                cache.get("grel", "1-1-", MetaParser::parseGREL);
+                Assert.fail("Expected a parsing error");
+            } catch (ParsingException e) {
+                // expected
+            }
+        }
+        Assert.assertEquals(cache.size(), 0);
+        Assert.assertEquals(cache.getMissCount(), 2);
+    }
+
+    @Test
+    public void testEviction() throws ParsingException {
+        EvaluableCache cache = new EvaluableCache(2);
+        cache.get("grel", "1", MetaParser::parseGREL);
+        cache.get("grel", "2", MetaParser::parseGREL);
+        cache.get("grel", "1", MetaParser::parseGREL);
+        cache.get("grel", "3", MetaParser::parseGREL);
+        Assert.assertEquals(cache.size(), 2);
+
+        cache.get("grel", "1", MetaParser::parseGREL);
+        Assert.assertEquals(cache.getHitCount(), 2);
+        cache.get("grel", "2", MetaParser::parseGREL);
+        Assert.assertEquals(cache.getMissCount(), 4);
+    }
+
+    @Test
+    public void testConcurrentEvaluation() throws ParsingException {
+        Evaluable eval = MetaParser.parse("forEach(value.split(','), v, v.toNumber() * 2).join('-')");
+        List<Object> results = IntStream.range(0, 1000).parallel().mapToObj(i -> {
+            Properties bindings = new Properties();
+            bindings.put("value", i + "," + (i + 1));
+            return eval.evaluate(bindings);
+        }).collect(Collectors.toList());
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(results.get(i), (2 * i) + "-" + (2 * i + 2));
+        }
+    }
+
+    @Test
+    public void testConcurrentParsing() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        Callable<Evaluable> parse = () -> {
+            barrier.await();
+            return MetaParser.parse("value + ' parsed concurrently'");
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Evaluable> first = executor.submit(parse);
+            Future<Evaluable> second = executor.submit(parse);
+
+            Properties bindings = new Properties();
+            bindings.put("value", "expression");
+            Assert.assertEquals(first.get().evaluate(bindings), "expression parsed concurrently");
+            Assert.assertEquals(second.get().evaluate(bindings), "expression parsed concurrently");
+            Assert.assertSame(MetaParser.parse("value + ' parsed concurrently'"), second.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEvaluablesOfOtherLanguages() throws ParsingException {
+        LanguageSpecificParser parser = source -> new Evaluable() {
+            @Override
+            public Object evaluate(Properties bindings) {
+                return source + bindings.get("value");
+            }
+        };
+        MetaParser.registerLanguageParser("shared", "Shared", parser, "", true);
+        MetaParser.registerLanguageParser("wrapped", "Wrapped", parser, "");
+        try {
+            // evaluables of thread-safe languages are shared as they are
+            Evaluable shared = MetaParser.parse("shared:value=");
+            Assert.assertSame(MetaParser.parse("shared:value="), shared);
+            Assert.assertFalse(shared instanceof SynchronizedEvaluable);
+
+            // others are evaluated one at a time
+            Evaluable wrapped = MetaParser.parse("wrapped:value=");
+            Assert.assertSame(MetaParser.parse("wrapped:value="), wrapped);
+            Assert.assertTrue(wrapped instanceof SynchronizedEvaluable);
+
+            Properties bindings = new Properties();
+            bindings.put("value", "x");
+            Assert.assertEquals(shared.evaluate(bindings), "value=x");
+            Assert.assertEquals(wrapped.evaluate(bindings), "value=x");
+        } finally {
+            MetaParser.s_languages.remove("shared");
+            MetaParser.s_languages.remove("wrapped");
+        }
+    }
+
+    @Test
+    public void testRegisteringFunctionsClearsCache() throws ParsingException {
+        MetaParser.parse("value + 'before registering'");
+        Assert.assertTrue(MetaParser.getCache().size() > 0);
+
+        ControlFunctionRegistry.registerFunction("toString", ControlFunctionRegistry.getFunction("toString"));
+        Assert.assertEquals(MetaParser.getCache().size(), 0);
+    }
+}
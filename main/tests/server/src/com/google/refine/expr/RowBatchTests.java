@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.expr;
+
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.grel.Function;
+import com.google.refine.grel.ast.FunctionCallExpr;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class RowBatchTests extends RefineTest {
+
+    static final String[] EXPRESSIONS = {
+            "value",
+            "'constant'",
+            "value.trim()",
+            "value.toLowercase()",
+            "value.toUppercase()",
+            "value.replace('a', 'o')",
+            "value.replace(/[aeiou]/, '_')",
+            "value.replace(/a/, 1)",
+            "value.toNumber()",
+            "value.toNumber().round()",
+            "value.toNumber().floor()",
+            "value.toNumber().ceil()",
+            "abs(value.toNumber() - 10)",
+            "value.trim().toLowercase() + '!'",
+            "value.length() > 3",
+            "value + rowIndex",
+            "cells['A'].value + '|' + row.index",
+            "if(isBlank(value), 'blank', value)",
+            "value.toNumber() / 0",
+            "value.datePart()",
+    };
+
+    static final Serializable[] VALUES = { " Banana ", "apple", "12", "-3.7", 42L, 2.5, null, "" };
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    private Project createProject() {
+        Project project = createCSVProject("A\nx\n");
+        project.rows.clear();
+        for (Serializable value : VALUES) {
+            Row row = new Row(1);
+            if (value != null) {
+                row.setCell(0, new Cell(value, null));
+            }
+            project.rows.add(row);
+        }
+        return project;
+    }
+
+    @Test
+    public void testBatchMatchesRowByRowEvaluation() throws ParsingException {
+        Project project = createProject();
+        for (String expression : EXPRESSIONS) {
+            Evaluable eval = MetaParser.parse(expression);
+
+            // small capacity, so that the rows span several batches
+            RowBatch batch = new RowBatch(ExpressionUtils.createBindings(project), "A", 0, 3);
+            Object[] results = new Object[batch.getCapacity()];
+            Properties bindings = ExpressionUtils.createBindings(project);
+            for (int rowIndex = 0; rowIndex < project.rows.size(); rowIndex++) {
+                Row row = project.rows.get(rowIndex);
+                boolean full = batch.add(rowIndex, row);
+                if (!full && rowIndex < project.rows.size() - 1) {
+                    continue;
+                }
+                RuntimeException failure = null;
+                try {
+                    batch.evaluate(eval, results);
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    int r = batch.getRowIndex(i);
+                    ExpressionUtils.bind(bindings, project.rows.get(r), r, "A", project.rows.get(r).getCell(0));
+                    String message = expression + " on row " + r;
+                    Object expected;
+                    try {
+                        expected = eval.evaluate(bindings);
+                    } catch (RuntimeException e) {
+                        // failures surface as if the rows had been evaluated one by one
+                        Assert.assertEquals(failure.getClass(), e.getClass(), message);
+                        break;
+                    }
+                    if (expected instanceof EvalError) {
+                        Assert.assertTrue(results[i] instanceof EvalError, message);
+                        Assert.assertEquals(((EvalError) results[i]).message, ((EvalError) expected).message, message);
+                    } else {
+                        Assert.assertEquals(results[i], expected, message);
+                    }
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    @Test
+    public void testFullBatch() {
+        Project project = createProject();
+        RowBatch batch = new RowBatch(ExpressionUtils.createBindings(project), "A", 0, 2);
+        Assert.assertFalse(batch.add(0, project.rows.get(0)));
+        Assert.assertTrue(batch.add(1, project.rows.get(1)));
+        Assert.assertEquals(batch.getValue(1), "apple");
+
+        batch.clear();
+        Assert.assertEquals(batch.size(), 0);
+    }
+
+    @Test
+    public void testFunctionNotCalledOnErrors() throws ParsingException {
+        Project project = createProject();
+        AtomicInteger calls = new AtomicInteger();
+        Function function = new Function() {
+            @Override
+            public Object call(Properties bindings, Object[] args) {
+                Assert.assertFalse(ExpressionUtils.isError(args[0]));
+                calls.incrementAndGet();
+                return args[0];
+            }
+
+            @Override
+            public String getDescription() {
+                return "Counts its calls";
+            }
+
+            @Override
+            public String getReturns() {
+                return "number";
+            }
+        };
+        Evaluable eval = new FunctionCallExpr(new Evaluable[] { MetaParser.parse("value.toNumber()") }, function);
+
+        RowBatch batch = new RowBatch(ExpressionUtils.createBindings(project), "A", 0, VALUES.length);
+        for (int rowIndex = 0; rowIndex < project.rows.size(); rowIndex++) {
+            batch.add(rowIndex, project.rows.get(rowIndex));
+        }
+        Object[] results = new Object[batch.getCapacity()];
+        batch.evaluate(eval, results);
+
+        // " Banana ", "apple", null and "" are not numbers
+        Assert.assertEquals(calls.get(), 4);
+        Assert.assertTrue(results[0] instanceof EvalError);
+        Assert.assertEquals(results[2], 12L);
+    }
+
+    @Test
+    public void testDistinctErrorsPerRow() throws ParsingException {
+        Project project = createProject();
+        RowBatch batch = new RowBatch(ExpressionUtils.createBindings(project), "A", 0, VALUES.length);
+        for (int rowIndex = 0; rowIndex < project.rows.size(); rowIndex++) {
+            batch.add(rowIndex, project.rows.get(rowIndex));
+        }
+        Object[] results = new Object[batch.getCapacity()];
+
+        // " Banana " and "apple" are not numbers
+        batch.evaluate(MetaParser.parse("value.round()"), results);
+        Assert.assertTrue(results[0] instanceof EvalError);
+        Assert.assertTrue(results[1] instanceof EvalError);
+        Assert.assertNotSame(results[0], results[1]);
+
+        // 42 and 2.5 are not strings
+        batch.evaluate(MetaParser.parse("value.trim()"), results);
+        Assert.assertTrue(results[4] instanceof EvalError);
+        Assert.assertTrue(results[5] instanceof EvalError);
+        Assert.assertNotSame(results[4], results[5]);
+    }
+}
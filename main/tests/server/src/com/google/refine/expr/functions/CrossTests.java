@@ -36,6 +36,8 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.LookupCacheManager;
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.expr.EvalError;
 import com.google.refine.expr.HasFieldsListImpl;
@@ -44,6 +46,8 @@ import com.google.refine.expr.WrappedRow;
 import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
 import com.google.refine.model.Row;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.MassCellChange;
 import com.google.refine.util.TestUtils;
 
 /**
@@ -371,5 +375,55 @@ public class CrossTests extends RefineTest {
                 "cross expects a cell or value, a project name to look up (optional), and a column name in that project (optional)");
     }
     
-}
+    @Test
+    public void crossFunctionFollowsCellChanges() throws Exception {
+        Assert.assertEquals(((HasFieldsListImpl) invoke("cross", "mary", "My Address Book", "friend")).size(), 1);
+
+        Row row = projectAddress.rows.get(1);
+        CellChange change = new CellChange(1, 0, row.getCell(0), new Cell("maria", null));
+        change.apply(projectAddress);
+        Assert.assertNull(invoke("cross", "mary", "My Address Book", "friend"));
+        Row found = ((WrappedRow) ((HasFieldsListImpl) invoke("cross", "maria", "My Address Book", "friend")).get(0)).row;
+        Assert.assertEquals(found.getCell(1).value, "50 Broadway Ave.");
+
+        change.revert(projectAddress);
+        Assert.assertNull(invoke("cross", "maria", "My Address Book", "friend"));
+        Assert.assertEquals(((HasFieldsListImpl) invoke("cross", "mary", "My Address Book", "friend")).size(), 1);
+    }
+
+    @Test
+    public void crossFunctionFollowsMassCellChanges() throws Exception {
+        Assert.assertEquals(((HasFieldsListImpl) invoke("cross", "john", "My Address Book", "friend")).size(), 2);
 
+        MassCellChange change = new MassCellChange(new CellChange[] {
+                new CellChange(0, 0, projectAddress.rows.get(0).getCell(0), new Cell("mary", null)),
+                new CellChange(3, 0, projectAddress.rows.get(3).getCell(0), null)
+        }, "friend", false);
+        change.apply(projectAddress);
+        Assert.assertNull(invoke("cross", "anne", "My Address Book", "friend"));
+        HasFieldsListImpl rows = (HasFieldsListImpl) invoke("cross", "mary", "My Address Book", "friend");
+        Assert.assertEquals(rows.size(), 2);
+        Assert.assertEquals(((WrappedRow) rows.get(0)).rowIndex, 0);
+        Assert.assertEquals(((WrappedRow) rows.get(1)).rowIndex, 1);
+
+        change.revert(projectAddress);
+        Assert.assertEquals(((HasFieldsListImpl) invoke("cross", "john", "My Address Book", "friend")).size(), 2);
+        Assert.assertEquals(((HasFieldsListImpl) invoke("cross", "anne", "My Address Book", "friend")).size(), 1);
+    }
+
+    @Test
+    public void crossFunctionLookupEviction() throws Exception {
+        LookupCacheManager manager = ProjectManager.singleton.getLookupCacheManager();
+        ProjectManager.singleton.getPreferenceStore().put(LookupCacheManager.MAX_MEMORY_PREFERENCE, 0);
+        try {
+            invoke("cross", "mary", "My Address Book", "friend");
+            invoke("cross", "lamp", "Christmas Gifts", "gift");
+            Assert.assertEquals(manager.size(), 1);
+            Row row = ((WrappedRow) ((HasFieldsListImpl) invoke("cross", "mary", "My Address Book", "friend")).get(0)).row;
+            Assert.assertEquals(row.getCell(1).value, "50 Broadway Ave.");
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(LookupCacheManager.MAX_MEMORY_PREFERENCE, null);
+        }
+    }
+
+}
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.grel;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+import com.google.refine.expr.Evaluable;
+import com.google.refine.expr.ExpressionUtils;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.expr.ParsingException;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class ExpressionCompilerTests extends RefineTest {
+
+    static final String[] EXPRESSIONS = {
+            "value",
+            "1 + 2 * 3",
+            "7 / 2",
+            "7.0 / 2",
+            "7 % 3",
+            "1 / 0",
+            "value + 1",
+            "value - 1",
+            "value * 2.5",
+            "value / 2",
+            "value > 2",
+            "value >= 2",
+            "value < 2.5",
+            "value <= 3",
+            "value == 3",
+            "value != 3",
+            "value == null",
+            "value != null",
+            "'a' + value",
+            "value + 'a'",
+            "'a' + 'b'",
+            "'a' + 1",
+            "value + value",
+            "value.trim()",
+            "value.toLowercase()",
+            "value.toUppercase()",
+            "trim('  x  ')",
+            "value.trim().toLowercase() + '!'",
+            "value.length()",
+            "value.split(' ').length()",
+            "if(value == null, 'none', value + '?')",
+            "forEach([1, 2, 3], v, v * 2).join(',')",
+            "with(value, v, v + v)",
+            "cells['A'].value + 'x'",
+            "cell.value",
+            "value.datePart()",
+            "if(value.trim() == '', null, value.trim().toLowercase() + value.trim())",
+            "value.toString().length() + value.toString().length()",
+            "with(value.trim(), v, v + value.trim())",
+            "forEach([1, 2], value, value * 2).join(',') + value.toString()",
+            "value.toString() + forEach([1, 2], value, value.toString()).join(',') + value.toString()",
+    };
+
+    static final Object[] VALUES = { " Foo Bar ", "3", 3L, 2, 2.5, null, true };
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectManager.singleton.getPreferenceStore().put(ExpressionCompiler.COMPILE_PREFERENCE, null);
+    }
+
+    private Properties bind(Project project, Object value) {
+        Properties bindings = ExpressionUtils.createBindings(project);
+        Row row = new Row(1);
+        Cell cell = new Cell((Serializable) value, null);
+        row.setCell(0, cell);
+        ExpressionUtils.bind(bindings, row, 0, "A", cell);
+        return bindings;
+    }
+
+    private void assertSameResult(Object compiled, Object interpreted, String expression) {
+        if (interpreted instanceof EvalError) {
+            Assert.assertTrue(compiled instanceof EvalError, expression);
+            Assert.assertEquals(((EvalError) compiled).message, ((EvalError) interpreted).message, expression);
+        } else if (interpreted == null) {
+            Assert.assertNull(compiled, expression);
+        } else {
+            Assert.assertEquals(compiled.getClass(), interpreted.getClass(), expression);
+            Assert.assertEquals(compiled, interpreted, expression);
+        }
+    }
+
+    @Test
+    public void testSameResultsAsInterpreter() throws ParsingException {
+        Project project = createCSVProject("A\nx\n");
+        for (String expression : EXPRESSIONS) {
+            Evaluable interpreted = new Parser(expression).getExpression();
+            Evaluable compiled = ExpressionCompiler.compile(interpreted);
+            Assert.assertEquals(compiled.toString(), interpreted.toString(), expression);
+            Assert.assertEquals(compiled.getColumnDependencies("A"), interpreted.getColumnDependencies("A"), expression);
+
+            for (Object value : VALUES) {
+                Object expected;
+                try {
+                    expected = interpreted.evaluate(bind(project, value));
+                } catch (RuntimeException e) {
+                    Assert.assertThrows(e.getClass(), () -> compiled.evaluate(bind(project, value)));
+                    continue;
+                }
+                assertSameResult(compiled.evaluate(bind(project, value)), expected, expression + " on " + value);
+            }
+        }
+    }
+
+    @Test
+    public void testConstantFolding() throws ParsingException {
+        Evaluable compiled = ExpressionCompiler.compile(new Parser("'a' + (1 + 2) * 3").getExpression());
+        Assert.assertTrue(compiled instanceof ExpressionCompiler.ConstantExpr);
+        Assert.assertEquals(compiled.evaluate(new Properties()), "a9");
+
+        Evaluable division = ExpressionCompiler.compile(new Parser("1 / 0").getExpression());
+        Assert.assertFalse(division instanceof ExpressionCompiler.ConstantExpr);
+    }
+
+    @Test
+    public void testPureFunctionFolding() throws ParsingException {
+        Evaluable compiled = ExpressionCompiler.compile(new Parser("'a,b'.replace(',', ';').length()").getExpression());
+        Assert.assertTrue(compiled instanceof ExpressionCompiler.ConstantExpr);
+        Assert.assertEquals(compiled.evaluate(new Properties()), 3);
+
+        // arrays may be modified by the functions they are passed to
+        Evaluable split = ExpressionCompiler.compile(new Parser("'a,b'.split(',')").getExpression());
+        Assert.assertFalse(split instanceof ExpressionCompiler.ConstantExpr);
+    }
+
+    static public class CountingFunction implements Function {
+        int calls;
+
+        @Override
+        public Object call(Properties bindings, Object[] args) {
+            calls++;
+            return args[0];
+        }
+
+        @Override
+        public String getDescription() {
+            return "Returns its argument";
+        }
+
+        @Override
+        public String getReturns() {
+            return "the argument";
+        }
+    }
+
+    @Test
+    public void testSharedSubexpressions() throws ParsingException {
+        CountingFunction function = new CountingFunction();
+        ControlFunctionRegistry.registerPureFunction("countingIdentity", function);
+        Project project = createCSVProject("A\nx\n");
+
+        Evaluable compiled = ExpressionCompiler.compile(new Parser(
+                "countingIdentity(value) + countingIdentity(value) + countingIdentity(value)").getExpression());
+        Assert.assertTrue(compiled instanceof ExpressionCompiler.SharedScopeExpr);
+        Assert.assertEquals(compiled.evaluate(bind(project, "a")), "aaa");
+        Assert.assertEquals(function.calls, 1);
+        Assert.assertEquals(compiled.evaluate(bind(project, "b")), "bbb");
+        Assert.assertEquals(function.calls, 2);
+
+        // branches which are not taken are not evaluated
+        function.calls = 0;
+        compiled = ExpressionCompiler.compile(new Parser(
+                "if(value == 'a', 'none', countingIdentity(value) + countingIdentity(value))").getExpression());
+        Assert.assertEquals(compiled.evaluate(bind(project, "a")), "none");
+        Assert.assertEquals(function.calls, 0);
+        Assert.assertEquals(compiled.evaluate(bind(project, "b")), "bb");
+        Assert.assertEquals(function.calls, 1);
+
+        // variables bound by controls shadow the ones of the row
+        function.calls = 0;
+        compiled = ExpressionCompiler.compile(new Parser(
+                "countingIdentity(value) + with('z', value, countingIdentity(value))").getExpression());
+        Assert.assertEquals(compiled.evaluate(bind(project, "a")), "az");
+        Assert.assertEquals(function.calls, 2);
+    }
+
+    @Test
+    public void testImpureCallsNotShared() throws ParsingException {
+        CountingFunction function = new CountingFunction();
+        ControlFunctionRegistry.registerFunction("countingCall", function);
+        Project project = createCSVProject("A\nx\n");
+
+        Evaluable compiled = ExpressionCompiler.compile(new Parser(
+                "countingCall(value) + countingCall(value)").getExpression());
+        Assert.assertFalse(compiled instanceof ExpressionCompiler.SharedScopeExpr);
+        Assert.assertEquals(compiled.evaluate(bind(project, "a")), "aa");
+        Assert.assertEquals(function.calls, 2);
+
+        // now() is evaluated each time it occurs, even within a pure call
+        compiled = ExpressionCompiler.compile(new Parser(
+                "now().toString().length() + now().toString().length()").getExpression());
+        Assert.assertFalse(compiled instanceof ExpressionCompiler.SharedScopeExpr);
+    }
+
+    @Test
+    public void testNestedSharedScopes() throws ParsingException {
+        CountingFunction function = new CountingFunction();
+        ControlFunctionRegistry.registerPureFunction("countingIdentity2", function);
+        Evaluable inner = ExpressionCompiler.compile(new Parser(
+                "countingIdentity2(value) + countingIdentity2(value)").getExpression());
+        ControlFunctionRegistry.registerFunction("evaluateInner", new CountingFunction() {
+            @Override
+            public Object call(Properties bindings, Object[] args) {
+                Properties innerBindings = new Properties();
+                innerBindings.put("value", args[0]);
+                return inner.evaluate(innerBindings);
+            }
+        });
+        Project project = createCSVProject("A\nx\n");
+
+        // the inner expression has its own values, and the outer ones are kept
+        Evaluable outer = ExpressionCompiler.compile(new Parser(
+                "countingIdentity2(value) + evaluateInner('b') + countingIdentity2(value)").getExpression());
+        Assert.assertEquals(outer.evaluate(bind(project, "a")), "abba");
+        Assert.assertEquals(function.calls, 2);
+    }
+
+    @Test
+    public void testPreference() throws ParsingException {
+        Evaluable compiled = MetaParser.parse("value + 1");
+        Assert.assertTrue(compiled instanceof ExpressionCompiler.CompiledExpr);
+        Assert.assertEquals(compiled.toString(), "value + 1");
+
+        ProjectManager.singleton.getPreferenceStore().put(ExpressionCompiler.COMPILE_PREFERENCE, false);
+        Assert.assertFalse(MetaParser.parse("value + 1") instanceof ExpressionCompiler.CompiledExpr);
+    }
+}
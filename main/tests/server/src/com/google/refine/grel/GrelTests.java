@@ -33,6 +33,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 
 package com.google.refine.grel;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Properties;
 
 import org.slf4j.LoggerFactory;
@@ -194,4 +197,17 @@ public class GrelTests extends RefineTest {
             }
     }
 
+    @Test
+    public void testColumnDependencies() throws ParsingException {
+        Assert.assertEquals(MetaParser.parse("value.toLowercase() + \"!\"").getColumnDependencies("a"),
+                Collections.singleton("a"));
+        Assert.assertEquals(MetaParser.parse("if(isBlank(cells.b.value), cells[\"c d\"].value, rowIndex)")
+                .getColumnDependencies("a"), new HashSet<>(Arrays.asList("b", "c d")));
+        Assert.assertNull(MetaParser.parse("value").getColumnDependencies(null));
+        Assert.assertNull(MetaParser.parse("row.record.cells.b.value").getColumnDependencies("a"));
+        Assert.assertNull(MetaParser.parse("forEach(value.split(\",\"), v, v.trim())").getColumnDependencies("a"));
+        Assert.assertNull(MetaParser.parse("facetCount(value, \"value\", \"a\")").getColumnDependencies("a"));
+        Assert.assertNull(MetaParser.parse("value.cross(\"p\", \"b\").length()").getColumnDependencies("a"));
+        Assert.assertNull(MetaParser.parse("value + now()").getColumnDependencies("a"));
+    }
 }
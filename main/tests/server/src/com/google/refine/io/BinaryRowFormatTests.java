@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.Row;
+import com.google.refine.util.Pool;
+import com.google.refine.util.TestUtils;
+
+public class BinaryRowFormatTests extends RefineTest {
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectManager.singleton.getPreferenceStore().put(ProjectUtilities.STORAGE_FORMAT_PREFERENCE, null);
+    }
+
+    private List<Row> createRows(int count, Recon recon) {
+        List<Row> rows = new ArrayList<>();
+        OffsetDateTime date = OffsetDateTime.of(2018, 11, 3, 10, 15, 30, 5000, ZoneOffset.UTC);
+        for (int i = 0; i < count; i++) {
+            Row row = new Row(6);
+            row.flagged = i % 3 == 0;
+            row.starred = i % 4 == 0;
+            row.setCell(0, new Cell("value " + (i % 10), i % 7 == 0 ? recon : null));
+            row.setCell(1, new Cell(i, null));
+            if (i % 2 == 0) {
+                row.setCell(2, new Cell((long) i * 10000000000L, null));
+                row.setCell(3, new Cell(i / 3.0, null));
+            }
+            if (i % 5 == 0) {
+                row.setCell(4, new Cell(date.plusDays(i), null));
+                row.setCell(5, new Cell(i % 2 == 0, null));
+                row.setCell(6, new Cell(new EvalError("error " + i), null));
+                row.setCell(7, new Cell(null, null));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private void assertSameRows(List<Row> actual, List<Row> expected) {
+        Assert.assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Row a = actual.get(i);
+            Row e = expected.get(i);
+            Assert.assertEquals(a.flagged, e.flagged);
+            Assert.assertEquals(a.starred, e.starred);
+            Assert.assertEquals(a.cells.size(), e.cells.size());
+            for (int c = 0; c < e.cells.size(); c++) {
+                Cell ac = a.cells.get(c);
+                Cell ec = e.cells.get(c);
+                if (ec == null) {
+                    Assert.assertNull(ac);
+                } else if (ec.value instanceof EvalError) {
+                    Assert.assertEquals(((EvalError) ac.value).message, ((EvalError) ec.value).message);
+                } else {
+                    Assert.assertEquals(ac.value, ec.value);
+                    Assert.assertEquals(ac.recon == null ? null : ac.recon.id, ec.recon == null ? null : ec.recon.id);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Recon recon = Recon.makeWikidataRecon(1234L);
+        List<Row> rows = createRows(2 * BinaryRowFormat.CHUNK_SIZE + 17, recon);
+
+        Pool pool = new Pool();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryRowFormat.writeRows(rows, out, pool);
+        Assert.assertSame(pool.getRecon(Long.toString(recon.id)), recon);
+
+        List<Row> loaded = new ArrayList<>();
+        int maxCellCount = BinaryRowFormat.readRows(new ByteArrayInputStream(out.toByteArray()), pool, loaded);
+
+        Assert.assertEquals(maxCellCount, 8);
+        assertSameRows(loaded, rows);
+        Assert.assertSame(loaded.get(0).cells.get(0).recon, recon);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testRejectInvalidData() throws IOException {
+        BinaryRowFormat.readRows(new ByteArrayInputStream("rowCount=1\n".getBytes()), new Pool(), new ArrayList<>());
+    }
+
+    private File save(Project project) throws IOException {
+        File dir = TestUtils.createTempDirectory("openrefine-test-binary-rows");
+        File file = new File(dir, "data.zip");
+        ProjectUtilities.saveToFile(project, file);
+        return file;
+    }
+
+    private boolean hasBinaryRows(File file) throws IOException {
+        try (ZipFile zipFile = new ZipFile(file)) {
+            return zipFile.getEntry(BinaryRowFormat.ENTRY_NAME) != null;
+        }
+    }
+
+    @Test
+    public void testSaveAndLoadProject() throws Exception {
+        Project project = createCSVProject("A,B\nx,1\ny,\n,3\n");
+        project.rows.get(1).starred = true;
+
+        File file = save(project);
+        Assert.assertTrue(hasBinaryRows(file));
+        Project loaded = ProjectUtilities.loadFromFile(file, project.id);
+
+        assertSameRows(loaded.rows, project.rows);
+        Assert.assertEquals(loaded.columnModel.columns.size(), 2);
+        Assert.assertEquals(loaded.columnModel.getMaxCellIndex(), project.columnModel.getMaxCellIndex());
+    }
+
+    @Test
+    public void testLegacyTextFormat() throws Exception {
+        ProjectManager.singleton.getPreferenceStore().put(ProjectUtilities.STORAGE_FORMAT_PREFERENCE, "text");
+        Project project = createCSVProject("A,B\nx,1\ny,\n,3\n");
+
+        File file = save(project);
+        Assert.assertFalse(hasBinaryRows(file));
+        Project loaded = ProjectUtilities.loadFromFile(file, project.id);
+
+        assertSameRows(loaded.rows, project.rows);
+    }
+}
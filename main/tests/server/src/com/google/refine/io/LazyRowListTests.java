@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.model.Cell;
+import com.google.refine.model.Row;
+import com.google.refine.util.Pool;
+import com.google.refine.util.TestUtils;
+
+public class LazyRowListTests {
+    private static final int ROW_COUNT = 2 * BinaryRowFormat.CHUNK_SIZE + 5;
+
+    protected File file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Row row = new Row(2);
+            row.setCell(0, new Cell("row " + i, null));
+            row.setCell(1, new Cell(i, null));
+            rows.add(row);
+        }
+        file = new File(TestUtils.createTempDirectory("openrefine-test-lazy-rows"), "rows.bin");
+        try (OutputStream out = new FileOutputStream(file)) {
+            BinaryRowFormat.writeRows(rows, out, new Pool());
+        }
+    }
+
+    @Test
+    public void testRowsReadOnDemand() throws IOException {
+        try (LazyRowList rows = new LazyRowList(file, new Pool(), 1)) {
+            Assert.assertEquals(rows.size(), ROW_COUNT);
+            Assert.assertFalse(rows.isLoaded());
+
+            Row first = rows.get(0);
+            Assert.assertEquals(first.getCellValue(0), "row 0");
+            Assert.assertSame(rows.get(1), rows.get(1));
+            Assert.assertEquals(rows.get(ROW_COUNT - 1).getCellValue(1), ROW_COUNT - 1);
+
+            // the first chunk was evicted, so it is decoded again
+            Assert.assertNotSame(rows.get(0), first);
+            Assert.assertEquals(rows.get(BinaryRowFormat.CHUNK_SIZE).getCellValue(0), "row " + BinaryRowFormat.CHUNK_SIZE);
+            Assert.assertFalse(rows.isLoaded());
+        }
+    }
+
+    @Test
+    public void testModificationLoadsRows() throws IOException {
+        try (LazyRowList rows = new LazyRowList(file, new Pool(), 1)) {
+            rows.remove(0);
+            Assert.assertTrue(rows.isLoaded());
+            Assert.assertEquals(rows.size(), ROW_COUNT - 1);
+            Assert.assertEquals(rows.get(0).getCellValue(0), "row 1");
+            Assert.assertSame(rows.get(0), rows.get(0));
+        }
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void testOutOfBounds() throws IOException {
+        try (LazyRowList rows = new LazyRowList(file, new Pool(), 1)) {
+            rows.get(ROW_COUNT);
+        }
+    }
+
+    @Test
+    public void testReadFailureReported() throws IOException {
+        try (LazyRowList rows = new LazyRowList(file, new Pool(), 1)) {
+            rows.close();
+            Assert.assertThrows(UncheckedIOException.class, () -> rows.get(0));
+            Assert.assertThrows(IOException.class, () -> rows.load());
+            Assert.assertFalse(rows.isLoaded());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.io;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.ProjectMetadata;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.Cell;
+import com.google.refine.model.Column;
+import com.google.refine.model.ModelException;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+import com.google.refine.model.changes.RowStarChange;
+import com.google.refine.util.TestUtils;
+
+public class ProjectUtilitiesTests {
+    protected File workspaceDir;
+    protected ProjectManager previousManager;
+    protected FileProjectManager manager;
+    protected Project project;
+
+    @BeforeMethod
+    public void setUp() throws IOException, ModelException {
+        workspaceDir = TestUtils.createTempDirectory("openrefine-test-delta-saves");
+        previousManager = ProjectManager.singleton;
+        manager = new FileProjectManager(workspaceDir);
+        ProjectManager.singleton = manager;
+
+        project = new Project();
+        project.columnModel.addColumn(0, new Column(0, "A"), true);
+        for (int i = 0; i < 10; i++) {
+            Row row = new Row(1);
+            row.setCell(0, new Cell("v" + i, null));
+            project.rows.add(row);
+        }
+        manager.registerProject(project, new ProjectMetadata());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectManager.singleton = previousManager;
+    }
+
+    private void star(int rowIndex) {
+        project.history.addEntry(new HistoryEntry(HistoryEntry.allocateID(), project, "Star row",
+                null, new RowStarChange(rowIndex, true)));
+    }
+
+    private File getProjectFile(String name) {
+        return new File(manager.getProjectDir(project.id), name);
+    }
+
+    @Test
+    public void testDeltaSave() throws IOException {
+        ProjectUtilities.save(project);
+        Assert.assertTrue(getProjectFile("data.zip").exists());
+        Assert.assertFalse(ProjectUtilities.hasDelta(project));
+        long lastModified = getProjectFile("data.zip").lastModified();
+
+        star(2);
+        star(5);
+        ProjectUtilities.save(project);
+        Assert.assertTrue(ProjectUtilities.hasDelta(project));
+        Assert.assertEquals(getProjectFile("data.zip").lastModified(), lastModified);
+
+        Project loaded = ProjectUtilities.load(manager.getProjectDir(project.id), project.id);
+        Assert.assertTrue(loaded.rows.get(2).starred);
+        Assert.assertTrue(loaded.rows.get(5).starred);
+        Assert.assertFalse(loaded.rows.get(3).starred);
+        Assert.assertEquals(loaded.history.getLastPastEntries(0).size(), 2);
+
+        ProjectUtilities.compact(project);
+        Assert.assertFalse(ProjectUtilities.hasDelta(project));
+        loaded = ProjectUtilities.load(manager.getProjectDir(project.id), project.id);
+        Assert.assertTrue(loaded.rows.get(5).starred);
+        Assert.assertEquals(loaded.history.getLastPastEntries(0).size(), 2);
+    }
+
+    @Test
+    public void testFullSaveAfterMaxDeltaEntries() throws IOException {
+        manager.getPreferenceStore().put(ProjectUtilities.MAX_DELTA_ENTRIES_PREFERENCE, 1);
+        ProjectUtilities.save(project);
+
+        star(1);
+        ProjectUtilities.save(project);
+        Assert.assertTrue(ProjectUtilities.hasDelta(project));
+
+        star(2);
+        ProjectUtilities.save(project);
+        Assert.assertFalse(ProjectUtilities.hasDelta(project));
+
+        Project loaded = ProjectUtilities.load(manager.getProjectDir(project.id), project.id);
+        Assert.assertTrue(loaded.rows.get(1).starred);
+        Assert.assertTrue(loaded.rows.get(2).starred);
+    }
+
+    @Test
+    public void testLazyLoading() throws IOException {
+        manager.getPreferenceStore().put(LazyRowList.LAZY_LOADING_PREFERENCE, true);
+        ProjectUtilities.save(project);
+
+        Project loaded = ProjectUtilities.load(manager.getProjectDir(project.id), project.id);
+        Assert.assertTrue(loaded.rows instanceof LazyRowList);
+        Assert.assertFalse(((LazyRowList) loaded.rows).isLoaded());
+        Assert.assertEquals(loaded.rows.size(), 10);
+        Assert.assertEquals(loaded.rows.get(3).getCellValue(0), "v3");
+
+        loaded.ensureRowsLoaded();
+        Assert.assertTrue(((LazyRowList) loaded.rows).isLoaded());
+        Assert.assertEquals(loaded.rows.get(9).getCellValue(0), "v9");
+        loaded.dispose();
+    }
+
+    @Test
+    public void testStaleDeltaIsIgnored() throws Exception {
+        ProjectUtilities.save(project);
+        star(1);
+        ProjectUtilities.save(project);
+        File delta = getProjectFile("delta.zip");
+        File staleDelta = getProjectFile("stale.zip");
+        Assert.assertTrue(delta.renameTo(staleDelta));
+
+        // a new full save, after which the previous delta no longer applies
+        ProjectUtilities.saveSnapshot(project);
+        Assert.assertTrue(staleDelta.renameTo(delta));
+
+        Project loaded = ProjectUtilities.loadFromFile(getProjectFile("data.zip"), project.id);
+        Assert.assertFalse(ProjectUtilities.loadDelta(loaded, delta));
+        Assert.assertTrue(loaded.rows.get(1).starred);
+        Assert.assertEquals(loaded.history.getLastPastEntries(0).size(), 1);
+    }
+}
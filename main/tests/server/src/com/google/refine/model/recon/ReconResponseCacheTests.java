@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.model.recon;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+
+public class ReconResponseCacheTests extends RefineTest {
+
+    static final String SERVICE = "http://localhost/recon";
+
+    static class TestCache extends ReconResponseCache {
+        final File file;
+        long time = 1000;
+
+        TestCache(File file) {
+            this.file = file;
+        }
+
+        @Override
+        protected long getCurrentTime() {
+            return time;
+        }
+
+        @Override
+        protected File getCacheFile() {
+            return file;
+        }
+    }
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectManager.singleton.getPreferenceStore().put(ReconResponseCache.TTL_PREFERENCE, null);
+        ProjectManager.singleton.getPreferenceStore().put(ReconResponseCache.MAX_SIZE_PREFERENCE, null);
+    }
+
+    @Test
+    public void testCachedResponses() {
+        TestCache cache = new TestCache(null);
+        Assert.assertNull(cache.get(SERVICE, "{\"query\":\"a\"}"));
+        cache.put(SERVICE, "{\"query\":\"a\"}", "{\"result\":[]}");
+
+        Assert.assertEquals(cache.get(SERVICE, "{\"query\":\"a\"}"), "{\"result\":[]}");
+        Assert.assertNull(cache.get("http://localhost/other", "{\"query\":\"a\"}"));
+        Assert.assertEquals(cache.getHitCount(), 1);
+        Assert.assertEquals(cache.getMissCount(), 2);
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void testExpiry() {
+        TestCache cache = new TestCache(null);
+        cache.put(SERVICE, "q", "r");
+        cache.time += cache.getTimeToLive();
+        Assert.assertEquals(cache.get(SERVICE, "q"), "r");
+        cache.time += 1;
+        Assert.assertNull(cache.get(SERVICE, "q"));
+        Assert.assertEquals(cache.size(), 0);
+
+        // a zero time to live disables the cache
+        ProjectManager.singleton.getPreferenceStore().put(ReconResponseCache.TTL_PREFERENCE, 0);
+        cache.put(SERVICE, "q", "r");
+        Assert.assertNull(cache.get(SERVICE, "q"));
+    }
+
+    @Test
+    public void testEviction() {
+        ProjectManager.singleton.getPreferenceStore().put(ReconResponseCache.MAX_SIZE_PREFERENCE, 1);
+        TestCache cache = new TestCache(null);
+        String response = new String(new char[200 * 1024]).replace('\0', 'x');
+        cache.put(SERVICE, "a", response);
+        cache.put(SERVICE, "b", response);
+        cache.get(SERVICE, "a");
+        cache.put(SERVICE, "c", response);
+
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertNull(cache.get(SERVICE, "b"));
+        Assert.assertNotNull(cache.get(SERVICE, "a"));
+        Assert.assertTrue(cache.getMemoryUsage() <= 1024 * 1024);
+    }
+
+    @Test
+    public void testPersistence() throws IOException {
+        File dir = Files.createTempDirectory("recon-cache").toFile();
+        File file = new File(dir, "cache.bin");
+        try {
+            TestCache cache = new TestCache(file);
+            cache.put(SERVICE, "a", "{\"result\":[1]}");
+            cache.put(SERVICE, "b", "{\"result\":[2]}");
+            cache.save();
+            Assert.assertTrue(file.exists());
+
+            TestCache loaded = new TestCache(file);
+            Assert.assertEquals(loaded.get(SERVICE, "a"), "{\"result\":[1]}");
+            Assert.assertEquals(loaded.get(SERVICE, "b"), "{\"result\":[2]}");
+
+            // expired responses are not loaded
+            TestCache later = new TestCache(file);
+            later.time += later.getTimeToLive() + 1;
+            Assert.assertEquals(later.size(), 0);
+            Assert.assertNull(later.get(SERVICE, "a"));
+        } finally {
+            file.delete();
+            dir.delete();
+        }
+    }
+}
@@ -34,6 +34,8 @@ import static org.testng.Assert.assertTrue;
 import java.io.IOException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
 
 import org.slf4j.LoggerFactory;
@@ -46,6 +48,7 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.model.Cell;
@@ -389,6 +392,35 @@ public class StandardReconConfigTests extends RefineTest {
         }
     }
 
+    @Test
+    public void batchReconUsesCachedResponses() throws Exception {
+        Project project = createCSVProject("title,director\n"
+                        + "mulholland drive,david lynch");
+        String reconResponse = "{\"q0\":{\"result\":[{\"id\":\"Q2071\",\"name\":\"David Lynch\",\"score\":90,\"match\":false,\"type\":[]}]}}";
+
+        try (MockWebServer server = new MockWebServer()) {
+            server.start();
+            HttpUrl url = server.url("/openrefine-wikidata/en/api");
+            server.enqueue(new MockResponse().setBody(reconResponse));
+
+            StandardReconConfig config = new StandardReconConfig(url.toString(), "http://www.wikidata.org/entity/",
+                    "http://www.wikidata.org/prop/direct/", "Q5", "human", false, new ArrayList<>());
+            ReconJob job = config.createJob(project, 0, project.rows.get(0), "director", project.rows.get(0).getCell(1));
+            List<ReconJob> jobs = Collections.singletonList(job);
+
+            ReconResponseCache cache = ProjectManager.singleton.getReconResponseCache();
+            List<Recon> first = config.batchRecon(jobs, 1234L);
+            List<Recon> second = config.batchRecon(jobs, 5678L);
+
+            assertEquals(server.getRequestCount(), 1);
+            assertEquals(cache.getHitCount(), 1);
+            assertEquals(first.get(0).getBestCandidate().id, "Q2071");
+            assertEquals(second.get(0).getBestCandidate().id, "Q2071");
+            assertEquals(second.get(0).service, url.toString());
+            Assert.assertNotEquals(second.get(0).id, first.get(0).id);
+        }
+    }
+
     /**
      * The UI format and the backend format differ for serialization
      * (the UI never deserializes and the backend serialization did not matter).
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.operations.cell;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import com.google.refine.ProjectManager;
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.browsing.util.ParallelRowScanner;
+import com.google.refine.expr.MetaParser;
+import com.google.refine.history.HistoryEntry;
+import com.google.refine.model.AbstractOperation;
+import com.google.refine.model.Project;
+import com.google.refine.model.changes.CellChange;
+import com.google.refine.model.changes.MassCellChange;
+import com.google.refine.operations.OnError;
+
+public class TextTransformOperationTests extends RefineTest {
+
+    private static final int ROW_COUNT = 3 * ParallelRowScanner.MIN_CHUNK_SIZE + 17;
+
+    @AfterMethod
+    public void tearDown() {
+        ProjectManager.singleton.getPreferenceStore().put(ParallelRowScanner.PARALLELISM_PREFERENCE, null);
+    }
+
+    private Project createProject() {
+        StringBuilder sb = new StringBuilder("A,B\n");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            sb.append(i % 3 == 0 ? " mixed Case " : "lower").append(i).append(',').append(i % 2).append('\n');
+        }
+        return createCSVProject(sb.toString());
+    }
+
+    private List<CellChange> transform(Project project, String engineConfig) throws Exception {
+        return transform(project, engineConfig, "value.trim().toTitlecase()");
+    }
+
+    private List<CellChange> transform(Project project, String engineConfig, String expression) throws Exception {
+        AbstractOperation op = new TextTransformOperation(
+                EngineConfig.reconstruct(engineConfig),
+                "A",
+                expression,
+                OnError.KeepOriginal,
+                false,
+                0);
+        HistoryEntry entry = op.createProcess(project, new Properties()).performImmediate();
+        return ((MassCellChange) entry.getChange()).getCellChanges();
+    }
+
+    private void assertSameChanges(List<CellChange> actual, List<CellChange> expected) {
+        Assert.assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(actual.get(i).row, expected.get(i).row);
+            Assert.assertEquals(actual.get(i).cellIndex, expected.get(i).cellIndex);
+            Assert.assertEquals(actual.get(i).oldCell.value, expected.get(i).oldCell.value);
+            Assert.assertEquals(actual.get(i).newCell.value, expected.get(i).newCell.value);
+        }
+    }
+
+    @Test
+    public void testParallelTransformMatchesSequentialTransform() throws Exception {
+        String engineConfig = "{\"mode\":\"row-based\",\"facets\":[]}";
+        List<CellChange> sequential = transform(createProject(), engineConfig);
+
+        ProjectManager.singleton.getPreferenceStore().put(ParallelRowScanner.PARALLELISM_PREFERENCE, 4);
+        Project project = createProject();
+        List<CellChange> parallel = transform(project, engineConfig);
+
+        Assert.assertEquals(sequential.size(), ROW_COUNT);
+        assertSameChanges(parallel, sequential);
+        Assert.assertEquals(project.rows.get(3).getCellValue(0), "Mixed Case 3");
+    }
+
+    @Test
+    public void testParallelTransformWithFacet() throws Exception {
+        String engineConfig = "{\"mode\":\"row-based\",\"facets\":["
+                + "{\"type\":\"list\",\"name\":\"B\",\"columnName\":\"B\",\"expression\":\"value\","
+                + "\"omitBlank\":false,\"omitError\":false,\"selection\":[{\"v\":{\"v\":\"1\",\"l\":\"1\"}}],"
+                + "\"selectBlank\":false,\"selectError\":false,\"invert\":false}]}";
+        List<CellChange> sequential = transform(createProject(), engineConfig);
+
+        ProjectManager.singleton.getPreferenceStore().put(ParallelRowScanner.PARALLELISM_PREFERENCE, 3);
+        List<CellChange> parallel = transform(createProject(), engineConfig);
+
+        Assert.assertEquals(sequential.size(), ROW_COUNT / 2);
+        assertSameChanges(parallel, sequential);
+    }
+
+    @Test
+    public void testJythonTransformNotParallel() throws Exception {
+        // the Jython extension is not loaded here, so a stand-in language takes its prefix
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        MetaParser.registerLanguageParser("jython", "Jython", s -> (bindings -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.yield();
+            running.decrementAndGet();
+            return "py" + bindings.get("value");
+        }), "return value");
+
+        ProjectManager.singleton.getPreferenceStore().put(ParallelRowScanner.PARALLELISM_PREFERENCE, 4);
+        Project project = createProject();
+        List<CellChange> changes = transform(project, "{\"mode\":\"row-based\",\"facets\":[]}", "jython:return value");
+
+        Assert.assertEquals(changes.size(), ROW_COUNT);
+        Assert.assertEquals(project.rows.get(1).getCellValue(0), "pylower1");
+        Assert.assertEquals(maxRunning.get(), 1);
+    }
+}
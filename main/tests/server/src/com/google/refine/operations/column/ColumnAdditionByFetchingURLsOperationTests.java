@@ -41,6 +41,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
@@ -48,6 +49,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
 import com.google.refine.browsing.EngineConfig;
 import com.google.refine.expr.ExpressionUtils;
@@ -66,6 +68,7 @@ import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
 
 import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -122,7 +125,6 @@ public class ColumnAdditionByFetchingURLsOperationTests extends RefineTest {
         ProcessManager pm = project.getProcessManager();
         Process process = op.createProcess(project, options);
         process.startPerforming(pm);
-        Assert.assertTrue(process.isRunning());
         int time = 0;
         try {
             while (process.isRunning() && time < timeout) {
@@ -373,5 +375,104 @@ public class ColumnAdditionByFetchingURLsOperationTests extends RefineTest {
         }
     }
 
+    /**
+     * Answers with the query string after a delay, keeping track of how many
+     * requests are answered at once.
+     */
+    static class SlowDispatcher extends Dispatcher {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(200);
+            inFlight.decrementAndGet();
+            return new MockResponse().setBody(request.getRequestUrl().queryParameter("city"));
+        }
+    }
+
+    @Test
+    public void testConcurrentFetching() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            SlowDispatcher dispatcher = new SlowDispatcher();
+            server.setDispatcher(dispatcher);
+            server.start();
+            HttpUrl url = server.url("/slow");
+
+            for (int i = 0; i < 20; i++) {
+                Row row = new Row(2);
+                row.setCell(0, new Cell("city" + i, null));
+                project.rows.add(row);
+            }
+
+            EngineDependentOperation op = new ColumnAdditionByFetchingURLsOperation(engine_config,
+                    "fruits",
+                    "\"" + url + "?city=\"+value",
+                    OnError.StoreError,
+                    "city",
+                    1,
+                    0,
+                    false,
+                    null);
 
+            ProjectManager.singleton.getPreferenceStore().put(ColumnAdditionByFetchingURLsOperation.CONCURRENT_REQUESTS_PREFERENCE, 8);
+            try {
+                // 20 requests of 200 ms, which would take 4 seconds one at a time
+                runAndWait(op, 2500);
+            } finally {
+                ProjectManager.singleton.getPreferenceStore().put(ColumnAdditionByFetchingURLsOperation.CONCURRENT_REQUESTS_PREFERENCE, null);
+            }
+
+            // requests to the same host are limited
+            Assert.assertEquals(dispatcher.maxInFlight.get(), ColumnAdditionByFetchingURLsOperation.DEFAULT_CONCURRENT_REQUESTS_PER_HOST);
+            for (int i = 0; i < 20; i++) {
+                Assert.assertEquals(project.rows.get(i).getCellValue(1), "city" + i);
+            }
+        }
+    }
+
+    @Test
+    public void testHostThrottle() throws Exception {
+        ColumnAdditionByFetchingURLsOperation.HostThrottle throttle = new ColumnAdditionByFetchingURLsOperation.HostThrottle(2, 100);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 6; i++) {
+            throttle.acquire();
+            throttle.release();
+        }
+        // requests start at most once per delay
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(elapsed >= 450, "requests were not spaced - elapsed = " + elapsed);
+    }
+
+    @Test
+    public void testCachedResponsesAcrossRuns() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.start();
+            HttpUrl url = server.url("/cached");
+            server.enqueue(new MockResponse().setBody("first"));
+            server.enqueue(new MockResponse().setBody("second"));
+
+            Row row = new Row(2);
+            row.setCell(0, new Cell("apple", null));
+            project.rows.add(row);
+
+            for (String columnName : new String[] { "run1", "run2" }) {
+                EngineDependentOperation op = new ColumnAdditionByFetchingURLsOperation(engine_config,
+                        "fruits",
+                        "\"" + url + "?city=\"+value",
+                        OnError.StoreError,
+                        columnName,
+                        1,
+                        0,
+                        true,
+                        null);
+                runAndWait(op, 1500);
+            }
+
+            Assert.assertEquals(server.getRequestCount(), 1);
+            Assert.assertEquals(project.rows.get(0).getCellValue(project.columnModel.getColumnByName("run2").getCellIndex()), "first");
+            Assert.assertEquals(ProjectManager.singleton.getUrlResponseCache().getHitCount(), 1);
+        }
+    }
 }
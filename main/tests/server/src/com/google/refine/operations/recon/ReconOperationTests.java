@@ -28,17 +28,30 @@ package com.google.refine.operations.recon;
 
 import static org.mockito.Mockito.mock;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.testng.Assert;
 import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Test;
 
+import com.google.refine.ProjectManager;
 import com.google.refine.RefineTest;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.model.Cell;
 import com.google.refine.model.Project;
+import com.google.refine.model.Recon;
+import com.google.refine.model.recon.ReconJob;
 import com.google.refine.model.recon.ReconConfig;
 import com.google.refine.model.recon.StandardReconConfig;
 import com.google.refine.operations.OperationRegistry;
 import com.google.refine.operations.recon.ReconOperation;
+import com.google.refine.process.LongRunningProcess;
+import com.google.refine.process.ProcessCheckpoint;
 import com.google.refine.util.ParsingUtilities;
 import com.google.refine.util.TestUtils;
 
@@ -108,4 +121,164 @@ public class ReconOperationTests extends RefineTest {
         com.google.refine.process.Process process = op.createProcess(project, new Properties());
         TestUtils.isSerializedTo(process, String.format(processJson, process.hashCode()));
     }
+    
+    /**
+     * Answers batches after a delay, keeping track of how many are answered at once.
+     */
+    static class SlowReconConfig extends StandardReconConfig {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        volatile Runnable afterBatch;
+
+        SlowReconConfig() {
+            super("http://localhost/recon", "http://localhost/entity/", "http://localhost/prop/", null, null, false, new ArrayList<>());
+        }
+
+        @Override
+        public List<Recon> batchRecon(List<ReconJob> jobs, long historyEntryID) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            batchSizes.add(jobs.size());
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            if (afterBatch != null) {
+                afterBatch.run();
+            }
+            List<Recon> recons = new ArrayList<>();
+            for (int i = 0; i < jobs.size(); i++) {
+                recons.add(createNewRecon(historyEntryID));
+            }
+            return recons;
+        }
+    }
+
+    @Test
+    public void testConcurrentBatches() throws Exception {
+        StringBuilder csv = new StringBuilder("researcher\n");
+        for (int i = 0; i < 200; i++) {
+            csv.append("person ").append(i % 100).append("\n");
+        }
+        Project project = createCSVProject(csv.toString());
+        SlowReconConfig config = new SlowReconConfig();
+        ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{\"mode\":\"row-based\",\"facets\":[]}"), "researcher", config);
+
+        ProjectManager.singleton.getPreferenceStore().put(ReconOperation.CONCURRENT_BATCHES_PREFERENCE, 4);
+        ProjectManager.singleton.getPreferenceStore().put(ReconOperation.MAX_BATCH_SIZE_PREFERENCE, 50);
+        try {
+            ReconOperation.ReconProcess process = (ReconOperation.ReconProcess) op.createProcess(project, new Properties());
+            process.run();
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(ReconOperation.CONCURRENT_BATCHES_PREFERENCE, null);
+            ProjectManager.singleton.getPreferenceStore().put(ReconOperation.MAX_BATCH_SIZE_PREFERENCE, null);
+        }
+
+        Assert.assertTrue(config.maxInFlight.get() > 1);
+        Assert.assertTrue(config.maxInFlight.get() <= 4);
+        // each distinct value is sent once
+        Assert.assertEquals(config.batchSizes.stream().mapToInt(Integer::intValue).sum(), 100);
+        Assert.assertTrue(config.batchSizes.stream().anyMatch(size -> size > config.getBatchSize()));
+        for (int i = 0; i < 200; i++) {
+            Cell cell = project.rows.get(i).getCell(0);
+            Assert.assertNotNull(cell.recon, "row " + i);
+        }
+    }
+
+    @Test
+    public void testBatchSizer() {
+        ReconOperation.BatchSizer sizer = new ReconOperation.BatchSizer(10, 40);
+        sizer.recordBatch(10, 100);
+        Assert.assertEquals(sizer.getBatchSize(), 15);
+        // partial batches do not make batches grow
+        sizer.recordBatch(3, 100);
+        Assert.assertEquals(sizer.getBatchSize(), 15);
+        for (int i = 0; i < 10; i++) {
+            sizer.recordBatch(sizer.getBatchSize(), 100);
+        }
+        Assert.assertEquals(sizer.getBatchSize(), 40);
+        sizer.recordBatch(40, 1000);
+        Assert.assertEquals(sizer.getBatchSize(), 40);
+        sizer.recordBatch(40, 5000);
+        Assert.assertEquals(sizer.getBatchSize(), 20);
+        for (int i = 0; i < 10; i++) {
+            sizer.recordBatch(sizer.getBatchSize(), 5000);
+        }
+        Assert.assertEquals(sizer.getBatchSize(), 1);
+    }
+
+    private Project createDistinctValuesProject(int count) {
+        StringBuilder csv = new StringBuilder("researcher\n");
+        for (int i = 0; i < count; i++) {
+            csv.append("person ").append(i).append("\n");
+        }
+        return createCSVProject(csv.toString());
+    }
+
+    @Test
+    public void testResumeFromCheckpoint() throws Exception {
+        Project project = createDistinctValuesProject(3);
+        SlowReconConfig config = new SlowReconConfig();
+        ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{\"mode\":\"row-based\",\"facets\":[]}"), "researcher", config);
+
+        ReconOperation.ReconProcess first = (ReconOperation.ReconProcess) op.createProcess(project, new Properties());
+        first.run();
+        project.history.undoRedo(0);
+        ObjectNode results = (ObjectNode) first.getPartialResults();
+        Assert.assertEquals(results.get("recons").size(), 3);
+        // one of the jobs was not done when the checkpoint was saved
+        String missingKey = results.get("recons").fieldNames().next();
+        ((ObjectNode) results.get("recons")).remove(missingKey);
+
+        config.batchSizes.clear();
+        ReconOperation.ReconProcess second = (ReconOperation.ReconProcess) op.createProcess(project, new Properties());
+        second.restore(new ProcessCheckpoint(op, results, 66));
+        second.run();
+
+        Assert.assertEquals(config.batchSizes, Collections.singletonList(1));
+        for (int i = 0; i < 3; i++) {
+            Cell cell = project.rows.get(i).getCell(0);
+            Assert.assertNotNull(cell.recon, "row " + i);
+        }
+    }
+
+    @Test
+    public void testKeepPartialResultsOnCancel() throws Exception {
+        Project project = createDistinctValuesProject(30);
+        SlowReconConfig config = new SlowReconConfig();
+        ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{\"mode\":\"row-based\",\"facets\":[]}"), "researcher", config);
+        ReconOperation.ReconProcess process = (ReconOperation.ReconProcess) op.createProcess(project, new Properties());
+        config.afterBatch = () -> process.cancel();
+
+        ProjectManager.singleton.getPreferenceStore().put(LongRunningProcess.KEEP_PARTIAL_RESULTS_PREFERENCE, true);
+        try {
+            process.run();
+        } finally {
+            ProjectManager.singleton.getPreferenceStore().put(LongRunningProcess.KEEP_PARTIAL_RESULTS_PREFERENCE, null);
+        }
+
+        Assert.assertEquals(project.history.getLastPastEntries(1).size(), 1);
+        int reconciled = 0;
+        for (int i = 0; i < 30; i++) {
+            if (project.rows.get(i).getCell(0).recon != null) {
+                reconciled++;
+            }
+        }
+        Assert.assertEquals(reconciled, config.getBatchSize());
+    }
+
+    @Test
+    public void testDiscardResultsOnCancel() throws Exception {
+        Project project = createDistinctValuesProject(30);
+        SlowReconConfig config = new SlowReconConfig();
+        ReconOperation op = new ReconOperation(EngineConfig.reconstruct("{\"mode\":\"row-based\",\"facets\":[]}"), "researcher", config);
+        ReconOperation.ReconProcess process = (ReconOperation.ReconProcess) op.createProcess(project, new Properties());
+        config.afterBatch = () -> process.cancel();
+
+        process.run();
+
+        Assert.assertTrue(project.history.getLastPastEntries(1).isEmpty());
+    }
 }
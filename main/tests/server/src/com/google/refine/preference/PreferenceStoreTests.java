@@ -26,6 +26,7 @@
  ******************************************************************************/
 package com.google.refine.preference;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -68,4 +69,19 @@ public class PreferenceStoreTests {
         assertFalse(prefStore.isDirty());
     }
     
+    @Test
+    public void testTypedPreferences() {
+        PreferenceStore prefStore = new PreferenceStore();
+        prefStore.put("int", 12);
+        prefStore.put("string", "34");
+        prefStore.put("invalid", "abc");
+        prefStore.put("bool", "true");
+
+        assertEquals(prefStore.getIntPreference("int", 0), 12);
+        assertEquals(prefStore.getLongPreference("string", 0L), 34L);
+        assertEquals(prefStore.getIntPreference("invalid", 5), 5);
+        assertEquals(prefStore.getIntPreference("missing", 7), 7);
+        assertTrue(prefStore.getBooleanPreference("bool", false));
+        assertTrue(prefStore.getBooleanPreference("missing", true));
+    }
 }
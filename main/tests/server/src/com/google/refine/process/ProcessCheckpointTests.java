@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.refine.RefineTest;
+import com.google.refine.browsing.EngineConfig;
+import com.google.refine.model.Project;
+import com.google.refine.operations.OnError;
+import com.google.refine.operations.OperationRegistry;
+import com.google.refine.operations.column.ColumnAdditionByFetchingURLsOperation;
+import com.google.refine.util.ParsingUtilities;
+
+public class ProcessCheckpointTests extends RefineTest {
+
+    File dir;
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+        OperationRegistry.registerOperation(getCoreModule(), "column-addition-by-fetching-urls", ColumnAdditionByFetchingURLsOperation.class);
+    }
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("openrefine-checkpoints").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private ColumnAdditionByFetchingURLsOperation createOperation() {
+        return new ColumnAdditionByFetchingURLsOperation(
+                EngineConfig.reconstruct("{\"mode\":\"row-based\",\"facets\":[]}"),
+                "url", "value", OnError.StoreError, "page", 1, 0, false, null);
+    }
+
+    private JsonNode responses() throws IOException {
+        return ParsingUtilities.mapper.readTree("{\"responses\":{"
+                + "\"0\":{\"url\":\"http://example.invalid/a\",\"body\":\"page a\"},"
+                + "\"1\":{\"url\":\"http://example.invalid/b\",\"body\":\"page b\"}}}");
+    }
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        File file = new File(dir, "1.json");
+        new ProcessCheckpoint(createOperation(), responses(), 50).save(file);
+
+        ProcessCheckpoint checkpoint = ProcessCheckpoint.load(file);
+        Assert.assertTrue(checkpoint.operation instanceof ColumnAdditionByFetchingURLsOperation);
+        Assert.assertEquals(checkpoint.results, responses());
+        Assert.assertEquals(checkpoint.progress, 50);
+        Assert.assertFalse(new File(dir, "1.json.temp").exists());
+    }
+
+    @Test
+    public void testResumeProcesses() throws Exception {
+        Project project = createCSVProject("url\nhttp://example.invalid/a\nhttp://example.invalid/b\n");
+        new ProcessCheckpoint(createOperation(), responses(), 50).save(new File(dir, "1.json"));
+
+        Assert.assertEquals(ProcessCheckpoint.resumeProcesses(project, dir), 1);
+
+        int time = 0;
+        while (project.getProcessManager().hasPending() && time < 5000) {
+            Thread.sleep(100);
+            time += 100;
+        }
+        // the checkpoint is deleted once the process is done
+        Assert.assertEquals(dir.listFiles().length, 0);
+        // all responses were restored, so nothing is fetched again
+        Assert.assertEquals(project.rows.get(0).getCellValue(1), "page a");
+        Assert.assertEquals(project.rows.get(1).getCellValue(1), "page b");
+    }
+
+    @Test
+    public void testIgnoreInvalidCheckpoints() throws Exception {
+        Project project = createCSVProject("url\nhttp://example.invalid/a\n");
+        FileUtils.writeStringToFile(new File(dir, "1.json"), "{\"operation\":", "UTF-8");
+
+        Assert.assertEquals(ProcessCheckpoint.resumeProcesses(project, dir), 0);
+        // the checkpoint may be resumed once the extension of its operation is loaded
+        Assert.assertTrue(new File(dir, "1.json").exists());
+    }
+}
@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.refine.util.ParsingUtilities;
+
+public class ProcessSchedulerTests {
+
+    static class RecordingProcess extends LongRunningProcess {
+        final List<String> log;
+        final CountDownLatch release;
+
+        RecordingProcess(String description, List<String> log, CountDownLatch release) {
+            super(description);
+            this.log = log;
+            this.release = release;
+        }
+
+        @Override
+        protected Runnable getRunnable() {
+            return () -> {
+                log.add(_description);
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    log.add(_description + " interrupted");
+                }
+            };
+        }
+    }
+
+    ProcessScheduler scheduler;
+    List<String> log;
+    CountDownLatch blocker;
+    CountDownLatch released;
+
+    @BeforeMethod
+    public void setUp() {
+        scheduler = new ProcessScheduler(1);
+        log = Collections.synchronizedList(new ArrayList<>());
+        blocker = new CountDownLatch(1);
+        released = new CountDownLatch(0);
+    }
+
+    private ProcessScheduler.Task schedule(String description, long projectID, ProcessScheduler.Priority priority, CountDownLatch release) {
+        RecordingProcess process = new RecordingProcess(description, log, release);
+        process.setPriority(priority);
+        return scheduler.schedule(process, projectID);
+    }
+
+    private void waitForStart(ProcessScheduler.Task task) throws InterruptedException {
+        int time = 0;
+        while (!task.isStarted() && time < 5000) {
+            Thread.sleep(10);
+            time += 10;
+        }
+        Assert.assertTrue(task.isStarted());
+    }
+
+    private void waitFor(ProcessScheduler.Task task) throws InterruptedException {
+        int time = 0;
+        while (!task.isDone() && time < 5000) {
+            Thread.sleep(10);
+            time += 10;
+        }
+        Assert.assertTrue(task.isDone());
+    }
+
+    @Test
+    public void testBoundedWorkers() throws Exception {
+        scheduler = new ProcessScheduler(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<ProcessScheduler.Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            LongRunningProcess process = new LongRunningProcess("process " + i) {
+                @Override
+                protected Runnable getRunnable() {
+                    return () -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        try {
+                            Thread.sleep(30);
+                        } catch (InterruptedException e) {
+                            // done
+                        }
+                        running.decrementAndGet();
+                    };
+                }
+            };
+            tasks.add(scheduler.schedule(process, i));
+        }
+        for (ProcessScheduler.Task task : tasks) {
+            waitFor(task);
+        }
+        Assert.assertEquals(maxRunning.get(), 2);
+        Assert.assertEquals(scheduler.getFinishedCount(), 6);
+    }
+
+    @Test
+    public void testInteractiveBeforeBatch() throws Exception {
+        ProcessScheduler.Task first = schedule("first", 1, ProcessScheduler.Priority.INTERACTIVE, blocker);
+        waitForStart(first);
+        ProcessScheduler.Task batch = schedule("batch", 2, ProcessScheduler.Priority.BATCH, released);
+        ProcessScheduler.Task interactive = schedule("interactive", 3, ProcessScheduler.Priority.INTERACTIVE, released);
+        blocker.countDown();
+        waitFor(first);
+        waitFor(batch);
+        waitFor(interactive);
+        Assert.assertEquals(log, Arrays.asList("first", "interactive", "batch"));
+    }
+
+    @Test
+    public void testProjectsServedInTurn() throws Exception {
+        ProcessScheduler.Task first = schedule("first", 1, ProcessScheduler.Priority.INTERACTIVE, blocker);
+        waitForStart(first);
+        schedule("a1", 2, ProcessScheduler.Priority.INTERACTIVE, released);
+        schedule("a2", 2, ProcessScheduler.Priority.INTERACTIVE, released);
+        schedule("a3", 2, ProcessScheduler.Priority.INTERACTIVE, released);
+        ProcessScheduler.Task last = schedule("b1", 3, ProcessScheduler.Priority.INTERACTIVE, released);
+        Assert.assertEquals(scheduler.getQueuedTasks().size(), 4);
+
+        blocker.countDown();
+        waitFor(first);
+        waitFor(last);
+        int time = 0;
+        while (log.size() < 5 && time < 5000) {
+            Thread.sleep(10);
+            time += 10;
+        }
+        Assert.assertEquals(log, Arrays.asList("first", "a1", "b1", "a2", "a3"));
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        RecordingProcess running = new RecordingProcess("running", log, blocker);
+        RecordingProcess queued = new RecordingProcess("queued", log, released);
+        running._task = scheduler.schedule(running, 1);
+        waitForStart(running.getTask());
+        queued._task = scheduler.schedule(queued, 2);
+
+        queued.cancel();
+        Assert.assertTrue(queued.isDone());
+        Assert.assertTrue(scheduler.getQueuedTasks().isEmpty());
+
+        running.cancel();
+        waitFor(running.getTask());
+        Assert.assertEquals(log, Arrays.asList("running", "running interrupted"));
+        Assert.assertEquals(running.getStatus(), "done");
+
+        // the worker is not left interrupted for the next process
+        ProcessScheduler.Task next = schedule("next", 3, ProcessScheduler.Priority.INTERACTIVE, released);
+        waitFor(next);
+        Assert.assertEquals(log.get(2), "next");
+    }
+
+    @Test
+    public void testAccounting() throws Exception {
+        ProcessScheduler.Task first = schedule("first", 1, ProcessScheduler.Priority.INTERACTIVE, blocker);
+        waitForStart(first);
+        ProcessScheduler.Task second = schedule("second", 2, ProcessScheduler.Priority.BATCH, released);
+
+        JsonNode json = ParsingUtilities.mapper.readTree(ParsingUtilities.defaultWriter.writeValueAsString(scheduler));
+        Assert.assertEquals(json.get("workerThreads").asInt(), 1);
+        Assert.assertEquals(json.get("running").get(0).get("description").asText(), "first");
+        Assert.assertEquals(json.get("running").get(0).get("status").asText(), "running");
+        Assert.assertEquals(json.get("queued").get(0).get("projectId").asLong(), 2);
+        Assert.assertEquals(json.get("queued").get(0).get("priority").asText(), "BATCH");
+        Assert.assertEquals(json.get("queued").get(0).get("status").asText(), "queued");
+
+        Thread.sleep(50);
+        blocker.countDown();
+        waitFor(first);
+        waitFor(second);
+        Assert.assertTrue(first.getRunTime() >= 50);
+        Assert.assertTrue(second.getWaitTime() >= 50);
+        Assert.assertTrue(first.getCpuTime() >= -1);
+        Assert.assertTrue(scheduler.getRunningTasks().isEmpty());
+        Assert.assertEquals(scheduler.getFinishedCount(), 2);
+    }
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.sorting;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.google.refine.RefineTest;
+import com.google.refine.expr.EvalError;
+import com.google.refine.model.Cell;
+import com.google.refine.model.ModelException;
+import com.google.refine.model.Project;
+import com.google.refine.model.Row;
+
+public class PrimitiveKeySorterTests extends RefineTest {
+
+    private static final int ROW_COUNT = 500;
+
+    private Project project;
+
+    @Override
+    @BeforeTest
+    public void init() {
+        logger = LoggerFactory.getLogger(this.getClass());
+    }
+
+    @BeforeMethod
+    public void setUp() throws IOException, ModelException {
+        project = createProjectWithColumns("PrimitiveKeySorterTests", "number", "string", "date");
+        Random random = new Random(42);
+        String[] strings = { "apple", "Apple", "banana", "Éclair", "eclair", "zebra", "" };
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Row row = new Row(3);
+            switch (random.nextInt(8)) {
+            case 0:
+                break;
+            case 1:
+                row.setCell(0, new Cell(new EvalError("error"), null));
+                break;
+            case 2:
+                row.setCell(0, new Cell("not a number", null));
+                break;
+            case 3:
+                row.setCell(0, new Cell(random.nextInt(10) - 5.5, null));
+                break;
+            case 4:
+                row.setCell(0, new Cell(-0.0, null));
+                break;
+            default:
+                row.setCell(0, new Cell((long) random.nextInt(20) - 10, null));
+            }
+            row.setCell(1, new Cell(strings[random.nextInt(strings.length)], null));
+            if (random.nextInt(4) > 0) {
+                row.setCell(2, new Cell(OffsetDateTime.of(2000 + random.nextInt(3), 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), null));
+            }
+            project.rows.add(row);
+        }
+    }
+
+    @DataProvider(name = "sortingConfigs")
+    public Object[][] getSortingConfigs() {
+        return new Object[][] {
+            { "[{\"valueType\":\"number\",\"column\":\"number\",\"blankPosition\":2,\"errorPosition\":1,\"reverse\":false}]" },
+            { "[{\"valueType\":\"number\",\"column\":\"number\",\"blankPosition\":-1,\"errorPosition\":-2,\"reverse\":true}]" },
+            { "[{\"valueType\":\"number\",\"column\":\"number\",\"blankPosition\":-1,\"errorPosition\":-1,\"reverse\":false}]" },
+            { "[{\"valueType\":\"string\",\"column\":\"string\",\"blankPosition\":1,\"errorPosition\":2,\"reverse\":false,\"caseSensitive\":false},"
+                    + "{\"valueType\":\"number\",\"column\":\"number\",\"blankPosition\":-1,\"errorPosition\":2,\"reverse\":true}]" },
+            { "[{\"valueType\":\"date\",\"column\":\"date\",\"blankPosition\":1,\"errorPosition\":2,\"reverse\":true},"
+                    + "{\"valueType\":\"string\",\"column\":\"string\",\"blankPosition\":1,\"errorPosition\":2,\"reverse\":true,\"caseSensitive\":false}]" },
+            { "[{\"valueType\":\"boolean\",\"column\":\"string\",\"blankPosition\":-2,\"errorPosition\":-1,\"reverse\":false},"
+                    + "{\"valueType\":\"string\",\"column\":\"missing\",\"blankPosition\":1,\"errorPosition\":2,\"reverse\":false,\"caseSensitive\":false}]" },
+        };
+    }
+
+    @Test(dataProvider = "sortingConfigs")
+    public void testSameOrderAsComparator(String criteria) throws IOException {
+        SortingRowVisitor sorter = new SortingRowVisitor(null);
+        sorter.initializeFromConfig(project, SortingConfig.reconstruct("{\"criteria\":" + criteria + "}"));
+        sorter._keys = new ArrayList<Object[]>();
+
+        Object[] rows = project.rows.toArray();
+        int[] indices = new int[rows.length];
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < rows.length; i++) {
+            indices[i] = i;
+            expected.add(i);
+        }
+        Collections.sort(expected, (i1, i2) -> sorter.compare(project, rows[i1], i1, rows[i2], i2));
+
+        int[] positions = new PrimitiveKeySorter(sorter).sort(project, rows, indices);
+        List<Integer> actual = new ArrayList<>();
+        for (int position : positions) {
+            actual.add(position);
+        }
+        Assert.assertEquals(actual, expected);
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.util;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PatternCacheTests {
+
+    @Test
+    public void testCachedPatterns() {
+        PatternCache cache = new PatternCache();
+        Pattern pattern = cache.get("a+b", 0);
+        Assert.assertSame(cache.get("a+b", 0), pattern);
+        Assert.assertNotSame(cache.get("a+b", Pattern.CASE_INSENSITIVE), pattern);
+        Assert.assertTrue(cache.get("a+b", Pattern.CASE_INSENSITIVE).matcher("AAB").matches());
+        Assert.assertEquals(cache.getHitCount(), 2);
+        Assert.assertEquals(cache.getMissCount(), 2);
+        Assert.assertEquals(cache.size(), 2);
+    }
+
+    @Test
+    public void testInvalidPattern() {
+        PatternCache cache = new PatternCache();
+        Assert.assertThrows(PatternSyntaxException.class, () -> cache.get("(a", 0));
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testEviction() {
+        PatternCache cache = new PatternCache(2);
+        Pattern a = cache.get("a", 0);
+        cache.get("b", 0);
+        cache.get("a", 0);
+        cache.get("c", 0);
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertSame(cache.get("a", 0), a);
+        cache.get("b", 0);
+        Assert.assertEquals(cache.getMissCount(), 4);
+    }
+
+    @Test
+    public void testSharedInstance() {
+        long hits = PatternCache.getInstance().getHitCount();
+        Pattern pattern = PatternCache.compile("[0-9]+x");
+        Assert.assertSame(PatternCache.compile("[0-9]+x"), pattern);
+        Assert.assertEquals(PatternCache.getInstance().getHitCount(), hits + 1);
+    }
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class StringRowIndexTests {
+
+    @Test
+    public void testAddAndRemove() {
+        StringRowIndex index = new StringRowIndex(10);
+        index.add(0, "a");
+        index.add(4, "b");
+        index.add(7, "a");
+        index.add(3, "a");
+        index.add(1, "a");
+
+        Assert.assertEquals(index.get("a"), new int[] { 0, 1, 3, 7 });
+        Assert.assertEquals(index.get("b"), new int[] { 4 });
+        Assert.assertNull(index.get("c"));
+
+        index.remove(3);
+        index.remove(7);
+        index.set(4, "a");
+        index.set(0, null);
+        Assert.assertEquals(index.get("a"), new int[] { 1, 4 });
+        Assert.assertNull(index.get("b"));
+        Assert.assertEquals(index.getLiveKeyCount(), 1);
+
+        index.add(2, "a");
+        index.add(9, "a");
+        Assert.assertEquals(index.get("a"), new int[] { 1, 2, 4, 9 });
+    }
+
+    @Test
+    public void testGrowth() {
+        StringRowIndex index = new StringRowIndex(0);
+        for (int r = 0; r < 5000; r++) {
+            index.add(r, "v" + (r % 1000));
+        }
+        Assert.assertEquals(index.getLiveKeyCount(), 1000);
+        Assert.assertEquals(index.get("v42"), new int[] { 42, 1042, 2042, 3042, 4042 });
+
+        // moving all rows to new strings leaves the table full of strings without rows
+        for (int r = 0; r < 5000; r++) {
+            index.set(r, "w" + (r % 1000));
+        }
+        Assert.assertEquals(index.getLiveKeyCount(), 1000);
+        Assert.assertNull(index.get("v42"));
+        Assert.assertEquals(index.get("w999"), new int[] { 999, 1999, 2999, 3999, 4999 });
+    }
+
+    @Test
+    public void testSerialization() throws IOException {
+        StringRowIndex index = new StringRowIndex(5);
+        index.add(0, "élan");
+        index.add(1, "b");
+        index.add(3, "élan");
+        index.set(1, "c");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.write(new DataOutputStream(bytes));
+        StringRowIndex copy = StringRowIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        Assert.assertEquals(copy.get("élan"), new int[] { 0, 3 });
+        Assert.assertEquals(copy.get("c"), new int[] { 1 });
+        Assert.assertNull(copy.get("b"));
+        Assert.assertEquals(copy.getLiveKeyCount(), 2);
+    }
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (C) 2026, OpenRefine contributors
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ ******************************************************************************/
+package com.google.refine.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class UrlResponseCacheTests {
+
+    static class TestCache extends UrlResponseCache {
+        final File file;
+
+        TestCache(File file) {
+            this.file = file;
+        }
+
+        @Override
+        protected File getCacheFile() {
+            return file;
+        }
+    }
+
+    static final String URL = "http://localhost/page";
+
+    @Test
+    public void testHeadersNotSaved() throws IOException {
+        File dir = Files.createTempDirectory("url-cache").toFile();
+        File file = new File(dir, "cache.bin");
+        try {
+            Header[] headers = { new BasicHeader("Authorization", "Bearer s3cr3t-t0ken") };
+            Header[] otherHeaders = { new BasicHeader("Authorization", "Bearer other") };
+            TestCache cache = new TestCache(file);
+            cache.put(URL, headers, "page");
+            Assert.assertEquals(cache.get(URL, headers), "page");
+            Assert.assertNull(cache.get(URL, otherHeaders));
+            Assert.assertNull(cache.get(URL, new Header[0]));
+            cache.save();
+
+            try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+                String content = new String(IOUtils.toByteArray(in), StandardCharsets.ISO_8859_1);
+                Assert.assertTrue(content.contains(URL));
+                Assert.assertFalse(content.contains("s3cr3t-t0ken"));
+                Assert.assertFalse(content.contains("Authorization"));
+            }
+            Assert.assertEquals(new TestCache(file).get(URL, headers), "page");
+        } finally {
+            file.delete();
+            dir.delete();
+        }
+    }
+}
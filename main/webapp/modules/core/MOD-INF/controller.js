@@ -79,6 +79,7 @@ function registerCommands() {
   RS.registerCommand(module, "get-models", new Packages.com.google.refine.commands.project.GetModelsCommand());
   RS.registerCommand(module, "get-rows", new Packages.com.google.refine.commands.row.GetRowsCommand());
   RS.registerCommand(module, "get-processes", new Packages.com.google.refine.commands.history.GetProcessesCommand());
+  RS.registerCommand(module, "get-process-queue", new Packages.com.google.refine.commands.history.GetProcessQueueCommand());
   RS.registerCommand(module, "get-history", new Packages.com.google.refine.commands.history.GetHistoryCommand());
   RS.registerCommand(module, "get-operations", new Packages.com.google.refine.commands.history.GetOperationsCommand());
   RS.registerCommand(module, "get-columns-info", new Packages.com.google.refine.commands.column.GetColumnsInfoCommand());